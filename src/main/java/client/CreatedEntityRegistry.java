@@ -0,0 +1,78 @@
+package client;
+
+import client.json.FastJson;
+import io.restassured.response.Response;
+import mainutils.ConcurrentLongSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+/**
+ * Реестр сущностей, созданных текущим запуском через ProductClient и UserClient
+ * (в том числе косвенно — через TestDataSeeder).
+ * <p>
+ * Клиенты регистрируют ID при успешном создании и снимают при успешном удалении, поэтому
+ * очистка по реестру (ScopedCleanupService) стоит O(созданного) и не трогает чужие данные
+ * при параллельных пайплайнах на одном сервере.
+ */
+public final class CreatedEntityRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreatedEntityRegistry.class);
+
+    private static final ConcurrentLongSet PRODUCTS = new ConcurrentLongSet();
+    private static final ConcurrentLongSet USERS = new ConcurrentLongSet();
+
+    private CreatedEntityRegistry() {
+    }
+
+    public static ConcurrentLongSet products() {
+        return PRODUCTS;
+    }
+
+    public static ConcurrentLongSet users() {
+        return USERS;
+    }
+
+    /**
+     * Исключает сущности из очистки текущего запуска — например, засеянные данные из манифеста,
+     * которые должны пережить запуск.
+     */
+    public static void retain(Collection<Long> productIds, Collection<Long> userIds) {
+        productIds.forEach(PRODUCTS::remove);
+        userIds.forEach(USERS::remove);
+    }
+
+    static void onCreated(ConcurrentLongSet target, Response response) {
+        if (response.statusCode() != 200 && response.statusCode() != 201) {
+            return;
+        }
+        Long id = FastJson.readLongField(response.asByteArray(), "id");
+        if (id != null) {
+            target.add(id);
+        } else {
+            logger.debug("Ответ на создание без ID, сущность не зарегистрирована");
+        }
+    }
+
+    static void onDeleted(ConcurrentLongSet target, Response response, Collection<Long> ids) {
+        if (ids != null && isSuccess(response)) {
+            for (Long id : ids) {
+                if (id != null) {
+                    target.remove(id);
+                }
+            }
+        }
+    }
+
+    static void onDeletedAll(ConcurrentLongSet target, Response response) {
+        if (isSuccess(response)) {
+            target.clear();
+        }
+    }
+
+    private static boolean isSuccess(Response response) {
+        int status = response.statusCode();
+        return status == 200 || status == 204;
+    }
+}
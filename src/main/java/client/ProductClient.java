@@ -1,13 +1,24 @@
 package client;
 
+import client.http.ApiCall;
+import client.http.EndpointPool;
+import client.http.SingleFlight;
+import client.json.FastJson;
+import client.json.ModelCodec;
 import config.RestAssuredConfigurator;
 import domain.model.Product;
+import domain.model.ProductBatch;
+import mainutils.MockTimeProvider;
+import mainutils.allure.LeanAllure;
 import io.qameta.allure.Allure;
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static io.restassured.RestAssured.baseURI;
 import static io.restassured.RestAssured.given;
@@ -17,11 +28,19 @@ import static io.restassured.http.ContentType.JSON;
  * REST-клиент для работы с сущностью Product.
  * Отвечает за инкапсуляцию всех вызовов к API /api/products.
  * Используется во всех тестах уровня QA1–QA3.
+ * <p>
+ * Чтения списка, ID и продукта по ID при {@code -Dhttp.coalesce=true} объединяются между потоками
+ * ({@link SingleFlight}): одновременные одинаковые запросы делят один HTTP-вызов и разобранный результат.
  */
 public class ProductClient {
 
+    private static final String BASE_PATH = "/api/products";
+    private static final SingleFlight<Response> LIST_FLIGHT = SingleFlight.named("GET " + BASE_PATH);
+    private static final SingleFlight<List<Long>> IDS_FLIGHT = SingleFlight.named("ID продуктов");
+    private static final SingleFlight<Response> BY_ID_FLIGHT = SingleFlight.named("GET " + BASE_PATH + "/{id}");
+
     public ProductClient() {
-        RestAssuredConfigurator.configure("/api/products");
+        RestAssuredConfigurator.configure(BASE_PATH);
     }
 
     private static final Logger logger = LoggerFactory.getLogger(ProductClient.class);
@@ -31,30 +50,54 @@ public class ProductClient {
     @Step("Создание продукта: {product}")
     public Response createProduct(Product product) {
 
-        logRequest("POST", "</>", product);
-        String url = baseURI;
-        Response response = given()
-                .contentType(JSON)
-                .body(product)
-                .post()
-                .thenReturn();
+        byte[] body = ModelCodec.encode(product);
+        logEncodedRequest("POST", "</>", body);
+        return postProduct(body);
+    }
+
+    /**
+     * Создание продукта из заранее закодированного тела (см. {@link ModelCodec}).
+     * Одно и то же тело можно отправлять повторно без повторной сериализации.
+     */
+    @Step("Создание продукта (готовое тело)")
+    public Response createProductEncoded(byte[] body) {
+        logEncodedRequest("POST", "</>", body);
+        return postProduct(body);
+    }
+
+    private Response postProduct(byte[] body) {
+        Response response = execute("POST", "", () -> request()
+                    .contentType(JSON)
+                    .body(body)
+                    .post()
+                    .thenReturn());
 
         logResponse(response);
+        CreatedEntityRegistry.onCreated(CreatedEntityRegistry.products(), response);
         return response;
     }
 
     /**
      * Массовое создание продуктов. Ошибки логируются, не останавливают выполнение.
+     * В отчёте — один сводный шаг вместо шага на продукт (см. {@link LeanAllure#bulk(String)}).
      */
     @Step("Массовое создание продуктов")
     public void createProductBatch(Product[] products) {
         logger.info("⏳ Начинается массовое создание {} продуктов", products.length);
-        for (Product product : products) {
-            try {
-                Response response = createProduct(product);
-                logger.info("✅ Продукт создан: {}, код ответа: {}", product.getName(), response.getStatusCode());
-            } catch (Exception e) {
-                logger.error("❌ Ошибка при создании продукта {}: {}", product.getName(), e.getMessage());
+        try (LeanAllure.Bulk bulk = LeanAllure.bulk("Массовое создание продуктов")) {
+            for (Product product : products) {
+                try {
+                    Response response = createProduct(product);
+                    logger.info("✅ Продукт создан: {}, код ответа: {}", product.getName(), response.getStatusCode());
+                    if (response.getStatusCode() == 200 || response.getStatusCode() == 201) {
+                        bulk.succeeded();
+                    } else {
+                        bulk.failed(product.getName(), "статус " + response.getStatusCode());
+                    }
+                } catch (Exception e) {
+                    logger.error("❌ Ошибка при создании продукта {}: {}", product.getName(), e.getMessage());
+                    bulk.failed(product.getName(), e.getMessage());
+                }
             }
         }
     }
@@ -64,24 +107,28 @@ public class ProductClient {
         String url = baseURI;
         logRequest("GET", "</>", null);
 
-        Response response = given()
-                .accept(JSON)
-                .get()
-                .thenReturn();
+        Response response = fetchAll();
 
         logResponse(response);
         return response;
     }
 
+    private Response fetchAll() {
+        return LIST_FLIGHT.run("all", () -> execute("GET", "", () -> request()
+                    .accept(JSON)
+                    .get()
+                    .thenReturn()));
+    }
+
     @Step("Получение продуктов с пагинацией (Response) — page={page}, size={size}")
     public Response getAllProductsResponse(int page, int size) {
         String path = "/" + "?page=" + page + "&size=" + size;
         logRequest("GET", path, null);
 
-        Response response = given()
-                .accept(JSON)
-                .get(path)
-                .thenReturn();
+        Response response = execute("GET (page)", "", () -> request()
+                    .accept(JSON)
+                    .get(path)
+                    .thenReturn());
 
         logResponse(response);
         return response;
@@ -89,28 +136,36 @@ public class ProductClient {
 
     @Step("Получение всех продуктов (List<Product>)")
     public List<Product> getAllProducts() {
-        return getAllProductsResponse()
-                .then()
-//                .statusCode(200)
-                .extract()
-                .jsonPath()
-                .getList("content", Product.class);
+        return FastJson.readProductPage(getAllProductsResponse().asByteArray()).content();
+    }
+
+    /**
+     * Все продукты в компактном виде — для планирования очистки и сравнений на больших каталогах.
+     */
+    @Step("Получение всех продуктов (ProductBatch)")
+    public ProductBatch getAllProductsCompact() {
+        Response response = getAllProductsResponse();
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Не удалось получить список продуктов: " + response.statusCode());
+        }
+        return FastJson.readProductBatch(response.asByteArray());
     }
 
     @Step("Получение всех ID продуктов")
     public List<Long> getAllProductIds() {
         logger.info("📥 Получение всех продуктов для анализа ID");
 
-        Response response = given()
-                .get()
-                .thenReturn();
+        // Список общий для попутчиков — каждый получает свою изменяемую копию
+        return new ArrayList<>(IDS_FLIGHT.run("all", () -> {
+            Response response = fetchAll();
 
-        logResponse(response);
+            logResponse(response);
 
-        if (response.statusCode() != 200) {
-            throw new IllegalStateException("Не удалось получить список продуктов: " + response.statusCode());
-        }
-        return response.jsonPath().getList("id", Long.class);
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Не удалось получить список продуктов: " + response.statusCode());
+            }
+            return FastJson.readIds(response.asByteArray());
+        }));
     }
 //        return getAllProducts()
 //                .stream()
@@ -125,12 +180,12 @@ public class ProductClient {
         }
         logRequest("GET", "/{id}", null);
 
-        Response response = given()
-                .pathParam("id", id)
-                .when()
-                .accept(JSON)
-                .get("/{id}")
-                .thenReturn();
+        Response response = BY_ID_FLIGHT.run(id.toString(), () -> execute("GET", "/{id}", () -> request()
+                    .pathParam("id", id)
+                    .when()
+                    .accept(JSON)
+                    .get("/{id}")
+                    .thenReturn()));
 
         logResponse(response);
         return response;
@@ -144,13 +199,14 @@ public class ProductClient {
 //        String path = "/" + "/" + id;
         logRequest("DELETE (by ID)", "/{id}", null);
 
-        Response response = given()
-                .pathParam("id", id)
-                .when()
-                .delete("/{id}")
-                .thenReturn();
+        Response response = execute("DELETE (by ID)", "/{id}", () -> request()
+                    .pathParam("id", id)
+                    .when()
+                    .delete("/{id}")
+                    .thenReturn());
 
         logResponse(response);
+        CreatedEntityRegistry.onDeleted(CreatedEntityRegistry.products(), response, List.of(id));
         return response;
     }
 
@@ -158,14 +214,15 @@ public class ProductClient {
     public Response deleteProducts(List<Long> ids) {
         logRequest("DELETE (bulk)", "/", ids);
 
-        Response response = given()
-                .contentType(JSON)
-                .body(ids)
-                .when()
-                .request("DELETE", "") // REST Assured требует ручной вызов метода, если передаётся тело для DELETE
-                .thenReturn();
+        Response response = execute("DELETE (bulk)", "", () -> request()
+                    .contentType(JSON)
+                    .body(ids)
+                    .when()
+                    .request("DELETE", "") // REST Assured требует ручной вызов метода, если передаётся тело для DELETE
+                    .thenReturn());
 
         logResponse(response);
+        CreatedEntityRegistry.onDeleted(CreatedEntityRegistry.products(), response, ids);
         return response;
     }
 
@@ -173,11 +230,12 @@ public class ProductClient {
     public Response deleteAllProducts() {
         logRequest("DELETE (all)", "/", null);
 
-        Response response = given()
-                .delete()
-                .thenReturn();
+        Response response = execute("DELETE (all)", "", () -> request()
+                    .delete()
+                    .thenReturn());
 
         logResponse(response);
+        CreatedEntityRegistry.onDeletedAll(CreatedEntityRegistry.products(), response);
         return response;
     }
 
@@ -192,20 +250,55 @@ public class ProductClient {
         }
         String endpoint = "/" + id; // просто "/1", т.к. basePath уже установлен
 
-        logRequest("PUT", endpoint, product);
+        byte[] body = ModelCodec.encode(product);
+        logEncodedRequest("PUT", endpoint, body);
+        return putProduct(id, body);
+    }
 
-        Response response = given()
-                .contentType(JSON)
-                .body(product)
-                .when()
-                .put("/{id}", id)
-                .thenReturn();
+    /**
+     * Обновление продукта заранее закодированным телом — для ретраев без повторной сериализации.
+     */
+    @Step("Обновление продукта по ID: {id} (готовое тело)")
+    public Response updateProductEncoded(Long id, byte[] body) {
+        if (id == null) {
+            throw new IllegalArgumentException("Product ID не может быть null при обновлении");
+        }
+        if (body == null) {
+            throw new IllegalArgumentException("Тело запроса не может быть null");
+        }
+        logEncodedRequest("PUT", "/" + id, body);
+        return putProduct(id, body);
+    }
+
+    private Response putProduct(Long id, byte[] body) {
+        Response response = execute("PUT", "/{id}", () -> request()
+                    .contentType(JSON)
+                    .body(body)
+                    .when()
+                    .put("/{id}", id)
+                    .thenReturn());
 
         logResponse(response);
         return response;
     }
 
 
+    /**
+     * Выполнение запроса через {@link ApiCall}: замер фаз, агрегация по эндпоинту, вложение в Allure.
+     */
+    private Response execute(String method, String path, Supplier<Response> call) {
+        return ApiCall.execute(method, BASE_PATH + path, call);
+    }
+
+    /**
+     * Базовая спецификация запроса с явным basePath клиента.
+     * RestAssured.basePath общий для всех клиентов, поэтому не полагаемся на него.
+     * Мок-время потока передаётся серверу заголовком (см. {@link MockTimeProvider#propagate}).
+     */
+    private RequestSpecification request() {
+        return MockTimeProvider.propagate(EndpointPool.apply(given().basePath(BASE_PATH)));
+    }
+
     // 🔽 Утилитные методы логирования
     private void logRequest(String method, String url, Object body) {
         logger.info("➡️ {} {}", method, url);
@@ -214,6 +307,15 @@ public class ProductClient {
         }
     }
 
+    /**
+     * Закодированное тело не превращается обратно в строку (и модель не рендерится через toString) —
+     * логируем только размер.
+     */
+    private void logEncodedRequest(String method, String url, byte[] body) {
+        logger.info("➡️ {} {}", method, url);
+        logger.info("📦 Тело запроса: {} байт", body.length);
+    }
+
     private void logResponse(Response response) {
         int statusCode = response.getStatusCode();
         String responseBody = response.getBody() != null ? response.getBody().asPrettyString() : "";
@@ -254,7 +356,7 @@ public class ProductClient {
                     ". Код: " + status);
         }
 
-        return response.as(Product.class);
+        return FastJson.readProduct(response.asByteArray());
     }
 
 }
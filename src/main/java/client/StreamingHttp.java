@@ -0,0 +1,61 @@
+package client;
+
+import client.http.ApiCall;
+import mainutils.MockTimeProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Потоковые GET-запросы в обход RestAssured.
+ * RestAssured всегда буферизует тело ответа целиком, поэтому для больших списков
+ * используем JDK HttpClient и читаем тело как InputStream по мере поступления.
+ * Вызов идёт через {@link ApiCall#stream}: реплика из пула, фазы, событие JFR и статистика эндпоинта
+ * как у остальных запросов; мок-время передаётся заголовком.
+ */
+final class StreamingHttp {
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private StreamingHttp() {
+    }
+
+    /**
+     * Выполняет GET и возвращает поток тела ответа; вызывающий обязан его закрыть —
+     * закрытие освобождает реплику и завершает замер вызова.
+     * @param path путь относительно базового адреса сервиса, например "/api/users"
+     */
+    static InputStream get(String path) {
+        try {
+            ApiCall.Stream body = ApiCall.stream("GET", path, replica -> {
+                HttpRequest request = MockTimeProvider.propagate(HttpRequest.newBuilder(URI.create(replica.url() + path)))
+                        .header("Accept", "application/json")
+                        .GET()
+                        .build();
+                return HTTP.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            });
+            if (body.status() != 200) {
+                try (body) {
+                    // Вычитываем тело ошибки, чтобы соединение вернулось в пул
+                    body.transferTo(OutputStream.nullOutputStream());
+                }
+                throw new IllegalStateException("GET " + path + " вернул статус " + body.status());
+            }
+            return body;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка потокового GET " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Потоковый GET " + path + " прерван", e);
+        }
+    }
+}
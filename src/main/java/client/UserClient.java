@@ -1,19 +1,35 @@
 package client;
 
 import domain.model.User;
+import client.http.ApiCall;
+import client.http.EndpointPool;
+import client.json.FastJson;
+import client.json.JsonArrayIterator;
+import client.json.ModelCodec;
+import client.json.ModelReaders;
 import config.RestAssuredConfigurator;
 import io.qameta.allure.Step;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
+import mainutils.MockTimeProvider;
+import mainutils.allure.LeanAllure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import io.restassured.specification.RequestSpecification;
 import static io.restassured.RestAssured.basePath;
 import static io.restassured.RestAssured.given;
 import static io.restassured.http.ContentType.JSON;
-import static org.testng.Assert.assertEquals;
 
 /**
  * REST-клиент для управления пользователями.
@@ -22,38 +38,61 @@ import static org.testng.Assert.assertEquals;
 public class UserClient {
 
     private static final Logger logger = LoggerFactory.getLogger(UserClient.class);
+    private static final String BASE_PATH = "/api/users";
 //    private final RequestSpecification spec;
 
     public UserClient() {
         // Настраиваем basePath для всех запросов этого клиента
-        RestAssuredConfigurator.configure("/api/users");
+        RestAssuredConfigurator.configure(BASE_PATH);
 
         // Локальный spec на случай использования новых методов
 //        this.spec = given().basePath("/api/users").contentType(JSON);
     }
     @Step("Создание пользователя: {user}")
     public Response createUser(User user) {
-        logRequest("POST", user);
+        byte[] body = ModelCodec.encode(user);
+        logEncodedRequest("POST", body);
+        return postUser(body);
+    }
+
+    /**
+     * Создание пользователя из заранее закодированного тела (см. {@link ModelCodec}).
+     */
+    @Step("Создание пользователя (готовое тело)")
+    public Response createUserEncoded(byte[] body) {
+        logEncodedRequest("POST", body);
+        return postUser(body);
+    }
 
-        Response response = given()
-                .contentType("application/json")
-                .body(user)
-                .post()
-                .thenReturn();
+    private Response postUser(byte[] body) {
+        Response response = execute("POST", "", () -> request()
+                    .contentType("application/json")
+                    .body(body)
+                    .post()
+                    .thenReturn());
 
         logResponse(response);
+        CreatedEntityRegistry.onCreated(CreatedEntityRegistry.users(), response);
         return response;
     }
 
     @Step("Массовое создание пользователей")
     public void createUserBatch(User[] users) {
         logger.info("⏳ Начинается массовое создание {} пользователей", users.length);
-        for (User user : users) {
-            try {
-                Response response = createUser(user);
-                logger.info("✅ Пользователь создан: {}, код ответа: {}", user.getEmail(), response.getStatusCode());
-            } catch (Exception e) {
-                logger.error("❌ Ошибка при создании пользователя {}: {}", user.getEmail(), e.getMessage());
+        try (LeanAllure.Bulk bulk = LeanAllure.bulk("Массовое создание пользователей")) {
+            for (User user : users) {
+                try {
+                    Response response = createUser(user);
+                    logger.info("✅ Пользователь создан: {}, код ответа: {}", user.getEmail(), response.getStatusCode());
+                    if (response.getStatusCode() == 200 || response.getStatusCode() == 201) {
+                        bulk.succeeded();
+                    } else {
+                        bulk.failed(user.getEmail(), "статус " + response.getStatusCode());
+                    }
+                } catch (Exception e) {
+                    logger.error("❌ Ошибка при создании пользователя {}: {}", user.getEmail(), e.getMessage());
+                    bulk.failed(user.getEmail(), e.getMessage());
+                }
             }
         }
     }
@@ -61,14 +100,84 @@ public class UserClient {
     @Step("Получение всех пользователей")
     public List<User> getAllUsers() {
         logRequest("GET", null);
-        Response response = given()
-                .accept(JSON)
-                .get()
-                .thenReturn();
+        Response response = execute("GET", "", () -> request()
+                    .accept(JSON)
+                    .get()
+                    .thenReturn());
+
+        logResponse(response);
+        if (response.getStatusCode() != 200) {
+            throw new IllegalStateException("Некорректный статус-код при получении пользователей: " + response.getStatusCode());
+        }
+        return FastJson.readUsers(response.asByteArray());
+    }
+
+    @Step("Получение пользователей с пагинацией (Response) — page={page}, size={size}")
+    public Response getUsersPageResponse(int page, int size) {
+        logRequest("GET ?page=" + page + "&size=" + size, null);
+
+        Response response = execute("GET (page)", "", () -> request()
+                    .accept(JSON)
+                    .queryParam("page", page)
+                    .queryParam("size", size)
+                    .get()
+                    .thenReturn());
 
         logResponse(response);
-        assertEquals(response.getStatusCode(), 200, "Некорректный статус-код при получении пользователей");
-        return response.jsonPath().getList(".", User.class);
+        return response;
+    }
+
+    /**
+     * Страница пользователей. Понимает и страницу вида {"content": [...]}, и простой массив
+     * (если сервер игнорирует параметры пагинации, вернётся весь список).
+     */
+    @Step("Получение пользователей с пагинацией — page={page}, size={size}")
+    public List<User> getUsersPage(int page, int size) {
+        Response response = getUsersPageResponse(page, size);
+        if (response.getStatusCode() != 200) {
+            throw new IllegalStateException("Некорректный статус-код при получении пользователей: " + response.getStatusCode());
+        }
+        return FastJson.readUsers(response.asByteArray());
+    }
+
+    /**
+     * Потоковый итератор по всем пользователям: массив разбирается по мере чтения ответа,
+     * память не зависит от размера таблицы. Соединение закрывается при исчерпании итератора.
+     */
+    public JsonArrayIterator<User> iterateUsers() {
+        logger.info("➡️ GET (stream) {}", RestAssured.baseURI + BASE_PATH);
+        return new JsonArrayIterator<>(StreamingHttp.get(BASE_PATH), ModelReaders::readUser);
+    }
+
+    /**
+     * Поток всех пользователей. Поток нужно закрыть (try-with-resources), если он не дочитан до конца.
+     */
+    public Stream<User> streamUsers() {
+        JsonArrayIterator<User> iterator = iterateUsers();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Поток только ID пользователей: остальные поля пропускаются без создания объектов.
+     */
+    public LongStream streamUserIds() {
+        logger.info("➡️ GET (stream ids) {}", RestAssured.baseURI + BASE_PATH);
+        JsonArrayIterator<Long> iterator = new JsonArrayIterator<>(StreamingHttp.get(BASE_PATH), ModelReaders::readId);
+        PrimitiveIterator.OfLong ids = new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return iterator.next();
+            }
+        };
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(ids, Spliterator.ORDERED), false)
+                .filter(id -> id != Long.MIN_VALUE)
+                .onClose(iterator::close);
     }
 
     @Step("Удаление пользователя по ID: {id}")
@@ -76,11 +185,12 @@ public class UserClient {
         String path = "/" + id;
         logRequest("DELETE", null);
 
-        Response response = given()
-                .delete(path)
-                .thenReturn();
+        Response response = execute("DELETE", "/{id}", () -> request()
+                    .delete(path)
+                    .thenReturn());
 
         logResponse(response);
+        CreatedEntityRegistry.onDeleted(CreatedEntityRegistry.users(), response, Collections.singletonList(id));
         return response;
     }
 
@@ -88,22 +198,47 @@ public class UserClient {
     public Response deleteAllUsers() {
         logRequest("DELETE", null);
 
-        Response response = given()
-                .delete()
-                .thenReturn();
+        Response response = execute("DELETE (all)", "", () -> request()
+                    .delete()
+                    .thenReturn());
 
         logResponse(response);
+        CreatedEntityRegistry.onDeletedAll(CreatedEntityRegistry.users(), response);
         return response;
     }
 
+    /**
+     * Выполнение запроса через {@link ApiCall}: замер фаз, агрегация по эндпоинту, вложение в Allure.
+     */
+    private Response execute(String method, String path, Supplier<Response> call) {
+        return ApiCall.execute(method, BASE_PATH + path, call);
+    }
+
+    /**
+     * Базовая спецификация запроса с явным basePath клиента.
+     * RestAssured.basePath общий для всех клиентов, поэтому не полагаемся на него.
+     * Мок-время потока передаётся серверу заголовком (см. {@link MockTimeProvider#propagate}).
+     */
+    private RequestSpecification request() {
+        return MockTimeProvider.propagate(EndpointPool.apply(given().basePath(BASE_PATH)));
+    }
+
     private void logRequest(String method, Object body) {
-        String fullUrl = RestAssured.baseURI + RestAssured.basePath;
+        String fullUrl = RestAssured.baseURI + BASE_PATH;
         logger.info("➡️ {} {}", method, fullUrl);
         if (body != null) {
             logger.info("📦 Тело запроса: {}", body);
         }
     }
 
+    /**
+     * Закодированное тело не превращается обратно в строку — логируем только размер.
+     */
+    private void logEncodedRequest(String method, byte[] body) {
+        logger.info("➡️ {} {}", method, RestAssured.baseURI + BASE_PATH);
+        logger.info("📦 Тело запроса: {} байт", body.length);
+    }
+
     private void logResponse(Response response) {
         logger.info("⬅️ Код ответа: {}", response.getStatusCode());
         logger.info("📭 Тело ответа: {}", response.getBody().asPrettyString());
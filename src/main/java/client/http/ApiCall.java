@@ -0,0 +1,240 @@
+package client.http;
+
+import io.qameta.allure.Allure;
+import io.restassured.response.Response;
+import mainutils.jfr.ApiCallEvent;
+import mainutils.jfr.JfrEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.function.Supplier;
+
+/**
+ * Единая точка выполнения вызовов API в клиентах.
+ * <p>
+ * Обнуляет фазы потока, выполняет запрос, пишет фазы в {@link EndpointPhaseStats} и, если запрос
+ * медленный ({@code http.slow.ms}, по умолчанию 1000), вернул 5xx или упал, прикладывает к Allure
+ * разбивку запроса вместе со средними по эндпоинту. Каждый вызов также пишется событием JFR
+ * ({@link ApiCallEvent}), если идёт запись. Реплика сервиса на время вызова берётся из {@link EndpointPool}.
+ * Завершение изменяющего вызова (не GET) сообщается {@link SingleFlight}.
+ * <p>
+ * Потоковые вызовы в обход RestAssured ({@link #stream}) проходят те же шаги, но завершаются при закрытии
+ * потока тела: ttfb — до заголовков ответа, body — время внутри чтения из потока.
+ */
+public final class ApiCall {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiCall.class);
+    private static final long SLOW_NANOS = Long.getLong("http.slow.ms", 1000) * 1_000_000;
+    private static final ThreadLocal<int[]> RETRY = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<long[]> HTTP_WAIT = ThreadLocal.withInitial(() -> new long[2]);
+
+    private ApiCall() {
+    }
+
+    /**
+     * Помечает следующий вызов в этом потоке как повтор с указанным номером (для событий JFR).
+     */
+    public static void markRetry(int retry) {
+        RETRY.get()[0] = retry;
+    }
+
+    /**
+     * Суммарное время ожидания транспорта в текущем потоке, нс: фазы pool..body без обработки
+     * в RestAssured (она — клиентская работа). Растёт монотонно; считать разницу снимков.
+     */
+    public static long threadHttpNanos() {
+        return HTTP_WAIT.get()[0];
+    }
+
+    /**
+     * Количество вызовов API в текущем потоке (растёт монотонно).
+     */
+    public static long threadHttpCalls() {
+        return HTTP_WAIT.get()[1];
+    }
+
+    /**
+     * @param method HTTP-метод
+     * @param path шаблон пути без значений параметров, например "/api/products/{id}"
+     */
+    public static Response execute(String method, String path, Supplier<Response> call) {
+        String endpoint = method + " " + path;
+        int[] retrySlot = RETRY.get();
+        int retry = retrySlot[0];
+        retrySlot[0] = 0;
+        ApiCallEvent event = JfrEvents.apiCallStarted(method, path);
+        PhaseTimings timings = PhaseTimings.begin();
+        EndpointPool pool = EndpointPool.shared();
+        EndpointPool.Endpoint replica = pool.acquire();
+        long started = System.nanoTime();
+        Response response;
+        byte[] body;
+        try {
+            response = call.get();
+            // Тело уже вычитано транспортом (фаза body); здесь — только размер для события JFR
+            body = response.asByteArray();
+        } catch (Exception e) {
+            // Exception, а не RuntimeException: RestAssured пробрасывает ошибки соединения (IOException) без обёртки
+            pool.release(replica, -1, e);
+            onFinished(method);
+            JfrEvents.apiCallFinished(event, -1, 0, timings.bytesOut(), retry, e.getMessage());
+            PhaseTimings.Snapshot snapshot = timings.snapshot(System.nanoTime() - started);
+            addHttpWait(snapshot.total() - snapshot.other());
+            EndpointPhaseStats stats = EndpointPhaseStats.of(endpoint);
+            stats.record(snapshot, true);
+            attach(endpoint, snapshot, stats, "ошибка: " + e.getMessage());
+            throw e;
+        }
+
+        int status = response.statusCode();
+        pool.release(replica, status, null);
+        onFinished(method);
+        JfrEvents.apiCallFinished(event, status, body != null ? body.length : 0, timings.bytesOut(), retry, null);
+        PhaseTimings.Snapshot snapshot = timings.snapshot(System.nanoTime() - started);
+        addHttpWait(snapshot.total() - snapshot.other());
+        EndpointPhaseStats stats = EndpointPhaseStats.of(endpoint);
+        stats.record(snapshot, status >= 500);
+        if (status >= 500) {
+            attach(endpoint, snapshot, stats, "статус " + status);
+        } else if (snapshot.total() >= SLOW_NANOS) {
+            attach(endpoint, snapshot, stats, "медленный запрос");
+        }
+        return response;
+    }
+
+    /**
+     * Отправка потокового запроса на выбранную реплику.
+     */
+    @FunctionalInterface
+    public interface StreamingCall {
+        HttpResponse<InputStream> send(EndpointPool.Endpoint replica) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Потоковый вызов: реплика, фазы, событие JFR и статистика эндпоинта закрываются вместе с возвращённым потоком.
+     * Фазы хранятся в отдельном накопителе — пока поток открыт, поток-владелец может выполнять другие вызовы.
+     */
+    public static Stream stream(String method, String path, StreamingCall call) throws IOException, InterruptedException {
+        String endpoint = method + " " + path;
+        int[] retrySlot = RETRY.get();
+        int retry = retrySlot[0];
+        retrySlot[0] = 0;
+        ApiCallEvent event = JfrEvents.apiCallStarted(method, path);
+        PhaseTimings timings = new PhaseTimings();
+        EndpointPool pool = EndpointPool.shared();
+        EndpointPool.Endpoint replica = pool.acquire();
+        long started = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = call.send(replica);
+        } catch (Exception e) {
+            pool.release(replica, -1, e);
+            onFinished(method);
+            JfrEvents.apiCallFinished(event, -1, 0, 0, retry, e.getMessage());
+            PhaseTimings.Snapshot snapshot = timings.snapshot(System.nanoTime() - started);
+            addHttpWait(snapshot.total() - snapshot.other());
+            EndpointPhaseStats stats = EndpointPhaseStats.of(endpoint);
+            stats.record(snapshot, true);
+            attach(endpoint, snapshot, stats, "ошибка: " + e.getMessage());
+            throw e;
+        }
+        timings.ttfbNanos = System.nanoTime() - started;
+        return new Stream(response.body(), response.statusCode(), () -> {
+            int status = response.statusCode();
+            pool.release(replica, status, null);
+            onFinished(method);
+            PhaseTimings.Snapshot snapshot = timings.snapshot(System.nanoTime() - started);
+            JfrEvents.apiCallFinished(event, status, timings.bytesIn, 0, retry, null);
+            addHttpWait(snapshot.total() - snapshot.other());
+            EndpointPhaseStats stats = EndpointPhaseStats.of(endpoint);
+            stats.record(snapshot, status >= 500);
+            if (status >= 500) {
+                attach(endpoint, snapshot, stats, "статус " + status);
+            } else if (snapshot.total() >= SLOW_NANOS) {
+                attach(endpoint, snapshot, stats, "медленный запрос");
+            }
+        }, timings);
+    }
+
+    /**
+     * Тело потокового ответа: считает время чтения в фазу body, при закрытии завершает вызов (один раз).
+     */
+    public static final class Stream extends FilterInputStream {
+
+        private final int status;
+        private final Runnable onClose;
+        private final PhaseTimings timings;
+        private boolean closed;
+
+        private Stream(InputStream in, int status, Runnable onClose, PhaseTimings timings) {
+            super(in);
+            this.status = status;
+            this.onClose = onClose;
+            this.timings = timings;
+        }
+
+        public int status() {
+            return status;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long started = System.nanoTime();
+            try {
+                int value = super.read();
+                timings.bytesIn += value >= 0 ? 1 : 0;
+                return value;
+            } finally {
+                timings.bodyNanos += System.nanoTime() - started;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long started = System.nanoTime();
+            try {
+                int read = super.read(b, off, len);
+                timings.bytesIn += Math.max(read, 0);
+                return read;
+            } finally {
+                timings.bodyNanos += System.nanoTime() - started;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                onClose.run();
+            }
+        }
+    }
+
+    private static void onFinished(String method) {
+        // Метод может быть с пометкой: "GET (page)", "DELETE (bulk)"
+        if (!method.startsWith("GET")) {
+            SingleFlight.onWrite();
+        }
+    }
+
+    private static void addHttpWait(long nanos) {
+        long[] wait = HTTP_WAIT.get();
+        wait[0] += nanos;
+        wait[1]++;
+    }
+
+    private static void attach(String endpoint, PhaseTimings.Snapshot snapshot, EndpointPhaseStats stats, String reason) {
+        logger.warn("🐢 {} ({}): {}", endpoint, reason, snapshot.describe());
+        Allure.addAttachment("Фазы HTTP: " + endpoint, "text/plain",
+                "Причина: " + reason + "\n\nЗапрос:\n" + snapshot.describe() + "\n\nСреднее по эндпоинту:\n" + stats.describe());
+    }
+}
@@ -0,0 +1,99 @@
+package client.http;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Агрегированные фазы запросов по эндпоинтам ("GET /api/products/{id}").
+ * Счётчики на {@link LongAdder}, поэтому запись из параллельных потоков не конкурирует.
+ */
+public final class EndpointPhaseStats {
+
+    private static final Map<String, EndpointPhaseStats> BY_ENDPOINT = new ConcurrentHashMap<>();
+
+    private final String endpoint;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder newConnections = new LongAdder();
+    private final LongAdder poolAcquire = new LongAdder();
+    private final LongAdder dns = new LongAdder();
+    private final LongAdder connect = new LongAdder();
+    private final LongAdder write = new LongAdder();
+    private final LongAdder ttfb = new LongAdder();
+    private final LongAdder body = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator maxTotal = new LongAccumulator(Math::max, 0);
+
+    private EndpointPhaseStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public static EndpointPhaseStats of(String endpoint) {
+        return BY_ENDPOINT.computeIfAbsent(endpoint, EndpointPhaseStats::new);
+    }
+
+    /**
+     * Все эндпоинты по убыванию суммарного времени.
+     */
+    public static List<EndpointPhaseStats> all() {
+        List<EndpointPhaseStats> list = new ArrayList<>(BY_ENDPOINT.values());
+        list.sort(Comparator.comparingLong((EndpointPhaseStats stats) -> stats.total.sum()).reversed());
+        return list;
+    }
+
+    public static String report() {
+        StringBuilder sb = new StringBuilder("Средние фазы HTTP по эндпоинтам, мс\n");
+        for (EndpointPhaseStats stats : all()) {
+            sb.append(stats.describe()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        BY_ENDPOINT.clear();
+    }
+
+    void record(PhaseTimings.Snapshot snapshot, boolean error) {
+        calls.increment();
+        if (error) {
+            errors.increment();
+        }
+        if (snapshot.newConnection()) {
+            newConnections.increment();
+        }
+        poolAcquire.add(snapshot.poolAcquire());
+        dns.add(snapshot.dns());
+        connect.add(snapshot.connect());
+        write.add(snapshot.write());
+        ttfb.add(snapshot.ttfb());
+        body.add(snapshot.body());
+        total.add(snapshot.total());
+        maxTotal.accumulate(snapshot.total());
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public String describe() {
+        long n = Math.max(1, calls.sum());
+        return String.format("%s: вызовов=%d ошибок=%d новых соединений=%d | pool=%.1f dns=%.1f connect=%.1f "
+                        + "write=%.1f ttfb=%.1f body=%.1f total=%.1f max=%.1f",
+                endpoint, calls.sum(), errors.sum(), newConnections.sum(),
+                avg(poolAcquire, n), avg(dns, n), avg(connect, n), avg(write, n), avg(ttfb, n), avg(body, n),
+                avg(total, n), maxTotal.get() / 1_000_000.0);
+    }
+
+    private static double avg(LongAdder nanos, long n) {
+        return nanos.sum() / (double) n / 1_000_000.0;
+    }
+}
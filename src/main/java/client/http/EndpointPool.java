@@ -0,0 +1,319 @@
+package client.http;
+
+import io.restassured.specification.RequestSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Клиентская балансировка между репликами сервиса.
+ * <p>
+ * Адреса берутся из {@code api.base.urls} (через запятую, со схемой и портом), иначе — единственный
+ * {@code api.base.url} с портом {@code api.port}. Выбор — «два случайных» (power of two choices) по числу
+ * запросов в работе; реплика на плавном старте принимает выигранный запрос с вероятностью своего веса. Пассивная проверка здоровья: после
+ * {@code lb.eject.consecutive} (3) подряд ошибок соединения или ответов 503 реплика исключается на
+ * {@code lb.eject.base.ms} (10 с), при повторных исключениях срок удваивается до {@code lb.eject.max.ms} (5 мин).
+ * Вес вернувшейся реплики линейно растёт от 0,1 до 1 за {@code lb.slow.start.ms} (30 с); если плавный старт прошёл
+ * без нового исключения, следующее исключение снова начинается с базового срока.
+ * Если исключены все — запрос идёт на ту, чей срок истекает раньше (лучше попытка, чем отказ).
+ * <p>
+ * {@link ApiCall} берёт реплику на время вызова ({@link #acquire()}/{@link #release}), клиенты
+ * подставляют её адрес в запрос через {@link #apply(RequestSpecification)}.
+ */
+public final class EndpointPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndpointPool.class);
+    private static final double MIN_SLOW_START_WEIGHT = 0.1;
+    private static final ThreadLocal<Endpoint> CURRENT = new ThreadLocal<>();
+    private static final EndpointPool SHARED = fromSystemProperties();
+
+    private final Endpoint[] endpoints;
+    private final int ejectConsecutive = Integer.getInteger("lb.eject.consecutive", 3);
+    private final long ejectBaseNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("lb.eject.base.ms", 10_000));
+    private final long ejectMaxNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("lb.eject.max.ms", 300_000));
+    private final long slowStartNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("lb.slow.start.ms", 30_000));
+    // Без плавного старта здоровым считается период в базовый срок исключения
+    private final long healthyNanos = slowStartNanos > 0 ? slowStartNanos : ejectBaseNanos;
+
+    /**
+     * Реплика сервиса и её состояние.
+     */
+    public static final class Endpoint {
+
+        private final String url;
+        private final String baseUri;
+        private final int port;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private int ejections;
+        private int backoff;
+        private volatile long ejectedUntil;
+        private volatile long recoveredAt;
+
+        private Endpoint(String url) {
+            URI uri = URI.create(url.trim());
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                throw new IllegalArgumentException("Адрес реплики должен содержать схему и хост: " + url);
+            }
+            this.port = uri.getPort() > 0 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+            this.baseUri = uri.getScheme() + "://" + uri.getHost();
+            this.url = baseUri + ":" + port;
+        }
+
+        /**
+         * Адрес со схемой и портом, например {@code http://10.0.0.5:31494}.
+         */
+        public String url() {
+            return url;
+        }
+
+        public String baseUri() {
+            return baseUri;
+        }
+
+        public int port() {
+            return port;
+        }
+
+        public int outstanding() {
+            return outstanding.get();
+        }
+
+        public String describe() {
+            return String.format("%s: запросов %d, сбоев %d, в работе %d, исключений %d%s", url, requests.sum(),
+                    failures.sum(), outstanding.get(), ejections, ejectedUntil != 0 ? " (исключена)" : "");
+        }
+    }
+
+    public EndpointPool(List<String> urls) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("Нужен хотя бы один адрес сервиса");
+        }
+        this.endpoints = urls.stream().map(Endpoint::new).toArray(Endpoint[]::new);
+    }
+
+    /**
+     * Пул по системным свойствам; общий для клиентов экземпляр — {@link #shared()}.
+     */
+    public static EndpointPool fromSystemProperties() {
+        String urls = System.getProperty("api.base.urls", "").trim();
+        if (!urls.isEmpty()) {
+            return parse(urls);
+        }
+        return new EndpointPool(List.of(System.getProperty("api.base.url", "http://localhost") + ":"
+                + Integer.getInteger("api.port", 31494)));
+    }
+
+    /**
+     * @param urls адреса через запятую
+     */
+    public static EndpointPool parse(String urls) {
+        List<String> list = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                list.add(url.trim());
+            }
+        }
+        return new EndpointPool(list);
+    }
+
+    public static EndpointPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Подставляет в запрос адрес реплики, взятой текущим вызовом {@link ApiCall}. С одной репликой
+     * запрос не меняется — работает глобальная настройка RestAssured.
+     */
+    public static RequestSpecification apply(RequestSpecification spec) {
+        Endpoint endpoint = CURRENT.get();
+        if (endpoint != null && SHARED.endpoints.length > 1) {
+            spec.baseUri(endpoint.baseUri()).port(endpoint.port());
+        }
+        return spec;
+    }
+
+    /**
+     * Реплика текущего вызова или первая реплика пула (для запросов в обход {@link ApiCall}).
+     */
+    public static Endpoint current() {
+        Endpoint endpoint = CURRENT.get();
+        return endpoint != null ? endpoint : SHARED.endpoints[0];
+    }
+
+    public List<Endpoint> endpoints() {
+        return List.of(endpoints);
+    }
+
+    public int size() {
+        return endpoints.length;
+    }
+
+    /**
+     * Адреса через запятую — в формате {@code api.base.urls}.
+     */
+    public String urls() {
+        StringBuilder sb = new StringBuilder();
+        for (Endpoint endpoint : endpoints) {
+            if (!sb.isEmpty()) {
+                sb.append(',');
+            }
+            sb.append(endpoint.url());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Выбирает реплику и учитывает запрос в работе; парный вызов — {@link #release}.
+     */
+    public Endpoint acquire() {
+        Endpoint chosen = select(System.nanoTime());
+        chosen.outstanding.incrementAndGet();
+        chosen.requests.increment();
+        if (this == SHARED) {
+            CURRENT.set(chosen);
+        }
+        return chosen;
+    }
+
+    /**
+     * Завершает запрос: сбой — ошибка соединения ({@link IOException} в цепочке причин) или статус 503.
+     * @param status код ответа; не используется, если {@code error != null}
+     */
+    public void release(Endpoint endpoint, int status, Throwable error) {
+        endpoint.outstanding.decrementAndGet();
+        if (this == SHARED) {
+            CURRENT.remove();
+        }
+        boolean failure = error != null ? isConnectionError(error) : status == 503;
+        if (!failure) {
+            endpoint.consecutiveFailures.set(0);
+            return;
+        }
+        endpoint.failures.increment();
+        if (endpoints.length > 1 && endpoint.consecutiveFailures.incrementAndGet() >= ejectConsecutive) {
+            eject(endpoint, System.nanoTime());
+        }
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder("Реплики сервиса\n");
+        for (Endpoint endpoint : endpoints) {
+            sb.append(endpoint.describe()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private Endpoint select(long now) {
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        List<Endpoint> available = new ArrayList<>(endpoints.length);
+        Endpoint soonest = endpoints[0];
+        for (Endpoint endpoint : endpoints) {
+            if (isAvailable(endpoint, now)) {
+                available.add(endpoint);
+            } else if (endpoint.ejectedUntil < soonest.ejectedUntil) {
+                soonest = endpoint;
+            }
+        }
+        if (available.isEmpty()) {
+            return soonest;
+        }
+        if (available.size() == 1) {
+            return available.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(available.size());
+        int second = random.nextInt(available.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = available.get(first);
+        Endpoint b = available.get(second);
+        int loadA = a.outstanding.get();
+        int loadB = b.outstanding.get();
+        Endpoint winner = loadA < loadB || (loadA == loadB && random.nextBoolean()) ? a : b;
+        Endpoint other = winner == a ? b : a;
+        // Плавный старт: вернувшаяся реплика принимает выигранный запрос лишь с вероятностью своего веса
+        return random.nextDouble() < weight(winner, now) ? winner : other;
+    }
+
+    private double weight(Endpoint endpoint, long now) {
+        long recoveredAt = endpoint.recoveredAt;
+        if (recoveredAt == 0 || slowStartNanos <= 0) {
+            return 1;
+        }
+        double progress = (double) (now - recoveredAt) / slowStartNanos;
+        return progress >= 1 ? 1 : Math.max(MIN_SLOW_START_WEIGHT, progress);
+    }
+
+    private boolean isAvailable(Endpoint endpoint, long now) {
+        long until = endpoint.ejectedUntil;
+        if (until == 0) {
+            if (endpoint.recoveredAt != 0 && now - endpoint.recoveredAt >= healthyNanos) {
+                settle(endpoint);
+            }
+            return true;
+        }
+        if (now < until) {
+            return false;
+        }
+        synchronized (endpoint) {
+            if (endpoint.ejectedUntil != 0) {
+                endpoint.ejectedUntil = 0;
+                endpoint.recoveredAt = now;
+                endpoint.consecutiveFailures.set(0);
+                logger.info("🩺 Реплика {} возвращена, плавный старт {} мс", endpoint.url(),
+                        TimeUnit.NANOSECONDS.toMillis(slowStartNanos));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Плавный старт прошёл без нового исключения — реплика снова здорова, удвоение срока сбрасывается.
+     */
+    private static void settle(Endpoint endpoint) {
+        synchronized (endpoint) {
+            if (endpoint.ejectedUntil == 0 && endpoint.recoveredAt != 0) {
+                endpoint.recoveredAt = 0;
+                endpoint.backoff = 0;
+            }
+        }
+    }
+
+    private void eject(Endpoint endpoint, long now) {
+        synchronized (endpoint) {
+            if (endpoint.ejectedUntil != 0) {
+                return;
+            }
+            endpoint.ejections++;
+            endpoint.backoff++;
+            long duration = Math.min(ejectMaxNanos, ejectBaseNanos << Math.min(endpoint.backoff - 1, 20));
+            endpoint.ejectedUntil = now + duration;
+            endpoint.recoveredAt = 0;
+            logger.warn("🚫 Реплика {} исключена на {} мс после {} сбоев подряд (исключение №{})", endpoint.url(),
+                    TimeUnit.NANOSECONDS.toMillis(duration), endpoint.consecutiveFailures.get(), endpoint.ejections);
+        }
+    }
+
+    private static boolean isConnectionError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+package client.http;
+
+import io.restassured.config.HttpClientConfig;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.BasicClientConnectionManager;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фабрика HttpClient для RestAssured с замером фаз запроса (см. {@link PhaseTimings}):
+ * <ul>
+ *     <li>pool — ожидание соединения у менеджера соединений;</li>
+ *     <li>dns и connect — разрешение имени и установка TCP-соединения (для нового соединения);</li>
+ *     <li>write — отправка заголовков и тела;</li>
+ *     <li>ttfb — от конца отправки до получения заголовков ответа;</li>
+ *     <li>body — чистое время чтения тела ответа из сокета (тело вычитывается сразу после заголовков).</li>
+ * </ul>
+ * Как и фабрика RestAssured по умолчанию, создаёт {@link DefaultHttpClient} с
+ * {@link BasicClientConnectionManager} на каждый запрос, поэтому поведение соединений не меняется.
+ */
+@SuppressWarnings("deprecation")
+public class PhaseTimingHttpClientFactory implements HttpClientConfig.HttpClientFactory {
+
+    @Override
+    public HttpClient createHttpClient() {
+        return new DefaultHttpClient(new TimedConnectionManager()) {
+            @Override
+            protected HttpRequestExecutor createRequestExecutor() {
+                return new TimedRequestExecutor();
+            }
+        };
+    }
+
+    /**
+     * Обёртка над {@link BasicClientConnectionManager}: его requestConnection финальный, поэтому делегируем.
+     */
+    private static final class TimedConnectionManager implements ClientConnectionManager {
+
+        private final BasicClientConnectionManager delegate = new BasicClientConnectionManager(SchemeRegistryFactory.createDefault()) {
+            @Override
+            protected ClientConnectionOperator createConnectionOperator(SchemeRegistry registry) {
+                return new TimedConnectionOperator(registry);
+            }
+        };
+
+        @Override
+        public SchemeRegistry getSchemeRegistry() {
+            return delegate.getSchemeRegistry();
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ClientConnectionRequest request = delegate.requestConnection(route, state);
+            return new ClientConnectionRequest() {
+                @Override
+                public ManagedClientConnection getConnection(long timeout, TimeUnit unit)
+                        throws InterruptedException, ConnectionPoolTimeoutException {
+                    long started = System.nanoTime();
+                    try {
+                        return request.getConnection(timeout, unit);
+                    } finally {
+                        PhaseTimings.current().poolAcquireNanos += System.nanoTime() - started;
+                    }
+                }
+
+                @Override
+                public void abortRequest() {
+                    request.abortRequest();
+                }
+            };
+        }
+
+        @Override
+        public void releaseConnection(ManagedClientConnection connection, long validDuration, TimeUnit unit) {
+            delegate.releaseConnection(connection, validDuration, unit);
+        }
+
+        @Override
+        public void closeIdleConnections(long idleTime, TimeUnit unit) {
+            delegate.closeIdleConnections(idleTime, unit);
+        }
+
+        @Override
+        public void closeExpiredConnections() {
+            delegate.closeExpiredConnections();
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+    }
+
+    private static final class TimedConnectionOperator extends DefaultClientConnectionOperator {
+
+        TimedConnectionOperator(SchemeRegistry registry) {
+            super(registry, new TimedDnsResolver());
+        }
+
+        @Override
+        public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                   HttpContext context, HttpParams params) throws IOException {
+            PhaseTimings timings = PhaseTimings.current();
+            long dnsBefore = timings.dnsNanos;
+            long started = System.nanoTime();
+            try {
+                super.openConnection(connection, target, local, context, params);
+            } finally {
+                long dns = timings.dnsNanos - dnsBefore;
+                timings.connectNanos += System.nanoTime() - started - dns;
+                timings.newConnection = true;
+            }
+        }
+    }
+
+    private static final class TimedDnsResolver implements DnsResolver {
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            long started = System.nanoTime();
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } finally {
+                PhaseTimings.current().dnsNanos += System.nanoTime() - started;
+            }
+        }
+    }
+
+    private static final class TimedRequestExecutor extends HttpRequestExecutor {
+
+        @Override
+        protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection connection, HttpContext context)
+                throws IOException, HttpException {
+            PhaseTimings timings = PhaseTimings.current();
+            if (request instanceof HttpEntityEnclosingRequest enclosing && enclosing.getEntity() != null) {
+                timings.bytesOut += enclosing.getEntity().getContentLength();
+            }
+            long started = System.nanoTime();
+            try {
+                return super.doSendRequest(request, connection, context);
+            } finally {
+                timings.writeFinishedAt = System.nanoTime();
+                timings.writeNanos += timings.writeFinishedAt - started;
+            }
+        }
+
+        @Override
+        protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection connection, HttpContext context)
+                throws HttpException, IOException {
+            PhaseTimings timings = PhaseTimings.current();
+            HttpResponse response = super.doReceiveResponse(request, connection, context);
+            if (timings.writeFinishedAt != 0) {
+                timings.ttfbNanos += System.nanoTime() - timings.writeFinishedAt;
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                response.setEntity(buffer(entity, timings));
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Вычитывает тело ответа сразу после заголовков, считая время чтения из сокета фазой body.
+     * RestAssured всё равно буферизует тело целиком, но делает это при разборе ответа — вне транспорта и не всегда
+     * в замеряемом отрезке; здесь замер не зависит от того, где и когда тело будет разобрано.
+     */
+    static HttpEntity buffer(HttpEntity entity, PhaseTimings timings) throws IOException {
+        byte[] body;
+        try (InputStream in = new TimedInputStream(entity.getContent(), timings)) {
+            body = in.readAllBytes();
+        }
+        timings.bytesIn += body.length;
+        ByteArrayEntity buffered = new ByteArrayEntity(body);
+        buffered.setContentType(entity.getContentType());
+        buffered.setContentEncoding(entity.getContentEncoding());
+        return buffered;
+    }
+
+    private static final class TimedInputStream extends FilterInputStream {
+
+        private final PhaseTimings timings;
+
+        TimedInputStream(InputStream in, PhaseTimings timings) {
+            super(in);
+            this.timings = timings;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long started = System.nanoTime();
+            try {
+                return super.read();
+            } finally {
+                timings.bodyNanos += System.nanoTime() - started;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long started = System.nanoTime();
+            try {
+                return super.read(b, off, len);
+            } finally {
+                timings.bodyNanos += System.nanoTime() - started;
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package client.http;
+
+/**
+ * Фазы одного HTTP-запроса, собираемые транспортом ({@link PhaseTimingHttpClientFactory}).
+ * <p>
+ * RestAssured выполняет запрос и читает тело в вызывающем потоке, поэтому накопитель — на поток;
+ * {@link ApiCall} обнуляет его перед каждым вызовом клиента.
+ */
+public final class PhaseTimings {
+
+    private static final ThreadLocal<PhaseTimings> CURRENT = ThreadLocal.withInitial(PhaseTimings::new);
+
+    long poolAcquireNanos;
+    long dnsNanos;
+    long connectNanos;
+    long writeNanos;
+    long ttfbNanos;
+    long bodyNanos;
+    long writeFinishedAt;
+    long bytesOut;
+    long bytesIn;
+    boolean newConnection;
+
+    /**
+     * Снимок фаз в наносекундах.
+     * @param newConnection соединение открывалось заново (иначе connect и dns равны нулю)
+     */
+    public record Snapshot(long poolAcquire, long dns, long connect, long write, long ttfb, long body,
+                           long total, boolean newConnection) {
+
+        /**
+         * Время вне транспортных фаз: фильтры, сериализация и разбор в RestAssured.
+         */
+        public long other() {
+            return Math.max(0, total - poolAcquire - dns - connect - write - ttfb - body);
+        }
+
+        public String describe() {
+            return String.format("pool=%.1f dns=%.1f connect=%.1f write=%.1f ttfb=%.1f body=%.1f other=%.1f total=%.1f мс%s",
+                    ms(poolAcquire), ms(dns), ms(connect), ms(write), ms(ttfb), ms(body), ms(other()), ms(total),
+                    newConnection ? " (новое соединение)" : "");
+        }
+
+        private static double ms(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    static PhaseTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Обнуляет накопитель потока перед новым запросом.
+     */
+    public static PhaseTimings begin() {
+        PhaseTimings timings = CURRENT.get();
+        timings.poolAcquireNanos = 0;
+        timings.dnsNanos = 0;
+        timings.connectNanos = 0;
+        timings.writeNanos = 0;
+        timings.ttfbNanos = 0;
+        timings.bodyNanos = 0;
+        timings.writeFinishedAt = 0;
+        timings.bytesOut = 0;
+        timings.bytesIn = 0;
+        timings.newConnection = false;
+        return timings;
+    }
+
+    /**
+     * Размер отправленного тела запроса (-1, если длина не известна заранее).
+     */
+    public long bytesOut() {
+        return bytesOut;
+    }
+
+    public Snapshot snapshot(long totalNanos) {
+        return new Snapshot(poolAcquireNanos, dnsNanos, connectNanos, writeNanos, ttfbNanos, bodyNanos,
+                totalNanos, newConnection);
+    }
+}
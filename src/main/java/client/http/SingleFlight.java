@@ -0,0 +1,173 @@
+package client.http;
+
+import mainutils.MockTimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых идемпотентных запросов (single-flight).
+ * <p>
+ * Первый поток с данным ключом выполняет вызов, остальные, пришедшие до его завершения, ждут
+ * и получают тот же результат (или то же исключение). Ожидание ограничено {@code http.coalesce.wait.ms}
+ * (по умолчанию 30000): по истечении поток выполняет запрос сам. Завершённые результаты не кэшируются —
+ * это не кэш, а только схлопывание всплесков вроде одновременных {@code globalSetup} в параллельном прогоне.
+ * <p>
+ * Включается {@code -Dhttp.coalesce=true}. Чтобы не отдать устаревшие данные, к запросу нельзя
+ * присоединиться, если он начат до завершения любого изменяющего вызова ({@link #onWrite()} из {@link ApiCall}),
+ * и при активном мок-времени потока (запрос несёт свой заголовок времени).
+ */
+public final class SingleFlight<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+    private static final boolean ENABLED = Boolean.getBoolean("http.coalesce");
+    private static final long MAX_WAIT_MILLIS = Long.getLong("http.coalesce.wait.ms", 30_000);
+    private static final AtomicLong WRITE_EPOCH = new AtomicLong();
+    private static final List<SingleFlight<?>> ALL = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final ConcurrentHashMap<String, Flight<T>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Запрос в полёте и эпоха записей, в которую он начат.
+     */
+    private record Flight<T>(long epoch, CompletableFuture<T> result) {
+    }
+
+    private SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param name имя для отчёта, например "GET /api/products"
+     */
+    public static <T> SingleFlight<T> named(String name) {
+        SingleFlight<T> flight = new SingleFlight<>(name);
+        ALL.add(flight);
+        return flight;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Отмечает завершение изменяющего вызова: запросы, начатые раньше, больше не принимают попутчиков.
+     */
+    public static void onWrite() {
+        WRITE_EPOCH.incrementAndGet();
+    }
+
+    /**
+     * Выполняет вызов или присоединяется к такому же, уже идущему.
+     */
+    public T run(String key, Supplier<T> call) {
+        if (!ENABLED || MockTimeProvider.isOverridden()) {
+            return call.get();
+        }
+        long epoch = WRITE_EPOCH.get();
+        Flight<T> own = new Flight<>(epoch, new CompletableFuture<>());
+        Flight<T> current = inFlight.putIfAbsent(key, own);
+        while (current != null && current.epoch() != epoch) {
+            // Запрос начат до записи — вытесняем его своим, он завершится сам по себе
+            if (inFlight.replace(key, current, own)) {
+                current = null;
+            } else {
+                current = inFlight.putIfAbsent(key, own);
+            }
+        }
+        return current == null ? lead(key, own, call) : follow(current, call);
+    }
+
+    private T lead(String key, Flight<T> own, Supplier<T> call) {
+        executed.increment();
+        try {
+            T result = call.get();
+            own.result().complete(result);
+            return result;
+        } catch (Throwable e) {
+            own.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private T follow(Flight<T> flight, Supplier<T> call) {
+        try {
+            T result = flight.result().get(MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            coalesced.increment();
+            return result;
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            logger.warn("⏱️ {}: общий запрос не завершился за {} мс, выполняем свой", name, MAX_WAIT_MILLIS);
+            executed.increment();
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание общего запроса прервано", e);
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            if (cause instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public long executed() {
+        return executed.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long timedOut() {
+        return timedOut.sum();
+    }
+
+    public String describe() {
+        long total = executed() + coalesced();
+        return String.format("%s: выполнено %d, объединено %d (%.0f%% сэкономлено), таймаутов ожидания %d",
+                name, executed(), coalesced(), total > 0 ? 100.0 * coalesced() / total : 0, timedOut());
+    }
+
+    /**
+     * Сводка по всем объединителям; пустая строка, если режим выключен или вызовов не было.
+     */
+    public static String report() {
+        if (!ENABLED) {
+            return "";
+        }
+        StringBuilder report = new StringBuilder();
+        for (SingleFlight<?> flight : ALL) {
+            if (flight.executed() + flight.coalesced() > 0) {
+                report.append(flight.describe()).append('\n');
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package client.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import domain.model.Product;
+import domain.model.ProductBatch;
+import domain.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Быстрое извлечение полей из тела ответа без {@code response.jsonPath()}.
+ * <p>
+ * jsonPath() строит полное дерево и вычисляет Groovy GPath на каждый вызов; здесь байты ответа
+ * разбираются одним проходом потокового токенизатора Jackson с ручной привязкой к моделям
+ * ({@link ModelReaders}), ненужные поля пропускаются без материализации.
+ * Все методы принимают {@code response.asByteArray()}.
+ */
+public final class FastJson {
+
+    private FastJson() {
+    }
+
+    /**
+     * Страница продуктов: {"content": [...], "totalPages": n, ...} или простой массив (одна страница).
+     */
+    public static PageEnvelope<Product> readProductPage(byte[] body) {
+        return readPage(body, ModelReaders::readProduct);
+    }
+
+    public static PageEnvelope<User> readUserPage(byte[] body) {
+        return readPage(body, ModelReaders::readUser);
+    }
+
+    /**
+     * Продукты массива или страницы сразу в компактный {@link ProductBatch}, без накопления bean-ов.
+     */
+    public static ProductBatch readProductBatch(byte[] body) {
+        ProductBatch batch = new ProductBatch();
+        JsonArrayIterator<Product> iterator = new JsonArrayIterator<>(body, ModelReaders::readProduct);
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+        }
+        batch.trimToSize();
+        return batch;
+    }
+
+    public static Product readProduct(byte[] body) {
+        return readObject(body, ModelReaders::readProduct);
+    }
+
+    public static User readUser(byte[] body) {
+        return readObject(body, ModelReaders::readUser);
+    }
+
+    /**
+     * Список пользователей из массива или страницы.
+     */
+    public static List<User> readUsers(byte[] body) {
+        return readPage(body, ModelReaders::readUser).content();
+    }
+
+    /**
+     * ID элементов массива или страницы; элементы без ID пропускаются.
+     */
+    public static List<Long> readIds(byte[] body) {
+        List<Long> ids = new ArrayList<>();
+        JsonArrayIterator<Long> iterator = new JsonArrayIterator<>(body, ModelReaders::readId);
+        while (iterator.hasNext()) {
+            long id = iterator.next();
+            if (id != Long.MIN_VALUE) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Числовое поле верхнего уровня объекта, например "id" созданной сущности.
+     * @return значение или null, если поля нет, оно не числовое или тело не объект
+     */
+    public static Long readLongField(byte[] body, String name) {
+        try (JsonParser parser = JsonArrayIterator.JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (name.equals(field)) {
+                    return value.isNumeric() ? parser.getLongValue() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static <T> T readObject(byte[] body, JsonArrayIterator.ElementReader<T> reader) {
+        try (JsonParser parser = JsonArrayIterator.JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Ожидался JSON-объект");
+            }
+            return reader.read(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка разбора JSON-объекта", e);
+        }
+    }
+
+    private static <T> PageEnvelope<T> readPage(byte[] body, JsonArrayIterator.ElementReader<T> reader) {
+        List<T> content = new ArrayList<>();
+        int totalPages = -1;
+        long totalElements = -1;
+        int number = 0;
+        try (JsonParser parser = JsonArrayIterator.JSON_FACTORY.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readArray(parser, reader, content);
+                return new PageEnvelope<>(content, 1, content.size(), 0);
+            }
+            if (token != JsonToken.START_OBJECT) {
+                return new PageEnvelope<>(content, -1, -1, 0);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "content" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            readArray(parser, reader, content);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "totalPages" -> totalPages = value.isNumeric() ? parser.getIntValue() : -1;
+                    case "totalElements" -> totalElements = value.isNumeric() ? parser.getLongValue() : -1;
+                    case "number" -> number = value.isNumeric() ? parser.getIntValue() : 0;
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка разбора страницы JSON", e);
+        }
+        return new PageEnvelope<>(content, totalPages, totalElements, number);
+    }
+
+    private static <T> void readArray(JsonParser parser, JsonArrayIterator.ElementReader<T> reader,
+                                      List<T> target) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                target.add(reader.read(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package client.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Потоковый итератор по элементам JSON-массива.
+ * <p>
+ * Поддерживает корневой массив ({@code [...]}) и страницу Spring Data ({@code {"content": [...], ...}}).
+ * Элементы разбираются по одному токенизатором Jackson, поэтому память не зависит от размера ответа.
+ * Источник закрывается при исчерпании итератора или явном {@link #close()}.
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, AutoCloseable {
+
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private final ElementReader<T> reader;
+    private boolean finished;
+    private boolean advanced;
+
+    /**
+     * Чтение одного элемента: парсер стоит на START_OBJECT элемента и должен остаться на его END_OBJECT.
+     */
+    @FunctionalInterface
+    public interface ElementReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    public JsonArrayIterator(InputStream in, ElementReader<T> reader) {
+        this.reader = reader;
+        try {
+            this.parser = JSON_FACTORY.createParser(in);
+            this.finished = !moveToArray(parser);
+            if (finished) {
+                parser.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка разбора JSON-массива", e);
+        }
+    }
+
+    public JsonArrayIterator(byte[] body, ElementReader<T> reader) {
+        this(new ByteArrayInputStream(body), reader);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        if (advanced) {
+            return true;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            while (token != null && token != JsonToken.END_ARRAY && token != JsonToken.START_OBJECT) {
+                // Пропускаем не-объекты (null и т.п.)
+                parser.skipChildren();
+                token = parser.nextToken();
+            }
+            if (token == JsonToken.START_OBJECT) {
+                advanced = true;
+                return true;
+            }
+            close();
+            return false;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Ошибка разбора JSON-массива", e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        try {
+            return reader.read(parser);
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Ошибка разбора элемента JSON-массива", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // Закрытие источника не должно маскировать исходную ошибку
+        }
+    }
+
+    /**
+     * Перемещает парсер на START_ARRAY корневого массива или поля "content".
+     * @return false, если массива нет (пустое тело, объект без content и т.п.)
+     */
+    private static boolean moveToArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return true;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            token = parser.nextToken();
+            if ("content".equals(field) && token == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
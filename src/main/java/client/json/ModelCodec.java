@@ -0,0 +1,165 @@
+package client.json;
+
+import domain.model.Product;
+import domain.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Ручной кодек Product/User в JSON без рефлексии.
+ * <p>
+ * Запись идёт в переиспользуемый буфер потока (ThreadLocal), наружу отдаётся один точный byte[].
+ * Закодированное тело можно отправлять повторно (ретраи, пакетные отправки) без повторной сериализации —
+ * см. {@code ProductClient.createProductEncoded/updateProductEncoded}.
+ * Формат совпадает с тем, что делал object mapper: все поля, null записывается как null.
+ * Чтение — через {@link FastJson}, тоже без рефлексии.
+ */
+public final class ModelCodec {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private ModelCodec() {
+    }
+
+    public static byte[] encode(Product product) {
+        Buffer out = BUFFER.get().reset();
+        out.raw("{\"id\":");
+        writeLong(out, product.getId());
+        out.raw(",\"name\":");
+        writeString(out, product.getName());
+        out.raw(",\"description\":");
+        writeString(out, product.getDescription());
+        out.raw(",\"price\":");
+        writeDouble(out, product.getPrice());
+        out.put((byte) '}');
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(User user) {
+        Buffer out = BUFFER.get().reset();
+        out.raw("{\"id\":");
+        writeLong(out, user.getId());
+        out.raw(",\"name\":");
+        writeString(out, user.getName());
+        out.raw(",\"email\":");
+        writeString(out, user.getEmail());
+        out.raw(",\"password\":");
+        writeString(out, user.getPassword());
+        out.put((byte) '}');
+        return out.toByteArray();
+    }
+
+    public static Product decodeProduct(byte[] json) {
+        return FastJson.readProduct(json);
+    }
+
+    public static User decodeUser(byte[] json) {
+        return FastJson.readUser(json);
+    }
+
+    private static void writeLong(Buffer out, Long value) {
+        if (value == null) {
+            out.raw("null");
+        } else {
+            out.raw(Long.toString(value));
+        }
+    }
+
+    private static void writeDouble(Buffer out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Цена не может быть NaN или бесконечностью: " + value);
+        }
+        out.raw(Double.toString(value));
+    }
+
+    private static void writeString(Buffer out, String value) {
+        if (value == null) {
+            out.raw("null");
+            return;
+        }
+        out.put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.put((byte) '\\');
+                out.put((byte) c);
+            } else if (c < 0x20) {
+                switch (c) {
+                    case '\n' -> out.raw("\\n");
+                    case '\r' -> out.raw("\\r");
+                    case '\t' -> out.raw("\\t");
+                    default -> {
+                        out.raw("\\u00");
+                        out.put(HEX[c >> 4]);
+                        out.put(HEX[c & 0xf]);
+                    }
+                }
+            } else if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xc0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xf0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                out.put((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                // Одиночный суррогат не представим в UTF-8
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xe0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                out.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+        out.put((byte) '"');
+    }
+
+    /**
+     * Растущий байтовый буфер потока. Слишком разросшийся буфер сбрасывается, чтобы не держать память.
+     */
+    private static final class Buffer {
+
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+        private int size;
+
+        Buffer reset() {
+            if (bytes.length > MAX_RETAINED_CAPACITY) {
+                bytes = new byte[INITIAL_CAPACITY];
+            }
+            size = 0;
+            return this;
+        }
+
+        void put(byte b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[size++] = b;
+        }
+
+        /**
+         * Запись ASCII-строки (ключи, числа, литералы).
+         */
+        void raw(String ascii) {
+            int length = ascii.length();
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+            for (int i = 0; i < length; i++) {
+                bytes[size++] = (byte) ascii.charAt(i);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package client.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import domain.model.Product;
+import domain.model.User;
+
+import java.io.IOException;
+
+/**
+ * Ручные (без рефлексии) читатели моделей из потокового JSON.
+ * Каждый метод ожидает парсер на START_OBJECT и оставляет его на соответствующем END_OBJECT.
+ * Неизвестные поля пропускаются.
+ */
+public final class ModelReaders {
+
+    private ModelReaders() {
+    }
+
+    public static Product readProduct(JsonParser parser) throws IOException {
+        Product product = new Product();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> product.setId(parser.getValueAsLong());
+                case "name" -> product.setName(parser.getValueAsString());
+                case "description" -> product.setDescription(parser.getValueAsString());
+                case "price" -> product.setPrice(parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+        return product;
+    }
+
+    public static User readUser(JsonParser parser) throws IOException {
+        User user = new User();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> user.setId(parser.getValueAsLong());
+                case "name" -> user.setName(parser.getValueAsString());
+                case "email" -> user.setEmail(parser.getValueAsString());
+                case "password" -> user.setPassword(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Читает только поле "id" объекта, остальные поля пропускаются без материализации.
+     * @return ID или {@code Long.MIN_VALUE}, если поля нет
+     */
+    public static long readId(JsonParser parser) throws IOException {
+        long id = Long.MIN_VALUE;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value.isNumeric()) {
+                id = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+}
@@ -0,0 +1,20 @@
+package client.json;
+
+import java.util.List;
+
+/**
+ * Конверт страницы Spring Data: содержимое и метаданные пагинации.
+ * @param totalPages число страниц или -1, если сервер его не вернул
+ * @param totalElements число элементов или -1, если сервер его не вернул
+ * @param number номер страницы (с нуля)
+ */
+public record PageEnvelope<T>(List<T> content, int totalPages, long totalElements, int number) {
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+    public boolean hasTotalPages() {
+        return totalPages >= 0;
+    }
+}
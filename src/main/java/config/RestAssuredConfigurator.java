@@ -1,5 +1,7 @@
 package config;
 
+import client.http.EndpointPool;
+import client.http.PhaseTimingHttpClientFactory;
 import io.restassured.RestAssured;
 import io.restassured.config.EncoderConfig;
 import io.restassured.config.HttpClientConfig;
@@ -9,6 +11,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Настройщик RestAssured: базовый URL, порты, таймауты, charset и т.д.
+ * Несколько реплик сервиса задаются через {@code api.base.urls}, см. {@link EndpointPool}.
  */
 public class RestAssuredConfigurator {
 
@@ -16,17 +19,19 @@ public class RestAssuredConfigurator {
 
     public static void configure(String basePath) {
 
-        String baseUrl = System.getProperty("api.base.url", "http://localhost");
-        int port = 31494;
+        // Основная реплика (api.base.url + api.port или первая из api.base.urls); остальные подставляет EndpointPool
+        EndpointPool.Endpoint primary = EndpointPool.shared().endpoints().get(0);
         //Настройка RestAssured: baseURI, port, basePath
 
-        RestAssured.baseURI = baseUrl;
-        RestAssured.port = port;
+        RestAssured.baseURI = primary.baseUri();
+        RestAssured.port = primary.port();
         RestAssured.basePath = basePath;
 
         RestAssured.config = RestAssuredConfig.config()
                 .encoderConfig(EncoderConfig.encoderConfig().defaultContentCharset("UTF-8"))
                 .httpClient(HttpClientConfig.httpClientConfig()
+                        // Замер фаз запроса (pool/dns/connect/write/ttfb/body), см. ApiCall
+                        .httpClientFactory(new PhaseTimingHttpClientFactory())
 //                        .setParam("http.connection.timeout", 5000)
 //                        .setParam("http.socket.timeout", 5000)
 //                        .setParam("http.connection-manager.timeout", 5000L)
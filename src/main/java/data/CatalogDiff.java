@@ -0,0 +1,25 @@
+package data;
+
+import java.util.List;
+
+/**
+ * Результат сравнения двух состояний каталога.
+ * @param added ID, которые есть только во втором состоянии
+ * @param removed ID, которые есть только в первом состоянии
+ * @param changed ID, содержимое которых отличается
+ * @param bucketsTotal число непустых диапазонов ID в обоих деревьях
+ * @param bucketsCompared число диапазонов, которые пришлось сравнить поэлементно
+ */
+public record CatalogDiff(List<Long> added, List<Long> removed, List<Long> changed,
+                          int bucketsTotal, int bucketsCompared) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogDiff{added=" + added.size() + ", removed=" + removed.size() + ", changed=" + changed.size()
+                + ", buckets=" + bucketsCompared + "/" + bucketsTotal + "}";
+    }
+}
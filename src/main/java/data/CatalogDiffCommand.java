@@ -0,0 +1,70 @@
+package data;
+
+import client.ProductClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Сравнение двух состояний каталога по Merkle-деревьям ({@link CatalogMerkleTree}).
+ * <p>
+ * Запуск: {@code mvn -Pcatalog-diff compile exec:java -Dexec.args="<до> <после> [файл]"} или
+ * {@code java data.CatalogDiffCommand <до> <после> [файл]}. Состояние — файл дерева ({@link CatalogMerkleTree#save(Path)}),
+ * снимок {@code *.ndjson.gz} или {@code server} (текущий сервер; {@code catalog.diff.page.size}, {@code catalog.diff.parallelism});
+ * если указан третий аргумент, дерево «после» сохраняется в него для следующего сравнения.
+ * Различие состояний завершает запуск ошибкой (ненулевой код выхода, в Maven — BUILD FAILURE).
+ */
+public final class CatalogDiffCommand {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogDiffCommand.class);
+
+    public static final int SAME = 0;
+    public static final int DIFFERENT = 1;
+
+    private CatalogDiffCommand() {
+    }
+
+    public static void main(String[] args) {
+        if (run(args) != SAME) {
+            throw new IllegalStateException("Состояния каталога различаются");
+        }
+    }
+
+    /**
+     * @return {@link #SAME} или {@link #DIFFERENT}
+     */
+    public static int run(String... args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Использование: CatalogDiffCommand <до> <после> [сохранить-после-в]");
+        }
+        CatalogMerkleTree before = open(args[0]);
+        CatalogMerkleTree after = open(args[1]);
+        if (args.length > 2) {
+            after.save(Path.of(args[2]));
+        }
+        CatalogDiff diff = before.diff(after);
+        if (diff.isEmpty()) {
+            return SAME;
+        }
+        logger.info("➕ Добавлены: {}", sample(diff.added()));
+        logger.info("➖ Удалены: {}", sample(diff.removed()));
+        logger.info("✏️ Изменены: {}", sample(diff.changed()));
+        return DIFFERENT;
+    }
+
+    private static CatalogMerkleTree open(String state) {
+        if (state.equals("server")) {
+            return CatalogMerkleTree.fromServer(new ProductClient(), Integer.getInteger("catalog.diff.page.size", 1000),
+                    Integer.getInteger("catalog.diff.parallelism", 8));
+        }
+        Path file = Path.of(state);
+        return file.getFileName().toString().endsWith(".ndjson.gz")
+                ? CatalogMerkleTree.fromSnapshot(file) : CatalogMerkleTree.load(file);
+    }
+
+    private static String sample(List<Long> ids) {
+        return ids.size() <= 20 ? ids.toString() : ids.subList(0, 20) + " … и ещё " + (ids.size() - 20);
+    }
+}
@@ -0,0 +1,401 @@
+package data;
+
+import client.ProductClient;
+import client.json.FastJson;
+import client.json.PageEnvelope;
+import domain.model.Product;
+import io.restassured.response.Response;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Merkle-дерево состояния каталога продуктов.
+ * <p>
+ * Продукты раскладываются по диапазонам ID (бакетам) фиксированной ширины, у каждого бакета
+ * хранится отсортированный список ID и отпечатков ({@link ProductFingerprint}) — 16 байт на продукт.
+ * Над бакетами строится дерево с ветвлением 16 и фиксированной высотой, поэтому два дерева
+ * с одинаковой шириной бакета всегда сравнимы: совпадающие поддеревья отбрасываются целиком,
+ * поэлементно сравниваются только расходящиеся диапазоны.
+ * <p>
+ * Дерево можно построить по серверу (страницы загружаются параллельно), по NDJSON-снимку
+ * {@link CatalogSnapshotService} или загрузить из ранее сохранённого файла.
+ */
+public final class CatalogMerkleTree {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogMerkleTree.class);
+
+    public static final int DEFAULT_BUCKET_WIDTH = 1024;
+    private static final int FANOUT_BITS = 4;
+    private static final int FANOUT = 1 << FANOUT_BITS;
+    /** Высота дерева: 16 уровней по 4 бита покрывают всё пространство индексов бакетов. */
+    private static final int ROOT_LEVEL = 64 / FANOUT_BITS;
+    private static final int FILE_MAGIC = 0x434d5431; // "CMT1"
+
+    private final int bucketWidth;
+    private final TreeMap<Long, Bucket> buckets;
+    private final List<Map<Long, Long>> levels;
+    private final long size;
+
+    private CatalogMerkleTree(int bucketWidth, TreeMap<Long, Bucket> buckets) {
+        this.bucketWidth = bucketWidth;
+        this.buckets = buckets;
+        this.levels = buildLevels(buckets);
+        this.size = buckets.values().stream().mapToLong(b -> b.ids.length).sum();
+    }
+
+    /**
+     * Строит дерево по текущему состоянию сервера.
+     * @param pageSize размер страницы
+     * @param parallelism число параллельных загрузок страниц
+     */
+    public static CatalogMerkleTree fromServer(ProductClient client, int pageSize, int parallelism) {
+        Builder builder = new Builder(DEFAULT_BUCKET_WIDTH);
+        long started = System.nanoTime();
+
+        Response first = client.getAllProductsResponse(0, pageSize);
+        int totalPages = addPage(builder, first, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<CompletableFuture<Integer>> pages = new ArrayList<>();
+            for (int page = 1; page < totalPages; page++) {
+                int current = page;
+                pages.add(CompletableFuture.supplyAsync(
+                        () -> addPage(builder, client.getAllProductsResponse(current, pageSize), current), executor));
+            }
+            pages.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+
+        CatalogMerkleTree tree = builder.build();
+        if (builder.duplicates() > 0) {
+            // Страницы сдвинулись во время параллельной загрузки: повторы отброшены, но часть продуктов могла не попасть
+            logger.warn("⚠️ Каталог менялся во время загрузки: {} повторных ID отброшено, дерево может быть неполным",
+                    builder.duplicates());
+        }
+        logger.info("🌳 Merkle-дерево по серверу: {} продуктов, {} страниц, {} мс",
+                tree.size(), totalPages, (System.nanoTime() - started) / 1_000_000);
+        return tree;
+    }
+
+    /**
+     * Строит дерево по NDJSON-снимку каталога.
+     */
+    public static CatalogMerkleTree fromSnapshot(Path snapshot) {
+        Builder builder = new Builder(DEFAULT_BUCKET_WIDTH);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(snapshot), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JSONObject json = new JSONObject(line);
+                if (!"product".equals(json.optString("type")) || !json.has("id")) {
+                    continue;
+                }
+                Product product = new Product(json.getLong("id"), json.optString("name", null),
+                        json.optString("description", null), json.optDouble("price", 0));
+                builder.add(product);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения снимка " + snapshot, e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Загружает дерево, сохранённое через {@link #save(Path)}.
+     */
+    public static CatalogMerkleTree load(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IllegalStateException("Файл " + file + " не является Merkle-деревом каталога");
+            }
+            int bucketWidth = in.readInt();
+            int bucketCount = in.readInt();
+            TreeMap<Long, Bucket> buckets = new TreeMap<>();
+            for (int i = 0; i < bucketCount; i++) {
+                long index = in.readLong();
+                int n = in.readInt();
+                long[] ids = new long[n];
+                long[] hashes = new long[n];
+                for (int j = 0; j < n; j++) {
+                    ids[j] = in.readLong();
+                    hashes[j] = in.readLong();
+                }
+                buckets.put(index, new Bucket(ids, hashes));
+            }
+            return new CatalogMerkleTree(bucketWidth, buckets);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения Merkle-дерева " + file, e);
+        }
+    }
+
+    /**
+     * Сохраняет дерево (ID и отпечатки) в компактный сжатый файл для сравнения в следующих запусках.
+     */
+    public void save(Path file) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file))))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(bucketWidth);
+            out.writeInt(buckets.size());
+            for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+                Bucket bucket = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeInt(bucket.ids.length);
+                for (int j = 0; j < bucket.ids.length; j++) {
+                    out.writeLong(bucket.ids[j]);
+                    out.writeLong(bucket.hashes[j]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи Merkle-дерева " + file, e);
+        }
+    }
+
+    /**
+     * Сравнивает это состояние ("до") с другим ("после").
+     * Спускается только в поддеревья с различающимися хешами.
+     */
+    public CatalogDiff diff(CatalogMerkleTree after) {
+        if (after.bucketWidth != bucketWidth) {
+            throw new IllegalArgumentException("Нельзя сравнить деревья с разной шириной бакета: "
+                    + bucketWidth + " и " + after.bucketWidth);
+        }
+        List<Long> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        int[] compared = new int[1];
+
+        compareNode(after, ROOT_LEVEL, 0L, added, removed, changed, compared);
+
+        Set<Long> allBuckets = new HashSet<>(buckets.keySet());
+        allBuckets.addAll(after.buckets.keySet());
+        CatalogDiff diff = new CatalogDiff(added, removed, changed, allBuckets.size(), compared[0]);
+        logger.info("🔍 Сравнение состояний каталога: {}", diff);
+        return diff;
+    }
+
+    public long rootHash() {
+        return nodeHash(ROOT_LEVEL, 0L);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int bucketWidth() {
+        return bucketWidth;
+    }
+
+    private void compareNode(CatalogMerkleTree other, int level, long index,
+                             List<Long> added, List<Long> removed, List<Long> changed, int[] compared) {
+        if (nodeHash(level, index) == other.nodeHash(level, index)) {
+            return;
+        }
+        if (level == 0) {
+            compared[0]++;
+            compareBuckets(buckets.get(index), other.buckets.get(index), added, removed, changed);
+            return;
+        }
+        for (int child = 0; child < FANOUT; child++) {
+            long childIndex = (index << FANOUT_BITS) | child;
+            if (levels.get(level - 1).containsKey(childIndex) || other.levels.get(level - 1).containsKey(childIndex)) {
+                compareNode(other, level - 1, childIndex, added, removed, changed, compared);
+            }
+        }
+    }
+
+    private static void compareBuckets(Bucket before, Bucket after,
+                                       List<Long> added, List<Long> removed, List<Long> changed) {
+        long[] ids1 = before != null ? before.ids : new long[0];
+        long[] ids2 = after != null ? after.ids : new long[0];
+        int i = 0;
+        int j = 0;
+        while (i < ids1.length || j < ids2.length) {
+            if (j >= ids2.length || (i < ids1.length && ids1[i] < ids2[j])) {
+                removed.add(ids1[i++]);
+            } else if (i >= ids1.length || ids2[j] < ids1[i]) {
+                added.add(ids2[j++]);
+            } else {
+                if (before.hashes[i] != after.hashes[j]) {
+                    changed.add(ids1[i]);
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private long nodeHash(int level, long index) {
+        Long hash = levels.get(level).get(index);
+        return hash != null ? hash : 0L;
+    }
+
+    private static List<Map<Long, Long>> buildLevels(TreeMap<Long, Bucket> buckets) {
+        List<Map<Long, Long>> levels = new ArrayList<>(ROOT_LEVEL + 1);
+        Map<Long, Long> current = new HashMap<>();
+        for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+            current.put(entry.getKey(), entry.getValue().hash());
+        }
+        levels.add(current);
+        for (int level = 1; level <= ROOT_LEVEL; level++) {
+            Map<Long, Long> parents = new HashMap<>();
+            for (Map.Entry<Long, Long> child : current.entrySet()) {
+                // Сумма перемешанных (индекс, хеш) не зависит от порядка обхода детей
+                long contribution = ProductFingerprint.finish(child.getKey() * 0x9e3779b97f4a7c15L ^ child.getValue());
+                parents.merge(child.getKey() >>> FANOUT_BITS, contribution, Long::sum);
+            }
+            levels.add(parents);
+            current = parents;
+        }
+        return levels;
+    }
+
+    private static int addPage(Builder builder, Response response, int page) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Не удалось получить страницу " + page + ": " + response.statusCode());
+        }
+        PageEnvelope<Product> content = FastJson.readProductPage(response.asByteArray());
+        content.content().forEach(builder::add);
+        return content.hasTotalPages() ? content.totalPages() : page + 1;
+    }
+
+    /**
+     * Бакет: отсортированные ID и соответствующие им отпечатки.
+     */
+    private record Bucket(long[] ids, long[] hashes) {
+
+        long hash() {
+            long h = 0x84222325cbf29ce4L;
+            for (int i = 0; i < ids.length; i++) {
+                h = ProductFingerprint.finish(h ^ ids[i]) + hashes[i];
+            }
+            return h;
+        }
+    }
+
+    /**
+     * Потокобезопасный накопитель пар (ID, отпечаток) по бакетам. Повторный ID (например, со сдвинувшейся
+     * страницы) хранится один раз — с последним добавленным отпечатком; число повторов — {@link #duplicates()}.
+     */
+    public static final class Builder {
+
+        private final int bucketWidth;
+        private final ConcurrentHashMap<Long, PairList> pending = new ConcurrentHashMap<>();
+        private long duplicates;
+
+        public Builder(int bucketWidth) {
+            this.bucketWidth = bucketWidth;
+        }
+
+        public void add(Product product) {
+            if (product == null || product.getId() == null) {
+                return;
+            }
+            add(product.getId(), ProductFingerprint.of(product));
+        }
+
+        public void add(long id, long fingerprint) {
+            PairList list = pending.computeIfAbsent(Math.floorDiv(id, bucketWidth), k -> new PairList());
+            synchronized (list) {
+                list.add(id, fingerprint);
+            }
+        }
+
+        public CatalogMerkleTree build() {
+            TreeMap<Long, Bucket> buckets = new TreeMap<>();
+            long repeated = 0;
+            for (Map.Entry<Long, PairList> entry : pending.entrySet()) {
+                PairList list = entry.getValue();
+                synchronized (list) {
+                    Bucket bucket = list.toSortedBucket(entry.getKey() * bucketWidth);
+                    repeated += list.size - bucket.ids.length;
+                    buckets.put(entry.getKey(), bucket);
+                }
+            }
+            duplicates = repeated;
+            return new CatalogMerkleTree(bucketWidth, buckets);
+        }
+
+        /**
+         * Сколько повторных ID отброшено при последнем {@link #build()}.
+         */
+        public long duplicates() {
+            return duplicates;
+        }
+    }
+
+    private static final class PairList {
+
+        private long[] ids = new long[16];
+        private long[] hashes = new long[16];
+        private int size;
+
+        void add(long id, long hash) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            ids[size] = id;
+            hashes[size] = hash;
+            size++;
+        }
+
+        Bucket toSortedBucket(long bucketStart) {
+            // Смещение внутри бакета в старших битах, исходная позиция — в младших: один Arrays.sort без боксинга
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((ids[i] - bucketStart) << 32) | i;
+            }
+            Arrays.sort(order);
+            long[] sortedIds = new long[size];
+            long[] sortedHashes = new long[size];
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                int position = (int) order[i];
+                // Повтор идёт сразу за первым вхождением (то же смещение в старших битах) — перезаписываем его
+                if (unique > 0 && sortedIds[unique - 1] == ids[position]) {
+                    sortedHashes[unique - 1] = hashes[position];
+                    continue;
+                }
+                sortedIds[unique] = ids[position];
+                sortedHashes[unique] = hashes[position];
+                unique++;
+            }
+            return unique == size ? new Bucket(sortedIds, sortedHashes)
+                    : new Bucket(Arrays.copyOf(sortedIds, unique), Arrays.copyOf(sortedHashes, unique));
+        }
+    }
+}
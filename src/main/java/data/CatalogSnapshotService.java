@@ -0,0 +1,350 @@
+package data;
+
+import client.ProductClient;
+import client.UserClient;
+import client.http.ApiCall;
+import client.json.FastJson;
+import client.json.JsonArrayIterator;
+import client.json.ModelCodec;
+import client.json.PageEnvelope;
+import domain.model.Product;
+import domain.model.User;
+import io.qameta.allure.Step;
+import io.restassured.response.Response;
+import mainutils.RateLimiter;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Снимок каталога (продукты и пользователи) в сжатый NDJSON-файл и восстановление из него.
+ * <p>
+ * Экспорт читает продукты постранично, пользователей — потоково, и пишет строки последовательно в FileChannel через GZIP,
+ * поэтому в памяти держится не больше одной страницы. Восстановление читает файл построчно
+ * и создаёт сущности параллельно с ограничением частоты и числа запросов "в полёте".
+ * <p>
+ * Формат строки: {"type":"product"|"user"|"header"|"summary", ...поля сущности}.
+ * ID при восстановлении назначает сервер, поэтому они могут отличаться от снимка.
+ */
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final ProductClient productClient = new ProductClient();
+    private final UserClient userClient = new UserClient();
+
+    /**
+     * Результат экспорта или восстановления снимка.
+     */
+    public record Report(int products, int users, int failed, Duration elapsed) {
+
+        public double entitiesPerSecond() {
+            long millis = Math.max(1, elapsed.toMillis());
+            return (products + users) * 1000.0 / millis;
+        }
+    }
+
+    /**
+     * Экспорт с размером страницы по умолчанию (100).
+     */
+    public Report exportSnapshot(Path file) {
+        return exportSnapshot(file, 100);
+    }
+
+    /**
+     * Выгружает все продукты и пользователей в сжатый NDJSON-файл.
+     * @param file целевой файл (*.ndjson.gz), перезаписывается
+     * @param pageSize размер страницы при чтении продуктов
+     */
+    @Step("Экспорт снимка каталога в {file}")
+    public Report exportSnapshot(Path file, int pageSize) {
+        long started = System.nanoTime();
+        int products = 0;
+        int users = 0;
+
+        logger.info("📤 Экспорт снимка каталога в {}", file);
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), StandardCharsets.UTF_8),
+                     BUFFER_SIZE)) {
+
+            writeLine(out, new JSONObject()
+                    .put("type", "header")
+                    .put("format", 1)
+                    .put("createdAt", LocalDateTime.now().toString()));
+
+            int page = 0;
+            int totalPages = 1;
+            while (page < totalPages) {
+                Response response = productClient.getAllProductsResponse(page, pageSize);
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Не удалось получить страницу " + page + ": " + response.statusCode());
+                }
+                PageEnvelope<Product> content = FastJson.readProductPage(response.asByteArray());
+                if (content.isEmpty()) {
+                    break;
+                }
+                for (Product product : content.content()) {
+                    writeLine(out, toJson(product));
+                    products++;
+                }
+                totalPages = content.hasTotalPages() ? content.totalPages() : page + 1;
+                page++;
+            }
+
+            try (JsonArrayIterator<User> allUsers = userClient.iterateUsers()) {
+                while (allUsers.hasNext()) {
+                    writeLine(out, toJson(allUsers.next()));
+                    users++;
+                }
+            }
+
+            writeLine(out, new JSONObject()
+                    .put("type", "summary")
+                    .put("products", products)
+                    .put("users", users));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи снимка " + file, e);
+        }
+
+        Report report = new Report(products, users, 0, Duration.ofNanos(System.nanoTime() - started));
+        logger.info("✅ Снимок сохранён: {} продуктов, {} пользователей за {} мс",
+                products, users, report.elapsed().toMillis());
+        return report;
+    }
+
+    /**
+     * Восстановление с параметрами по умолчанию: 8 потоков, без ограничения частоты.
+     */
+    public Report restoreSnapshot(Path file) {
+        return restoreSnapshot(file, 8, 0);
+    }
+
+    /**
+     * Восстанавливает снимок в пустой сервис.
+     * @param file файл снимка (*.ndjson.gz)
+     * @param parallelism число параллельных запросов
+     * @param maxRequestsPerSecond ограничение частоты создания (<= 0 — без ограничения)
+     */
+    @Step("Восстановление снимка каталога из {file}")
+    public Report restoreSnapshot(Path file, int parallelism, int maxRequestsPerSecond) {
+        ensureServiceIsEmpty();
+
+        long started = System.nanoTime();
+        AtomicInteger products = new AtomicInteger();
+        AtomicInteger users = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        RateLimiter rateLimiter = new RateLimiter(maxRequestsPerSecond);
+        // Ограничиваем число прочитанных, но ещё не отправленных строк — память не растёт с размером снимка
+        Semaphore inFlight = new Semaphore(parallelism * 4);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        long lastProgress = started;
+
+        logger.info("📥 Восстановление снимка {} ({} потоков, лимит {} rps)", file, parallelism,
+                maxRequestsPerSecond > 0 ? maxRequestsPerSecond : "∞");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     new GZIPInputStream(Channels.newInputStream(channel), BUFFER_SIZE), StandardCharsets.UTF_8),
+                     BUFFER_SIZE)) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JSONObject json = new JSONObject(line);
+                String type = json.optString("type");
+                if (!type.equals("product") && !type.equals("user")) {
+                    continue;
+                }
+
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        // Тело кодируется один раз и переиспользуется во всех повторах
+                        boolean created;
+                        try {
+                            if (type.equals("product")) {
+                                byte[] body = ModelCodec.encode(toProduct(json));
+                                created = createWithRetry(rateLimiter, () -> productClient.createProductEncoded(body));
+                            } else {
+                                byte[] body = ModelCodec.encode(toUser(json));
+                                created = createWithRetry(rateLimiter, () -> userClient.createUserEncoded(body));
+                            }
+                        } catch (RuntimeException e) {
+                            // Некорректная строка снимка — считаем ошибкой, а не роняем задачу
+                            logger.warn("❌ Строка снимка не восстановлена: {}", e.getMessage());
+                            created = false;
+                        }
+                        if (!created) {
+                            failed.incrementAndGet();
+                        } else if (type.equals("product")) {
+                            products.incrementAndGet();
+                        } else {
+                            users.incrementAndGet();
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    logProgress(products.get(), users.get(), failed.get(), now - started);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения снимка " + file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Восстановление снимка прервано", e);
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+
+        Report report = new Report(products.get(), users.get(), failed.get(), Duration.ofNanos(System.nanoTime() - started));
+        logger.info("✅ Снимок восстановлен: {} продуктов, {} пользователей, ошибок {} за {} мс ({} сущн./с)",
+                report.products(), report.users(), report.failed(), report.elapsed().toMillis(),
+                String.format("%.1f", report.entitiesPerSecond()));
+        return report;
+    }
+
+    private void ensureServiceIsEmpty() {
+        Response response = productClient.getAllProductsResponse(0, 1);
+        if (!FastJson.readProductPage(response.asByteArray()).isEmpty()) {
+            throw new IllegalStateException("Восстановление возможно только в пустой сервис: найдены продукты");
+        }
+        boolean hasUsers;
+        try (JsonArrayIterator<User> users = userClient.iterateUsers()) {
+            hasUsers = users.hasNext();
+        }
+        if (hasUsers) {
+            throw new IllegalStateException("Восстановление возможно только в пустой сервис: найдены пользователи");
+        }
+    }
+
+    /**
+     * Повторяет создание при 429/503 и сбоях соединения с экспоненциальной паузой, остальные коды не повторяются.
+     * Разрешение лимитера берётся на каждую попытку: повторы — такие же запросы к сервису.
+     */
+    private boolean createWithRetry(RateLimiter rateLimiter, Supplier<Response> action) {
+        long backoffMillis = 200;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                rateLimiter.acquire();
+                ApiCall.markRetry(attempt - 1);
+                int status = action.get().statusCode();
+                if (status == 200 || status == 201) {
+                    return true;
+                }
+                if (status != 429 && status != 503) {
+                    logger.warn("❌ Сущность не создана, статус {}", status);
+                    return false;
+                }
+                Thread.sleep(backoffMillis);
+                backoffMillis *= 2;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                logger.warn("Попытка {} не удалась: {}", attempt, e.getMessage());
+                if (!pause(backoffMillis)) {
+                    return false;
+                }
+                backoffMillis *= 2;
+            }
+        }
+        return false;
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void logProgress(int products, int users, int failed, long elapsedNanos) {
+        double seconds = Math.max(1, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)) / 1000.0;
+        logger.info("⏳ Восстановлено {} продуктов, {} пользователей, ошибок {} ({} сущн./с)",
+                products, users, failed, String.format("%.1f", (products + users) / seconds));
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+                logger.warn("⚠️ Восстановление не завершилось за отведённое время");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeLine(Writer out, JSONObject json) throws IOException {
+        out.write(json.toString());
+        out.write('\n');
+    }
+
+    private static JSONObject toJson(Product product) {
+        return new JSONObject()
+                .put("type", "product")
+                .put("id", product.getId())
+                .put("name", product.getName())
+                .put("description", product.getDescription())
+                .put("price", product.getPrice());
+    }
+
+    private static JSONObject toJson(User user) {
+        return new JSONObject()
+                .put("type", "user")
+                .put("id", user.getId())
+                .put("name", user.getName())
+                .put("email", user.getEmail())
+                .putOpt("password", user.getPassword());
+    }
+
+    private static Product toProduct(JSONObject json) {
+        return new Product(json.optString("name", null), json.optString("description", null), json.optDouble("price", 0));
+    }
+
+    private static User toUser(JSONObject json) {
+        return new User(json.optString("name", null), json.optString("email", null), json.optString("password", null));
+    }
+}
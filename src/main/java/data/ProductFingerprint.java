@@ -0,0 +1,81 @@
+package data;
+
+import domain.model.CompactProduct;
+import domain.model.Product;
+import domain.model.ProductBatch;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Стабильный 64-битный отпечаток содержимого продукта (FNV-1a + финальное перемешивание).
+ * Не зависит от JVM и запуска, поэтому пригоден для сравнения между окружениями и сохранения на диск.
+ */
+public final class ProductFingerprint {
+
+    static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ProductFingerprint() {
+    }
+
+    /**
+     * Отпечаток полей id, name, description и price.
+     */
+    public static long of(Product product) {
+        return of(product.getId() != null ? product.getId() : 0L,
+                product.getName(), product.getDescription(), product.getPrice());
+    }
+
+    /**
+     * Тот же отпечаток для компактного представления — совпадает с {@link #of(Product)} для того же продукта.
+     */
+    public static long of(CompactProduct product) {
+        return of(product.hasId() ? product.id() : 0L, product.name(), product.description(), product.price());
+    }
+
+    public static long of(ProductBatch batch, int index) {
+        long id = batch.idAt(index);
+        return of(id != CompactProduct.NO_ID ? id : 0L,
+                batch.nameAt(index), batch.descriptionAt(index), batch.priceAt(index));
+    }
+
+    private static long of(long id, String name, String description, double price) {
+        long h = FNV_OFFSET;
+        h = mixLong(h, id);
+        h = mixString(h, name);
+        h = mixString(h, description);
+        h = mixLong(h, Double.doubleToLongBits(price));
+        return finish(h);
+    }
+
+    /**
+     * Перемешивание 64-битного значения (финализатор splitmix64).
+     */
+    public static long finish(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    static long mixLong(long h, long value) {
+        for (int i = 0; i < 8; i++) {
+            h ^= (value >>> (i * 8)) & 0xff;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    static long mixString(long h, String value) {
+        if (value == null) {
+            h ^= 0xff;
+            return h * FNV_PRIME;
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= FNV_PRIME;
+        }
+        // Разделитель, чтобы ("ab","c") и ("a","bc") давали разные отпечатки
+        h ^= 0xfe;
+        return h * FNV_PRIME;
+    }
+}
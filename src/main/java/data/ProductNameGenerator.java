@@ -0,0 +1,164 @@
+package data;
+
+import com.github.javafaker.Faker;
+import mainutils.Shard;
+
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор уникальных названий продуктов для параллельного сидирования.
+ * <p>
+ * Формат: {@code <Слово><узел:6><счётчик:8><терминатор>}, где узел и счётчик записаны в base-36
+ * фиксированной ширины. Уникальность определяется только последними 15 символами, поэтому
+ * названия не повторяются ни между потоками (общий счётчик, раздаётся блоками без блокировок),
+ * ни между JVM (разные ID узла). Это заодно не упирается в лимит операций с одним названием (BUG-QA2-06).
+ * <p>
+ * Серверные правила: только латинские буквы и цифры (BUG-QA2-04), и название никогда не палиндром
+ * (BUG-QA2-05) — терминатор всегда отличается от первой буквы слова.
+ * Faker используется один раз при создании словаря, на горячем пути его нет.
+ * <p>
+ * ID узла берётся из {@code seed.node.id}; иначе — из PID и случайного числа. При шардировании
+ * ({@link Shard}) остаток ID узла по модулю числа шардов равен индексу шарда, так что шарды одного прогона
+ * никогда не получают один узел.
+ */
+public final class ProductNameGenerator {
+
+    private static final int NODE_WIDTH = 6;
+    private static final int COUNTER_WIDTH = 8;
+    private static final long NODE_LIMIT = pow36(NODE_WIDTH);
+    private static final long COUNTER_LIMIT = pow36(COUNTER_WIDTH);
+    private static final int BLOCK_SIZE = 1024;
+    private static final int VOCABULARY_SIZE = 256;
+    private static final int MAX_WORD_LENGTH = 20;
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final ProductNameGenerator INSTANCE = new ProductNameGenerator(defaultNodeId(), fakerVocabulary());
+
+    private final char[] node;
+    private final String[] words;
+    private final char[] terminators;
+    private final AtomicLong nextBlock = new AtomicLong();
+    private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+    /**
+     * Общий экземпляр на JVM. Отдельные экземпляры с одним ID узла дали бы одинаковые названия.
+     */
+    public static ProductNameGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param nodeId уникальный в рамках окружения ID узла (0 .. 36^6-1)
+     * @param vocabulary слова-префиксы; будут очищены до латинских букв
+     */
+    public ProductNameGenerator(long nodeId, List<String> vocabulary) {
+        if (nodeId < 0 || nodeId >= NODE_LIMIT) {
+            throw new IllegalArgumentException("ID узла вне диапазона 0.." + (NODE_LIMIT - 1) + ": " + nodeId);
+        }
+        this.node = new char[NODE_WIDTH];
+        encode(nodeId, node, 0, NODE_WIDTH);
+
+        List<String> cleaned = new ArrayList<>();
+        for (String word : vocabulary) {
+            String letters = lettersOnly(word);
+            if (!letters.isEmpty()) {
+                cleaned.add(letters);
+            }
+        }
+        if (cleaned.isEmpty()) {
+            cleaned.add("Product");
+        }
+        this.words = cleaned.toArray(new String[0]);
+        this.terminators = new char[words.length];
+        for (int i = 0; i < words.length; i++) {
+            char first = Character.toLowerCase(words[i].charAt(0));
+            terminators[i] = first == 'x' ? 'z' : 'x';
+        }
+    }
+
+    /**
+     * Следующее уникальное название. Без блокировок: поток берёт у общего счётчика блок значений
+     * и расходует его локально.
+     */
+    public String nextName() {
+        long[] range = block.get();
+        if (range[0] == range[1]) {
+            long start = nextBlock.getAndAdd(BLOCK_SIZE);
+            if (start + BLOCK_SIZE > COUNTER_LIMIT) {
+                throw new IllegalStateException("Исчерпан счётчик названий узла " + new String(node));
+            }
+            range[0] = start;
+            range[1] = start + BLOCK_SIZE;
+        }
+        long counter = range[0]++;
+
+        int wordIndex = (int) (counter % words.length);
+        String word = words[wordIndex];
+        char[] name = new char[word.length() + NODE_WIDTH + COUNTER_WIDTH + 1];
+        word.getChars(0, word.length(), name, 0);
+        int pos = word.length();
+        System.arraycopy(node, 0, name, pos, NODE_WIDTH);
+        pos += NODE_WIDTH;
+        encode(counter, name, pos, COUNTER_WIDTH);
+        name[name.length - 1] = terminators[wordIndex];
+        return new String(name);
+    }
+
+    private static void encode(long value, char[] target, int offset, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+    }
+
+    private static String lettersOnly(String word) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < word.length() && sb.length() < MAX_WORD_LENGTH; i++) {
+            char c = word.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long pow36(int width) {
+        long result = 1;
+        for (int i = 0; i < width; i++) {
+            result *= 36;
+        }
+        return result;
+    }
+
+    private static long defaultNodeId() {
+        String configured = System.getProperty("seed.node.id");
+        if (configured != null) {
+            return Math.floorMod(Long.parseLong(configured), NODE_LIMIT);
+        }
+        long pid = ProcessHandle.current().pid();
+        long random = new SecureRandom().nextLong();
+        long startTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long node = Math.floorMod(ProductFingerprint.finish(pid ^ random ^ startTime), NODE_LIMIT);
+        if (Shard.isEnabled()) {
+            node -= node % Shard.count();
+            node = node + Shard.index() < NODE_LIMIT ? node + Shard.index() : Shard.index();
+        }
+        return node;
+    }
+
+    private static List<String> fakerVocabulary() {
+        Faker faker = new Faker();
+        Set<String> words = new LinkedHashSet<>();
+        for (int i = 0; i < VOCABULARY_SIZE * 2 && words.size() < VOCABULARY_SIZE; i++) {
+            words.add(lettersOnly(faker.commerce().productName()));
+        }
+        words.remove("");
+        return new ArrayList<>(words);
+    }
+}
@@ -0,0 +1,114 @@
+package data;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Манифест сидированных данных: ID и отпечатки содержимого созданных продуктов и пользователей.
+ * Сохраняется между запусками JVM, чтобы повторно использовать уже засеянные данные.
+ * Привязан к адресу сервиса: манифест другого окружения считается пустым.
+ */
+public class SeedManifest {
+
+    private final String baseUrl;
+    private final Map<Long, Long> products = new LinkedHashMap<>();
+    private final Map<Long, Long> users = new LinkedHashMap<>();
+
+    public SeedManifest(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Загружает манифест; если файла нет, он повреждён или принадлежит другому окружению — возвращает пустой.
+     */
+    public static SeedManifest load(Path file, String baseUrl) {
+        SeedManifest manifest = new SeedManifest(baseUrl);
+        if (!Files.exists(file)) {
+            return manifest;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+            if (!baseUrl.equals(json.optString("baseUrl"))) {
+                return manifest;
+            }
+            readEntries(json.optJSONArray("products"), manifest.products);
+            readEntries(json.optJSONArray("users"), manifest.users);
+        } catch (IOException | RuntimeException e) {
+            // Повреждённый манифест не должен ронять запуск: просто сидируем заново
+            return new SeedManifest(baseUrl);
+        }
+        return manifest;
+    }
+
+    /**
+     * Атомарно сохраняет манифест (через временный файл), чтобы параллельный запуск не прочитал его наполовину.
+     */
+    public void save(Path file) {
+        JSONObject json = new JSONObject()
+                .put("baseUrl", baseUrl)
+                .put("updatedAt", LocalDateTime.now().toString())
+                .put("products", writeEntries(products))
+                .put("users", writeEntries(users));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "seed-manifest", ".tmp");
+            Files.writeString(tmp, json.toString(2), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить манифест " + file, e);
+        }
+    }
+
+    public void putProduct(long id, long fingerprint) {
+        products.put(id, fingerprint);
+    }
+
+    public void putUser(long id, long fingerprint) {
+        users.put(id, fingerprint);
+    }
+
+    public Map<Long, Long> getProducts() {
+        return products;
+    }
+
+    public Map<Long, Long> getUsers() {
+        return users;
+    }
+
+    public List<Long> getProductIds() {
+        return new ArrayList<>(products.keySet());
+    }
+
+    public List<Long> getUserIds() {
+        return new ArrayList<>(users.keySet());
+    }
+
+    private static void readEntries(JSONArray array, Map<Long, Long> target) {
+        if (array == null) {
+            return;
+        }
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject entry = array.getJSONObject(i);
+            target.put(entry.getLong("id"), entry.getLong("hash"));
+        }
+    }
+
+    private static JSONArray writeEntries(Map<Long, Long> entries) {
+        JSONArray array = new JSONArray();
+        entries.forEach((id, hash) -> array.put(new JSONObject().put("id", id).put("hash", hash)));
+        return array;
+    }
+}
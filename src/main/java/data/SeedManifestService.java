@@ -0,0 +1,156 @@
+package data;
+
+import client.CreatedEntityRegistry;
+import client.ProductClient;
+import client.UserClient;
+import client.json.FastJson;
+import domain.model.Product;
+import domain.model.User;
+import io.qameta.allure.Step;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import mainutils.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Повторное использование засеянных данных между запусками.
+ * <p>
+ * При старте загружает {@link SeedManifest}, быстро проверяет, какие записи всё ещё существуют
+ * на сервере без изменений, и досеивает только недостающее. Если всё на месте — сидирование пропускается.
+ * Путь к манифесту задаётся свойством {@code seed.manifest.path} (по умолчанию {@code .seed-manifest.json});
+ * при шардировании у каждого шарда свой манифест и свои засеянные данные ({@link Shard#partition(Path)}).
+ */
+public class SeedManifestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeedManifestService.class);
+    private static final int VALIDATION_THREADS = 8;
+
+    private final TestDataSeeder seeder;
+    private final ProductClient productClient = new ProductClient();
+    private final UserClient userClient = new UserClient();
+    private final Path manifestPath;
+
+    public SeedManifestService(TestDataSeeder seeder) {
+        this(seeder, Shard.partition(Path.of(System.getProperty("seed.manifest.path", ".seed-manifest.json"))));
+    }
+
+    public SeedManifestService(TestDataSeeder seeder, Path manifestPath) {
+        this.seeder = seeder;
+        this.manifestPath = manifestPath;
+    }
+
+    /**
+     * Гарантирует наличие на сервере не менее указанного числа засеянных сущностей.
+     * @return актуальный манифест (уже сохранён на диск)
+     */
+    @Step("Проверка манифеста сидирования: {userCount} пользователей, {productCount} продуктов")
+    public SeedManifest ensureSeeded(int userCount, int productCount) {
+        String baseUrl = RestAssured.baseURI + ":" + RestAssured.port;
+        SeedManifest stored = SeedManifest.load(manifestPath, baseUrl);
+        SeedManifest actual = new SeedManifest(baseUrl);
+
+        validateProducts(stored.getProducts()).forEach(actual::putProduct);
+        validateUsers(stored.getUsers()).forEach(actual::putUser);
+
+        int missingProducts = productCount - actual.getProducts().size();
+        int missingUsers = userCount - actual.getUsers().size();
+        logger.info("📋 Манифест {}: валидно {}/{} продуктов и {}/{} пользователей",
+                manifestPath, actual.getProducts().size(), stored.getProducts().size(),
+                actual.getUsers().size(), stored.getUsers().size());
+
+        if (missingUsers > 0) {
+            int before = seeder.getCreatedUsers().size();
+            seeder.seedUsers(missingUsers);
+            seeder.getCreatedUsers().stream().skip(before)
+                    .filter(u -> u.getId() != null)
+                    .forEach(u -> actual.putUser(u.getId(), UserFingerprint.of(u)));
+        }
+        if (missingProducts > 0) {
+            int before = seeder.getCreatedProducts().size();
+            seeder.seedProducts(missingProducts);
+            seeder.getCreatedProducts().stream().skip(before)
+                    .filter(p -> p.getId() != null)
+                    .forEach(p -> actual.putProduct(p.getId(), ProductFingerprint.of(p)));
+        }
+
+        if (missingUsers <= 0 && missingProducts <= 0) {
+            logger.info("✅ Все засеянные данные на месте — сидирование пропущено");
+        } else {
+            logger.info("🌱 Досеяно: {} пользователей, {} продуктов", Math.max(0, missingUsers), Math.max(0, missingProducts));
+        }
+
+        actual.save(manifestPath);
+        // Засеянное по манифесту должно пережить запуск — исключаем из очистки текущего запуска
+        CreatedEntityRegistry.retain(actual.getProductIds(), actual.getUserIds());
+        return actual;
+    }
+
+    /**
+     * Параллельно проверяет продукты по ID: запись валидна, если продукт существует и его содержимое не изменилось.
+     */
+    private Map<Long, Long> validateProducts(Map<Long, Long> entries) {
+        if (entries.isEmpty()) {
+            return Map.of();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(VALIDATION_THREADS, entries.size()));
+        try {
+            List<CompletableFuture<Long>> checks = new ArrayList<>();
+            entries.forEach((id, hash) -> checks.add(CompletableFuture.supplyAsync(
+                    () -> isProductUnchanged(id, hash) ? id : null, executor)));
+            return checks.stream()
+                    .map(CompletableFuture::join)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toMap(id -> id, entries::get, (a, b) -> a, LinkedHashMap::new));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private boolean isProductUnchanged(Long id, long expectedHash) {
+        try {
+            Response response = productClient.getProductById(id);
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            return ProductFingerprint.of(FastJson.readProduct(response.asByteArray())) == expectedHash;
+        } catch (Exception e) {
+            logger.warn("⚠️ Не удалось проверить продукт ID={}: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Пользователи проверяются одним потоковым чтением списка: эндпоинта получения по ID в клиенте нет.
+     */
+    private Map<Long, Long> validateUsers(Map<Long, Long> entries) {
+        if (entries.isEmpty()) {
+            return Map.of();
+        }
+        try (Stream<User> users = userClient.streamUsers()) {
+            Map<Long, Long> valid = new LinkedHashMap<>();
+            users.forEach(user -> {
+                Long expected = user.getId() != null ? entries.get(user.getId()) : null;
+                if (expected != null && expected == UserFingerprint.of(user)) {
+                    valid.put(user.getId(), expected);
+                }
+            });
+            return valid;
+        } catch (Exception e) {
+            logger.warn("⚠️ Не удалось проверить пользователей из манифеста: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+}
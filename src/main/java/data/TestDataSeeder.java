@@ -2,16 +2,20 @@ package data;
 
 import client.ProductClient;
 import client.UserClient;
+import client.json.FastJson;
 import com.github.javafaker.Faker;
 import domain.model.Product;
 import domain.model.User;
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
-import org.checkerframework.framework.qual.DefaultQualifier;
+import mainutils.allure.LeanAllure;
+import mainutils.jfr.JfrEvents;
+import mainutils.jfr.SeedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 /**
  * Генератор и загрузчик тестовых данных в систему.
  * Используется в @BeforeClass перед тестами.
@@ -24,6 +28,7 @@ public class TestDataSeeder {
      */
     private static final Logger logger = LoggerFactory.getLogger(TestDataSeeder.class);
     private final Faker faker = new Faker();
+    private final ProductNameGenerator nameGenerator = ProductNameGenerator.getInstance();
 
     private final UserClient userClient = new UserClient();
     private final ProductClient productClient = new ProductClient();
@@ -60,24 +65,33 @@ public class TestDataSeeder {
     @Step("Создание пользователей через UserClient")
     public void seedUsers(int count) {
         logger.info("Попытка создать {} пользователей", count);
-        for (int i = 0; i < count; i++) {
-            User user = new User(
-                    faker.name().fullName(),
-                    faker.internet().emailAddress(),
-                    faker.internet().password(8, 12)
-            );
-            Response response = userClient.createUser(user);
+        SeedEvent event = JfrEvents.seedStarted("user", count);
+        int createdCount = 0;
+        try (LeanAllure.Bulk bulk = LeanAllure.bulk("Сидирование пользователей")) {
+            for (int i = 0; i < count; i++) {
+                User user = new User(
+                        faker.name().fullName(),
+                        faker.internet().emailAddress(),
+                        faker.internet().password(8, 12)
+                );
+                Response response = userClient.createUser(user);
 //            if (response.statusCode() >= 200 || response.statusCode() < 300) {
-            if (response.statusCode() == 200 || response.statusCode() == 201) {
-                User created = response.as(User.class);
-                createdUsers.add(created);
-                logger.info("✅ Создан пользователь: {}, статус {} должно было 201", created.getName(), response.statusCode());
-            } else {
+                if (response.statusCode() == 200 || response.statusCode() == 201) {
+                    User created = FastJson.readUser(response.asByteArray());
+                    createdUsers.add(created);
+                    createdUserIds.add(created.getId());
+                    logger.info("✅ Создан пользователь: {}, статус {} должно было 201", created.getName(), response.statusCode());
+                    createdCount++;
+                    bulk.succeeded();
+                } else {
 //                logger.warn("Ошибка при создании пользователя: статус {}, тело: {}", response.statusCode(), response.getBody().asString());
-                logger.error("❌ Не удалось создать пользователя: {}, статус: {}, тело: {}",
-                        user.getName(), response.statusCode(), response.getBody().asString());
+                    logger.error("❌ Не удалось создать пользователя: {}, статус: {}, тело: {}",
+                            user.getName(), response.statusCode(), response.getBody().asString());
+                    bulk.failed(user.getName(), "статус " + response.statusCode());
+                }
             }
         }
+        JfrEvents.seedFinished(event, createdCount);
         if (createdUsers.isEmpty()) {
             logger.warn("⚠️ Ни одного пользователя не было успешно создано.");
         }
@@ -88,37 +102,45 @@ public class TestDataSeeder {
     @Step("Создание продуктов через ProductClient")
     public void seedProducts(int count) {
     logger.info("Попытка создать {}, продуктов", count);
+        SeedEvent event = JfrEvents.seedStarted("product", count);
+        int createdCount = 0;
         List<String> materials = List.of("Plastic", "Metal", "Wood", "Glass", "Leather", "Cotton");
         double price = generateValidPrice();
-        for (int i = 0; i < count; i++) {
-            String newProdName = String.format(faker.commerce().productName() + System.currentTimeMillis());
-            //                    faker.commerce().productName(),
-            String material = materials.get(faker.random().nextInt(materials.size()));
-            Product product = new Product(
-                    newProdName,
-                    material,
-                   price
-            );
-            Response response = productClient.createProduct(product);
-            logger.info("Тело запроса: " + product);
+        try (LeanAllure.Bulk bulk = LeanAllure.bulk("Сидирование продуктов")) {
+            for (int i = 0; i < count; i++) {
+                // Уникально между потоками и JVM, без спецсимволов и палиндромов (BUG-QA2-04/05/06)
+                String newProdName = nameGenerator.nextName();
+                //                    faker.commerce().productName(),
+                String material = materials.get(ThreadLocalRandom.current().nextInt(materials.size()));
+                Product product = new Product(
+                        newProdName,
+                        material,
+                       price
+                );
+                Response response = productClient.createProduct(product);
 //            if (response.statusCode() >= 200 || response.statusCode() < 300) {
-            if (response.statusCode() == 201 || response.statusCode() == 200) {
-                Product created = response.as(Product.class);
-                createdProducts.add(created);
-                createdProductIds.add(created.getId());
-                logger.info("✅ Создан продукт: {}, ID: {}, статус {}", product.getName(), created.getId(), response.statusCode());
-            } else {
+                if (response.statusCode() == 201 || response.statusCode() == 200) {
+                    Product created = FastJson.readProduct(response.asByteArray());
+                    createdProducts.add(created);
+                    createdProductIds.add(created.getId());
+                    logger.info("✅ Создан продукт: {}, ID: {}, статус {}", product.getName(), created.getId(), response.statusCode());
+                    createdCount++;
+                    bulk.succeeded();
+                } else {
 //                logger.warn("Ошибка при создании продукта: статус {}, тело {}", response.statusCode(), response.getBody().asString());
-                logger.error("❌ Не удалось создать продукт: {}, статус: {}, тело: {}",
-                        product.getName(), response.statusCode(), response.getBody().asString());
+                    logger.error("❌ Не удалось создать продукт: {}, статус: {}, тело: {}",
+                            product.getName(), response.statusCode(), response.getBody().asString());
+                    bulk.failed(product.getName(), "статус " + response.statusCode());
+                }
             }
         }
+        JfrEvents.seedFinished(event, createdCount);
         if (createdProducts.isEmpty()) {
             logger.warn("⚠️ Ни одного продукта не было успешно создано.");
         }
     }
     private double generateValidPrice() {
-        return VALID_PRICES.get(faker.random().nextInt(VALID_PRICES.size()));
+        return VALID_PRICES.get(ThreadLocalRandom.current().nextInt(VALID_PRICES.size()));
     }
 
     public List<User> getCreatedUsers() {
@@ -153,6 +175,18 @@ public class TestDataSeeder {
                 faker.number().randomDouble(2, 10, 1000)
         );
     }
+    /**
+     * Регистрирует продукты, засеянные в предыдущих запусках (см. SeedManifestService),
+     * чтобы тесты, опирающиеся на getCreatedProductIds(), работали и без повторного сидирования.
+     */
+    public void adoptSeededProducts(List<Long> ids) {
+        for (Long id : ids) {
+            if (!createdProductIds.contains(id)) {
+                createdProductIds.add(id);
+            }
+        }
+    }
+
     /**
      * Очистка всех сохранённых мок-данных из памяти (не удаляет из БД).
      */
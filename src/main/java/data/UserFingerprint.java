@@ -0,0 +1,21 @@
+package data;
+
+import domain.model.User;
+
+/**
+ * Стабильный 64-битный отпечаток пользователя по полям id, name и email.
+ * Пароль не учитывается: сервер не возвращает его при чтении.
+ */
+public final class UserFingerprint {
+
+    private UserFingerprint() {
+    }
+
+    public static long of(User user) {
+        long h = ProductFingerprint.FNV_OFFSET;
+        h = ProductFingerprint.mixLong(h, user.getId() != null ? user.getId() : 0L);
+        h = ProductFingerprint.mixString(h, user.getName());
+        h = ProductFingerprint.mixString(h, user.getEmail());
+        return ProductFingerprint.finish(h);
+    }
+}
@@ -0,0 +1,35 @@
+package domain.model;
+
+/**
+ * Неизменяемый компактный вариант {@link Product} для больших наборов в памяти.
+ * <p>
+ * ID и цена — примитивы, описание — каноничный экземпляр из {@link DescriptionDictionary}.
+ * Отсутствующий ID кодируется как {@link #NO_ID}.
+ */
+public record CompactProduct(long id, String name, String description, double price) {
+
+    public static final long NO_ID = Long.MIN_VALUE;
+
+    public static CompactProduct from(Product product) {
+        return from(product, DescriptionDictionary.shared());
+    }
+
+    public static CompactProduct from(Product product, DescriptionDictionary dictionary) {
+        return new CompactProduct(
+                product.getId() != null ? product.getId() : NO_ID,
+                product.getName(),
+                dictionary.intern(product.getDescription()),
+                product.getPrice());
+    }
+
+    public boolean hasId() {
+        return id != NO_ID;
+    }
+
+    /**
+     * Обычный изменяемый bean для клиентов и тестов.
+     */
+    public Product toProduct() {
+        return new Product(hasId() ? id : null, name, description, price);
+    }
+}
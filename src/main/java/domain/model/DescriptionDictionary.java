@@ -0,0 +1,122 @@
+package domain.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словарь описаний продуктов: каждое уникальное описание хранится один раз и получает int-код.
+ * <p>
+ * Описания берутся из крошечного набора (материалы в {@code TestDataSeeder}), поэтому миллионы продуктов
+ * ссылаются на несколько строк вместо миллионов копий. Код 0 зарезервирован за null.
+ * Словарь живёт вместе с владельцем: у каждого {@link ProductBatch} свой. Общий словарь JVM ({@link #shared()})
+ * ограничен по размеру: когда он заполнен, {@link #intern(String)} возвращает строку как есть.
+ * Потокобезопасен: чтение по коду без блокировок, регистрация нового описания — под монитором.
+ */
+public final class DescriptionDictionary {
+
+    public static final int NULL_CODE = 0;
+
+    private static final DescriptionDictionary SHARED =
+            new DescriptionDictionary(Integer.getInteger("description.dictionary.shared.max", 4096));
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private final int maxSize;
+    private int size = 1;
+
+    /**
+     * Словарь без ограничения размера — для владельца с конечным временем жизни.
+     */
+    public DescriptionDictionary() {
+        this(Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * @param maxSize максимум уникальных описаний (без null)
+     */
+    public DescriptionDictionary(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Размер словаря не может быть отрицательным: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Общий ограниченный словарь JVM ({@code description.dictionary.shared.max}, по умолчанию 4096) —
+     * им пользуется {@link CompactProduct#from(Product)}.
+     */
+    public static DescriptionDictionary shared() {
+        return SHARED;
+    }
+
+    /**
+     * Код описания; новое описание регистрируется.
+     * @throws IllegalStateException если словарь заполнен
+     */
+    public int encode(String description) {
+        int code = tryEncode(description);
+        if (code < 0) {
+            throw new IllegalStateException("Словарь описаний заполнен: " + maxSize);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        if (code == NULL_CODE) {
+            return null;
+        }
+        String[] snapshot = values;
+        if (code < 0 || code >= snapshot.length || snapshot[code] == null) {
+            throw new IllegalArgumentException("Неизвестный код описания: " + code);
+        }
+        return snapshot[code];
+    }
+
+    /**
+     * Каноничный экземпляр строки описания (аналог {@link String#intern()} в рамках словаря).
+     */
+    public String intern(String description) {
+        int code = tryEncode(description);
+        return code < 0 ? description : decode(code);
+    }
+
+    /**
+     * Количество уникальных описаний (без null).
+     */
+    public int size() {
+        synchronized (this) {
+            return size - 1;
+        }
+    }
+
+    private int tryEncode(String description) {
+        if (description == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(description);
+        return code != null ? code : register(description);
+    }
+
+    /**
+     * @return код или -1, если словарь заполнен
+     */
+    private synchronized int register(String description) {
+        Integer existing = codes.get(description);
+        if (existing != null) {
+            return existing;
+        }
+        if (size > maxSize) {
+            return -1;
+        }
+        int code = size++;
+        String[] current = values;
+        if (code == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[code] = description;
+        // Публикуем массив до кода: читатель, получивший код, гарантированно увидит значение
+        values = current;
+        codes.put(description, code);
+        return code;
+    }
+}
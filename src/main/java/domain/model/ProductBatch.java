@@ -0,0 +1,162 @@
+package domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Плоский контейнер продуктов в раскладке struct-of-arrays: отдельные массивы ID, цен,
+ * кодов описаний и названий. На продукт — 8 + 8 + 4 байта примитивов плюс ссылка на название,
+ * без заголовков объектов и боксинга; описания хранятся в собственном {@link DescriptionDictionary} батча
+ * и освобождаются вместе с ним.
+ * <p>
+ * Предназначен для планирования очистки и сравнения каталогов на миллионах продуктов.
+ * Не потокобезопасен: заполняется одним потоком, после заполнения читается свободно.
+ */
+public final class ProductBatch {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final DescriptionDictionary dictionary;
+    private long[] ids;
+    private double[] prices;
+    private int[] descriptionCodes;
+    private String[] names;
+    private int size;
+
+    public ProductBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ProductBatch(int initialCapacity) {
+        this(initialCapacity, new DescriptionDictionary());
+    }
+
+    public ProductBatch(int initialCapacity, DescriptionDictionary dictionary) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.dictionary = dictionary;
+        this.ids = new long[capacity];
+        this.prices = new double[capacity];
+        this.descriptionCodes = new int[capacity];
+        this.names = new String[capacity];
+    }
+
+    public static ProductBatch of(Collection<Product> products) {
+        ProductBatch batch = new ProductBatch(products.size());
+        for (Product product : products) {
+            batch.add(product);
+        }
+        return batch;
+    }
+
+    public void add(Product product) {
+        add(product.getId() != null ? product.getId() : CompactProduct.NO_ID,
+                product.getName(), product.getDescription(), product.getPrice());
+    }
+
+    public void add(CompactProduct product) {
+        add(product.id(), product.name(), product.description(), product.price());
+    }
+
+    public void add(long id, String name, String description, double price) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        names[size] = name;
+        descriptionCodes[size] = dictionary.encode(description);
+        prices[size] = price;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long idAt(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    public String nameAt(int index) {
+        checkIndex(index);
+        return names[index];
+    }
+
+    public String descriptionAt(int index) {
+        checkIndex(index);
+        return dictionary.decode(descriptionCodes[index]);
+    }
+
+    public int descriptionCodeAt(int index) {
+        checkIndex(index);
+        return descriptionCodes[index];
+    }
+
+    public double priceAt(int index) {
+        checkIndex(index);
+        return prices[index];
+    }
+
+    public CompactProduct get(int index) {
+        checkIndex(index);
+        return new CompactProduct(ids[index], names[index], dictionary.decode(descriptionCodes[index]), prices[index]);
+    }
+
+    public Product toProduct(int index) {
+        return get(index).toProduct();
+    }
+
+    public List<Product> toProducts() {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(toProduct(i));
+        }
+        return products;
+    }
+
+    /**
+     * Копия ID без {@link CompactProduct#NO_ID}.
+     */
+    public long[] ids() {
+        long[] result = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] != CompactProduct.NO_ID) {
+                result[count++] = ids[i];
+            }
+        }
+        return count == size ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Сжатие массивов до фактического размера после заполнения.
+     */
+    public void trimToSize() {
+        if (size < ids.length) {
+            resize(Math.max(size, 1));
+        }
+    }
+
+    private void grow() {
+        resize(ids.length + (ids.length >> 1) + 1);
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+        names = Arrays.copyOf(names, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + " вне батча размера " + size);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package load;
+
+import client.json.FastJson;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Сравнение двух развёртываний сервиса (A — текущее, B — новое) одной и той же нагрузкой.
+ * <p>
+ * Последовательность запросов строится один раз по зерну ({@code ab.seed}) и отправляется на обе стороны
+ * парами; порядок внутри пары (A→B или B→A) тоже случаен, чтобы прогрев, кэши и фоновый шум
+ * делились поровну. Так каждое измерение B имеет пару в A для того же запроса, и значимость считается
+ * парным t-тестом по {@code ln(B/A)}: это отношение задержек, устойчивое к длинному хвосту.
+ * <p>
+ * По каждой операции смеси и в целом: p50/p99/среднее обеих сторон, геометрическое отношение B/A
+ * с доверительным интервалом, p-value и вердикт; доли ошибок сравниваются z-тестом, пропускная
+ * способность — измеренным числом успешных запросов стороны в секунду прогона (при {@code ab.rate} она
+ * ограничена темпом, а не задержками). Регрессия — значимое (p < {@code ab.alpha})
+ * замедление больше {@code ab.min.effect}. При {@code ab.fail.on.regression=true} процесс завершается с кодом 1.
+ * <p>
+ * Параметры: {@code ab.base.url.a}, {@code ab.base.url.b} (обязательны, со схемой и портом),
+ * {@code ab.mix} ({@link OperationMix}), {@code ab.requests} (2000 пар), {@code ab.rate} (пар/с, по умолчанию 50; 0 — без паузы),
+ * {@code ab.concurrency} (4), {@code ab.seed} (42), {@code ab.alpha} (0.05), {@code ab.min.effect} (0.05),
+ * {@code ab.report.path} ({@code target/ab-report.json}).
+ */
+public class AbComparison {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbComparison.class);
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String urlA;
+    private final String urlB;
+    private final OperationMix mix;
+    private final int requests;
+    private final double rate;
+    private final int concurrency;
+    private final long seed;
+    private final double alpha;
+    private final double minEffect;
+
+    /**
+     * Запрос последовательности и его замеры на обеих сторонах (мкс; -1 — ошибка).
+     */
+    private record Pair(OperationMix.Operation operation, String path, boolean bFirst, long[] micros) {
+    }
+
+    public AbComparison(String urlA, String urlB, OperationMix mix, int requests, double rate, int concurrency,
+                        long seed, double alpha, double minEffect) {
+        this.urlA = urlA;
+        this.urlB = urlB;
+        this.mix = mix;
+        this.requests = requests;
+        this.rate = rate;
+        this.concurrency = concurrency;
+        this.seed = seed;
+        this.alpha = alpha;
+        this.minEffect = minEffect;
+    }
+
+    public static void main(String[] args) {
+        String urlA = required("ab.base.url.a");
+        String urlB = required("ab.base.url.b");
+        AbComparison comparison = new AbComparison(urlA, urlB,
+                OperationMix.parse(System.getProperty("ab.mix", "get-by-id:8,list:1,page:1")),
+                Integer.getInteger("ab.requests", 2000),
+                Double.parseDouble(System.getProperty("ab.rate", "50")),
+                Integer.getInteger("ab.concurrency", 4),
+                Long.getLong("ab.seed", 42),
+                Double.parseDouble(System.getProperty("ab.alpha", "0.05")),
+                Double.parseDouble(System.getProperty("ab.min.effect", "0.05")));
+        JSONObject report = comparison.run();
+        LoadCoordinator.writeReport(Path.of(System.getProperty("ab.report.path", "target/ab-report.json")), report);
+        if (report.getBoolean("regression") && Boolean.parseBoolean(System.getProperty("ab.fail.on.regression", "false"))) {
+            logger.error("❌ B медленнее A — см. отчёт");
+            System.exit(1);
+        }
+    }
+
+    public JSONObject run() {
+        List<Pair> pairs = buildSequence(commonIds());
+        logger.info("🆚 A={} B={}: {} пар, смесь {}, {} потоков, зерно {}", urlA, urlB, pairs.size(), mix, concurrency, seed);
+
+        AtomicInteger next = new AtomicInteger();
+        long intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        long start = System.nanoTime();
+        ExecutorService senders = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            senders.execute(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < pairs.size()) {
+                    long wait = start + index * intervalNanos - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    Pair pair = pairs.get(index);
+                    int first = pair.bFirst() ? 1 : 0;
+                    pair.micros()[first] = send(first == 0 ? urlA : urlB, pair.path());
+                    pair.micros()[1 - first] = send(first == 0 ? urlB : urlA, pair.path());
+                }
+            });
+        }
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(1, TimeUnit.HOURS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            senders.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, List<Pair>> byOperation = new LinkedHashMap<>();
+        byOperation.put("all", pairs);
+        for (Pair pair : pairs) {
+            byOperation.computeIfAbsent(pair.operation().label(), key -> new ArrayList<>()).add(pair);
+        }
+        JSONArray operations = new JSONArray();
+        boolean regression = false;
+        for (Map.Entry<String, List<Pair>> entry : byOperation.entrySet()) {
+            JSONObject result = compare(entry.getKey(), entry.getValue(), elapsedSeconds);
+            regression |= "REGRESSION".equals(result.getString("verdict"));
+            operations.put(result);
+        }
+        return new JSONObject()
+                .put("generatedAt", LocalDateTime.now().toString())
+                .put("a", urlA)
+                .put("b", urlB)
+                .put("mix", mix.spec())
+                .put("pairs", pairs.size())
+                .put("concurrency", concurrency)
+                .put("rate", rate)
+                .put("elapsedSeconds", elapsedSeconds)
+                .put("seed", seed)
+                .put("alpha", alpha)
+                .put("minEffect", minEffect)
+                .put("regression", regression)
+                .put("operations", operations);
+    }
+
+    /**
+     * Одинаковая для обеих сторон последовательность: операции по смеси, ID и порядок в паре — по зерну.
+     */
+    private List<Pair> buildSequence(List<Long> ids) {
+        Random random = new Random(seed);
+        List<Long> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, random);
+        List<Pair> pairs = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            long number = random.nextInt(Integer.MAX_VALUE);
+            pairs.add(new Pair(mix.pick(number), mix.path(number, shuffled), random.nextBoolean(), new long[2]));
+        }
+        return pairs;
+    }
+
+    /**
+     * ID, которые есть на обеих сторонах: иначе get-by-id сравнивал бы 200 с 404.
+     */
+    private List<Long> commonIds() {
+        List<Long> idsA = fetchIds(urlA);
+        List<Long> common = new ArrayList<>(idsA);
+        common.retainAll(new HashSet<>(fetchIds(urlB)));
+        Collections.sort(common);
+        if (common.isEmpty() && mix.uses(OperationMix.Operation.GET_BY_ID)) {
+            logger.warn("⚠️ Нет общих ID продуктов на A и B, get-by-id будет запрашивать список");
+        }
+        return common;
+    }
+
+    private static List<Long> fetchIds(String baseUrl) {
+        try {
+            HttpResponse<byte[]> response = HTTP.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+                    .header("Accept", "application/json").GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                logger.warn("⚠️ {}: список продуктов вернул {}", baseUrl, response.statusCode());
+                return List.of();
+            }
+            return FastJson.readIds(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("Сервис " + baseUrl + " недоступен: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Получение ID прервано", e);
+        }
+    }
+
+    /**
+     * @return задержка в микросекундах или -1 при ошибке (статус 4xx/5xx или сбой соединения)
+     */
+    private static long send(String baseUrl, String path) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<Void> response = HTTP.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+            return response.statusCode() >= 400 ? -1 : micros;
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private JSONObject compare(String operation, List<Pair> pairs, double elapsedSeconds) {
+        LatencyHistogram histogramA = new LatencyHistogram();
+        LatencyHistogram histogramB = new LatencyHistogram();
+        long errorsA = 0;
+        long errorsB = 0;
+        int paired = 0;
+        double sum = 0;
+        double sumSquares = 0;
+        for (Pair pair : pairs) {
+            long a = pair.micros()[0];
+            long b = pair.micros()[1];
+            if (a < 0) {
+                errorsA++;
+            } else {
+                histogramA.record(a);
+            }
+            if (b < 0) {
+                errorsB++;
+            } else {
+                histogramB.record(b);
+            }
+            if (a >= 0 && b >= 0) {
+                // +1 мкс защищает логарифм от нулевых задержек
+                double logRatio = Math.log((b + 1.0) / (a + 1.0));
+                sum += logRatio;
+                sumSquares += logRatio * logRatio;
+                paired++;
+            }
+        }
+
+        double meanLog = paired > 0 ? sum / paired : 0;
+        double variance = paired > 1 ? (sumSquares - paired * meanLog * meanLog) / (paired - 1) : 0;
+        double standardError = paired > 1 ? Math.sqrt(Math.max(variance, 0) / paired) : Double.NaN;
+        double t = standardError > 0 ? meanLog / standardError : (meanLog == 0 ? 0 : Double.POSITIVE_INFINITY * Math.signum(meanLog));
+        double pValue = paired > 1 ? Statistics.studentTwoSidedP(t, paired - 1) : 1;
+        double critical = paired > 1 ? Statistics.studentCriticalValue(alpha, paired - 1) : Double.NaN;
+        double ratio = Math.exp(meanLog);
+        double ratioLow = Math.exp(meanLog - critical * standardError);
+        double ratioHigh = Math.exp(meanLog + critical * standardError);
+
+        String verdict;
+        if (paired < 2 || pValue >= alpha || Math.abs(ratio - 1) < minEffect) {
+            verdict = "NO_SIGNIFICANT_CHANGE";
+        } else {
+            verdict = ratio > 1 ? "REGRESSION" : "IMPROVEMENT";
+        }
+        double errorP = Statistics.twoProportionP(errorsA, pairs.size(), errorsB, pairs.size());
+        double throughputA = elapsedSeconds > 0 ? histogramA.count() / elapsedSeconds : 0;
+        double throughputB = elapsedSeconds > 0 ? histogramB.count() / elapsedSeconds : 0;
+
+        logger.info("{} {}: n={}, A p50 {} / p99 {} мс, B p50 {} / p99 {} мс, B/A {} [{}; {}], p={}, ошибки {}% → {}% (p={})",
+                verdictIcon(verdict), operation, paired,
+                histogramA.percentile(50) / 1000.0, histogramA.percentile(99) / 1000.0,
+                histogramB.percentile(50) / 1000.0, histogramB.percentile(99) / 1000.0,
+                String.format("%.3f", ratio), String.format("%.3f", ratioLow), String.format("%.3f", ratioHigh),
+                String.format("%.4f", pValue), String.format("%.2f", 100.0 * errorsA / pairs.size()),
+                String.format("%.2f", 100.0 * errorsB / pairs.size()), String.format("%.4f", errorP));
+
+        return new JSONObject()
+                .put("operation", operation)
+                .put("requests", pairs.size())
+                .put("paired", paired)
+                .put("a", side(histogramA, errorsA, pairs.size(), throughputA))
+                .put("b", side(histogramB, errorsB, pairs.size(), throughputB))
+                .put("ratio", ratio)
+                .put("ratioCiLow", paired > 1 ? ratioLow : JSONObject.NULL)
+                .put("ratioCiHigh", paired > 1 ? ratioHigh : JSONObject.NULL)
+                .put("meanDeltaMs", (histogramB.mean() - histogramA.mean()) / 1000.0)
+                .put("p50DeltaMs", (histogramB.percentile(50) - histogramA.percentile(50)) / 1000.0)
+                .put("p99DeltaMs", (histogramB.percentile(99) - histogramA.percentile(99)) / 1000.0)
+                .put("pValue", pValue)
+                .put("errorRateDelta", (double) (errorsB - errorsA) / pairs.size())
+                .put("errorRatePValue", errorP)
+                .put("throughputDelta", throughputB - throughputA)
+                .put("verdict", verdict);
+    }
+
+    private static JSONObject side(LatencyHistogram histogram, long errors, int total, double throughput) {
+        return new JSONObject()
+                .put("p50Ms", histogram.percentile(50) / 1000.0)
+                .put("p90Ms", histogram.percentile(90) / 1000.0)
+                .put("p99Ms", histogram.percentile(99) / 1000.0)
+                .put("meanMs", histogram.mean() / 1000.0)
+                .put("errorRate", total > 0 ? (double) errors / total : 0)
+                // Успешные запросы стороны за время всего прогона
+                .put("throughputRps", throughput);
+    }
+
+    private static String verdictIcon(String verdict) {
+        return switch (verdict) {
+            case "REGRESSION" -> "🔴";
+            case "IMPROVEMENT" -> "🟢";
+            default -> "⚪";
+        };
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Не задано -D" + property);
+        }
+        return value.trim();
+    }
+}
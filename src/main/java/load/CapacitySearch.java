@@ -0,0 +1,204 @@
+package load;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск предельной устойчивой частоты запросов для каждой смеси операций.
+ * <p>
+ * Разгон: частота растёт ступенями в {@code capacity.step.factor} раз, пока ступень устойчива.
+ * Ступень неустойчива (колено), если p99 выше SLO, доля ошибок выше допустимой, фактическая частота
+ * отстаёт от целевой или перестала расти относительно предыдущей ступени. Затем граница между последней
+ * устойчивой ступенью и коленом уточняется бинарным поиском до {@code capacity.resolution}.
+ * <p>
+ * Нагрузку дают воркеры {@link LoadCoordinator} (одни и те же на все ступени). Итог пишется в JSON
+ * ({@code capacity.report.path}, по умолчанию {@code target/capacity-summary.json}) с меткой
+ * {@code capacity.label} — например, версией релиза, чтобы сравнивать ёмкость между релизами.
+ * <p>
+ * Параметры: {@code capacity.mixes} (смеси через {@code ;}), {@code capacity.start.rate} (50),
+ * {@code capacity.max.rate} (20000), {@code capacity.step.factor} (2), {@code capacity.step.duration} (с, 20),
+ * {@code capacity.slo.p99.ms} (500), {@code capacity.max.error.rate} (0.01),
+ * {@code capacity.throughput.tolerance} (0.9), {@code capacity.resolution} (0.05),
+ * {@code capacity.cooldown} (с, 5); воркеры — как у {@link LoadCoordinator}.
+ */
+public class CapacitySearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapacitySearch.class);
+    private static final double MIN_GROWTH = 1.02;
+
+    private final LoadCoordinator coordinator;
+    private final double startRate = Double.parseDouble(System.getProperty("capacity.start.rate", "50"));
+    private final double maxRate = Double.parseDouble(System.getProperty("capacity.max.rate", "20000"));
+    private final double stepFactor = Double.parseDouble(System.getProperty("capacity.step.factor", "2"));
+    private final int stepSeconds = Integer.getInteger("capacity.step.duration", 20);
+    private final double sloP99Millis = Double.parseDouble(System.getProperty("capacity.slo.p99.ms", "500"));
+    private final double maxErrorRate = Double.parseDouble(System.getProperty("capacity.max.error.rate", "0.01"));
+    private final double throughputTolerance = Double.parseDouble(System.getProperty("capacity.throughput.tolerance", "0.9"));
+    private final double resolution = Double.parseDouble(System.getProperty("capacity.resolution", "0.05"));
+    private final int cooldownSeconds = Integer.getInteger("capacity.cooldown", 5);
+
+    /**
+     * Ступень поиска и её оценка.
+     * @param reason почему ступень неустойчива; null — устойчива
+     */
+    record Step(String phase, LoadResult result, String reason) {
+
+        boolean sustainable() {
+            return reason == null;
+        }
+
+        JSONObject toJson() {
+            return new JSONObject()
+                    .put("phase", phase)
+                    .put("targetRate", result.targetRate())
+                    .put("achievedRate", result.achievedRate())
+                    .put("p50Ms", result.percentileMillis(50))
+                    .put("p99Ms", result.percentileMillis(99))
+                    .put("errorRate", result.errorRate())
+                    .put("sustainable", sustainable())
+                    .put("reason", reason == null ? JSONObject.NULL : reason);
+        }
+    }
+
+    public CapacitySearch(LoadCoordinator coordinator) {
+        if (stepFactor <= 1) {
+            throw new IllegalArgumentException("capacity.step.factor должен быть больше 1: " + stepFactor);
+        }
+        this.coordinator = coordinator;
+    }
+
+    public static void main(String[] args) {
+        String[] mixes = System.getProperty("capacity.mixes", "get-by-id;list;get-by-id:8,list:1,page:1").split(";");
+        Path reportPath = Path.of(System.getProperty("capacity.report.path", "target/capacity-summary.json"));
+        try (LoadCoordinator coordinator = LoadCoordinator.fromSystemProperties()) {
+            coordinator.start();
+            CapacitySearch search = new CapacitySearch(coordinator);
+            JSONArray results = new JSONArray();
+            for (String mix : mixes) {
+                if (!mix.isBlank()) {
+                    results.put(search.search(OperationMix.parse(mix).spec()));
+                }
+            }
+            LoadCoordinator.writeReport(reportPath, search.summary(results));
+        }
+    }
+
+    /**
+     * Разгон до колена и уточнение бинарным поиском для одной смеси.
+     */
+    public JSONObject search(String mix) {
+        logger.info("🔎 Поиск ёмкости для смеси {}: старт {}/с, шаг x{}, SLO p99 {} мс", mix, startRate, stepFactor, sloP99Millis);
+        List<Step> steps = new ArrayList<>();
+
+        Step lastGood = null;
+        Step knee = null;
+        for (double rate = startRate; rate <= maxRate; rate *= stepFactor) {
+            Step step = evaluate("ramp", mix, rate, lastGood);
+            steps.add(step);
+            if (!step.sustainable()) {
+                knee = step;
+                break;
+            }
+            lastGood = step;
+        }
+
+        if (knee != null && lastGood != null) {
+            double low = lastGood.result().targetRate();
+            double high = knee.result().targetRate();
+            while ((high - low) / low > resolution) {
+                double middle = (low + high) / 2;
+                Step step = evaluate("refine", mix, middle, lastGood);
+                steps.add(step);
+                if (step.sustainable()) {
+                    low = middle;
+                    lastGood = step;
+                } else {
+                    high = middle;
+                }
+            }
+        }
+
+        JSONObject summary = new JSONObject()
+                .put("mix", mix)
+                .put("maxSustainableRate", lastGood != null ? lastGood.result().targetRate() : 0)
+                // Колено не найдено до capacity.max.rate: ёмкость не ниже этого значения
+                .put("unbounded", knee == null)
+                .put("kneeRate", knee != null ? knee.result().targetRate() : JSONObject.NULL)
+                .put("kneeReason", knee != null ? knee.reason() : JSONObject.NULL)
+                .put("atCapacity", lastGood != null ? lastGood.toJson() : JSONObject.NULL);
+        JSONArray stepArray = new JSONArray();
+        steps.forEach(step -> stepArray.put(step.toJson()));
+        summary.put("steps", stepArray);
+
+        if (lastGood == null) {
+            logger.warn("⚠️ {}: уже стартовая частота {}/с неустойчива — {}", mix, startRate, knee.reason());
+        } else {
+            logger.info("🏁 {}: устойчиво до {}/с ({}){}", mix, Math.round(lastGood.result().targetRate()),
+                    lastGood.result().describe(), knee == null ? ", колено не достигнуто" : "");
+        }
+        return summary;
+    }
+
+    JSONObject summary(JSONArray results) {
+        return new JSONObject()
+                .put("label", System.getProperty("capacity.label", "local"))
+                .put("generatedAt", LocalDateTime.now().toString())
+                .put("baseUrl", coordinator.baseUrl())
+                .put("workers", coordinator.workerCount())
+                .put("stepSeconds", stepSeconds)
+                .put("slo", new JSONObject()
+                        .put("p99Ms", sloP99Millis)
+                        .put("maxErrorRate", maxErrorRate)
+                        .put("throughputTolerance", throughputTolerance))
+                .put("mixes", results);
+    }
+
+    private Step evaluate(String phase, String mix, double rate, Step previous) {
+        LoadResult result = coordinator.run(rate, stepSeconds, mix);
+        String reason = unsustainableReason(result, previous);
+        logger.info("{} {} {}/с: {}{}", reason == null ? "✅" : "❌", phase, Math.round(rate), result.describe(),
+                reason == null ? "" : " — " + reason);
+        cooldown();
+        return new Step(phase, result, reason);
+    }
+
+    /**
+     * @return причина, по которой ступень считается за коленом, или null
+     */
+    String unsustainableReason(LoadResult result, Step previous) {
+        if (result.errorRate() > maxErrorRate) {
+            return String.format("ошибок %.2f%% > %.2f%%", result.errorRate() * 100, maxErrorRate * 100);
+        }
+        if (result.percentileMillis(99) > sloP99Millis) {
+            return String.format("p99 %.1f мс > SLO %.1f мс", result.percentileMillis(99), sloP99Millis);
+        }
+        if (result.achievedRate() < result.targetRate() * throughputTolerance) {
+            return String.format("факт %.1f/с < %.0f%% цели", result.achievedRate(), throughputTolerance * 100);
+        }
+        if (previous != null && result.targetRate() > previous.result().targetRate()
+                && result.achievedRate() < previous.result().achievedRate() * MIN_GROWTH) {
+            return String.format("пропускная способность не растёт: %.1f/с против %.1f/с",
+                    result.achievedRate(), previous.result().achievedRate());
+        }
+        return null;
+    }
+
+    private void cooldown() {
+        if (cooldownSeconds <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.SECONDS.sleep(cooldownSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
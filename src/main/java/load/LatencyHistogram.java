@@ -0,0 +1,171 @@
+package load;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек в микросекундах с лог-линейными корзинами.
+ * <p>
+ * До 256 мкс корзины точные, дальше на каждую степень двойки приходится 128 корзин — погрешность
+ * процентиля не больше 1/128 (< 0,8%) во всём диапазоне до часа. Раскладка корзин одинакова
+ * во всех процессах, поэтому сложение гистограмм ({@link #add(LatencyHistogram)}) без потерь:
+ * процентили суммы воркеров совпадают с процентилями одной гистограммы по всем замерам.
+ * <p>
+ * Запись потокобезопасна и без блокировок. {@link #minus(LatencyHistogram)} даёт интервальную
+ * гистограмму из двух накопленных снимков — так интервалы не теряют замеров, записанных во время снимка.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    /** Верхняя граница диапазона — час; большие значения попадают в последнюю корзину. */
+    public static final long MAX_MICROS = 3_600_000_000L;
+    private static final int BUCKETS = index(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_MICROS);
+        counts.incrementAndGet(index(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Значение процентиля (верхняя граница корзины, но не больше максимума).
+     * @param percentile 0..100
+     */
+    public long percentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Прибавляет другую гистограмму (слияние воркеров или интервалов).
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long value = other.counts.get(i);
+            if (value != 0) {
+                counts.addAndGet(i, value);
+            }
+        }
+        total.addAndGet(other.total.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * Разница накопленных гистограмм: {@code this} минус более ранний снимок того же накопителя.
+     * Максимум интервала оценивается по старшей непустой корзине.
+     */
+    public LatencyHistogram minus(LatencyHistogram earlier) {
+        LatencyHistogram delta = new LatencyHistogram();
+        long deltaTotal = 0;
+        int highest = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            long value = counts.get(i) - earlier.counts.get(i);
+            if (value != 0) {
+                delta.counts.set(i, value);
+                deltaTotal += value;
+                highest = i;
+            }
+        }
+        delta.total.set(deltaTotal);
+        delta.sum.set(sum.get() - earlier.sum.get());
+        delta.max.set(highest < 0 ? 0 : Math.min(upperBound(highest), max.get()));
+        return delta;
+    }
+
+    /**
+     * Компактная передача: только непустые корзины ({@code "индекс:количество,..."}).
+     */
+    public JSONObject toJson() {
+        StringBuilder buckets = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            long value = counts.get(i);
+            if (value != 0) {
+                if (!buckets.isEmpty()) {
+                    buckets.append(',');
+                }
+                buckets.append(i).append(':').append(value);
+            }
+        }
+        return new JSONObject()
+                .put("count", total.get())
+                .put("sum", sum.get())
+                .put("max", max.get())
+                .put("buckets", buckets.toString());
+    }
+
+    public static LatencyHistogram fromJson(JSONObject json) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        String buckets = json.optString("buckets", "");
+        if (!buckets.isEmpty()) {
+            for (String entry : buckets.split(",")) {
+                int colon = entry.indexOf(':');
+                histogram.counts.set(Integer.parseInt(entry.substring(0, colon)), Long.parseLong(entry.substring(colon + 1)));
+            }
+        }
+        histogram.total.set(json.getLong("count"));
+        histogram.sum.set(json.getLong("sum"));
+        histogram.max.set(json.getLong("max"));
+        return histogram;
+    }
+
+    static int index(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int shift = offset / SUB_BUCKETS + 1;
+        long mantissa = offset % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,295 @@
+package load;
+
+import client.ProductClient;
+import client.http.EndpointPool;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Координатор распределённой нагрузки: делит целевую частоту между N процессами {@link LoadWorker}
+ * и сводит их интервальные гистограммы в один отчёт без потерь ({@link LatencyHistogram}).
+ * <p>
+ * Воркеры подключаются к координатору по TCP и присылают строки JSON. По умолчанию координатор сам
+ * запускает воркеров на этой машине ({@code load.spawn=true}); с {@code load.spawn=false} он ждёт,
+ * пока воркеры подключатся с других хостов ({@code load.bind} задаёт адрес прослушивания).
+ * <p>
+ * Параметры: {@code load.workers} (2), {@code load.rate} (суммарно запросов/с, 100), {@code load.duration}
+ * (с, 30), {@code load.concurrency} (потоков на воркер, 16), {@code load.scenario} (смесь операций
+ * {@link OperationMix}, по умолчанию {@code get-by-id}), {@code load.port} (0 — любой свободный), {@code load.worker.jvm.args},
+ * {@code load.report.path} (по умолчанию {@code target/load-report.json}).
+ * Запуск: {@code mvn -Pload compile exec:exec}.
+ */
+public class LoadCoordinator implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadCoordinator.class);
+    private static final long CONNECT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("load.connect.timeout", 60));
+    private static final long INTERVAL_MILLIS = Long.getLong("load.interval.ms", 1000);
+
+    private final int workerCount;
+    private final int concurrency;
+    private final String baseUrl;
+    private final String scenario;
+    private final List<Long> ids;
+    private final ServerSocket server;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<Socket> sockets = new ArrayList<>();
+    private final List<PrintWriter> writers = new ArrayList<>();
+    private final BlockingQueue<JSONObject> messages = new LinkedBlockingQueue<>();
+
+    public LoadCoordinator(int workerCount, int concurrency, String baseUrl, String scenario, List<Long> ids) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один воркер: " + workerCount);
+        }
+        this.workerCount = workerCount;
+        this.concurrency = concurrency;
+        this.baseUrl = baseUrl;
+        this.scenario = scenario;
+        this.ids = ids;
+        try {
+            this.server = new ServerSocket(Integer.getInteger("load.port", 0), workerCount,
+                    InetAddress.getByName(System.getProperty("load.bind", "127.0.0.1")));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть порт координатора", e);
+        }
+    }
+
+    /**
+     * Координатор из системных свойств; ID продуктов для {@code get-by-id} берутся с сервера.
+     */
+    public static LoadCoordinator fromSystemProperties() {
+        String scenario = OperationMix.parse(System.getProperty("load.scenario", "get-by-id")).spec();
+        // Конструктор клиента настраивает RestAssured (адрес и порт сервиса); ID продуктов берём всегда —
+        // смесь может смениться между ступенями
+        List<Long> ids = new ArrayList<>(new ProductClient().getAllProductIds());
+        if (ids.isEmpty()) {
+            logger.warn("⚠️ На сервере нет продуктов, get-by-id будет запрашивать список");
+        }
+        // Все реплики сервиса (api.base.urls): воркеры балансируют между ними сами
+        String baseUrl = System.getProperty("load.base.url", EndpointPool.shared().urls());
+        return new LoadCoordinator(Integer.getInteger("load.workers", 2), Integer.getInteger("load.concurrency", 16),
+                baseUrl, scenario, ids);
+    }
+
+    public static void main(String[] args) {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "100"));
+        int duration = Integer.getInteger("load.duration", 30);
+        Path reportPath = Path.of(System.getProperty("load.report.path", "target/load-report.json"));
+        try (LoadCoordinator coordinator = fromSystemProperties()) {
+            coordinator.start();
+            LoadResult result = coordinator.run(rate, duration);
+            logger.info("📊 Итог: {}", result.describe());
+            writeReport(reportPath, result.toJson());
+        }
+    }
+
+    /**
+     * Запускает (или ждёт) воркеров и устанавливает с ними соединения.
+     */
+    public void start() {
+        boolean spawn = Boolean.parseBoolean(System.getProperty("load.spawn", "true"));
+        String host = server.getInetAddress().getHostAddress();
+        int port = server.getLocalPort();
+        if (spawn) {
+            for (int i = 0; i < workerCount; i++) {
+                processes.add(spawnWorker(i, host, port));
+            }
+            logger.info("🚀 Запущено {} воркеров, координатор {}:{}", workerCount, host, port);
+        } else {
+            logger.info("⏳ Ожидание {} воркеров: java -cp <classpath> load.LoadWorker {} {}", workerCount, host, port);
+        }
+
+        try {
+            server.setSoTimeout((int) CONNECT_TIMEOUT_MILLIS);
+            for (int i = 0; i < workerCount; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                writers.add(new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true));
+                startReader(i, socket);
+                logger.info("🔌 Воркер {} подключился: {}", i, socket.getRemoteSocketAddress());
+            }
+        } catch (SocketTimeoutException e) {
+            throw new IllegalStateException("Подключилось " + sockets.size() + " из " + workerCount
+                    + " воркеров за " + CONNECT_TIMEOUT_MILLIS + " мс", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка ожидания воркеров", e);
+        }
+    }
+
+    /**
+     * Одна ступень нагрузки: частота делится поровну между воркерами, результат сводится по интервалам.
+     */
+    public LoadResult run(double totalRate, int durationSeconds) {
+        return run(totalRate, durationSeconds, scenario);
+    }
+
+    /**
+     * Ступень с другой смесью операций теми же воркерами.
+     */
+    public LoadResult run(double totalRate, int durationSeconds, String mix) {
+        if (writers.size() != workerCount) {
+            throw new IllegalStateException("Координатор не запущен: вызовите start()");
+        }
+        double workerRate = totalRate / workerCount;
+        for (int i = 0; i < workerCount; i++) {
+            writers.get(i).println(new LoadPlan(i, baseUrl, workerRate, durationSeconds, concurrency, INTERVAL_MILLIS,
+                    mix, ids).toJson());
+        }
+        logger.info("🏋️ Нагрузка {} запросов/с на {} воркеров ({} на воркер), {} с, смесь {}",
+                totalRate, workerCount, workerRate, durationSeconds, mix);
+
+        LatencyHistogram total = new LatencyHistogram();
+        long errors = 0;
+        Map<Integer, LatencyHistogram> intervalHistograms = new TreeMap<>();
+        Map<Integer, long[]> intervalCounters = new TreeMap<>();
+        int finished = 0;
+        long elapsedMillis = TimeUnit.SECONDS.toMillis(durationSeconds);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds) + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+
+        while (finished < workerCount) {
+            JSONObject message;
+            try {
+                message = messages.poll(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Ожидание воркеров прервано", e);
+            }
+            if (message == null) {
+                throw new IllegalStateException("Воркеры не завершили нагрузку вовремя: завершили " + finished + " из " + workerCount);
+            }
+            switch (message.getString("type")) {
+                case "interval" -> {
+                    LatencyHistogram histogram = LatencyHistogram.fromJson(message.getJSONObject("histogram"));
+                    long intervalErrors = message.getLong("errors");
+                    int sequence = message.getInt("sequence");
+                    total.add(histogram);
+                    errors += intervalErrors;
+                    intervalHistograms.computeIfAbsent(sequence, key -> new LatencyHistogram()).add(histogram);
+                    long[] counters = intervalCounters.computeIfAbsent(sequence, key -> new long[2]);
+                    counters[0] += intervalErrors;
+                    if (++counters[1] == workerCount) {
+                        LatencyHistogram merged = intervalHistograms.get(sequence);
+                        logger.info("⏱️ [{}] {} запросов, ошибок {}, p50 {} мс, p99 {} мс", sequence, merged.count(),
+                                counters[0], merged.percentile(50) / 1000.0, merged.percentile(99) / 1000.0);
+                    }
+                }
+                case "done" -> {
+                    finished++;
+                    elapsedMillis = Math.max(elapsedMillis, message.optLong("elapsedMillis"));
+                }
+                case "error", "eof" -> throw new IllegalStateException("Воркер " + message.optInt("worker")
+                        + " завершился с ошибкой: " + message.optString("message", "соединение закрыто"));
+                default -> logger.warn("⚠️ Неизвестное сообщение воркера: {}", message);
+            }
+        }
+
+        List<LoadResult.Interval> intervals = new ArrayList<>();
+        intervalHistograms.forEach((sequence, histogram) ->
+                intervals.add(new LoadResult.Interval(sequence, histogram, intervalCounters.get(sequence)[0])));
+        return new LoadResult(totalRate, durationSeconds, elapsedMillis / 1000.0, workerCount, total, errors, intervals);
+    }
+
+    public int workerCount() {
+        return workerCount;
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Ошибка закрытия сокета воркера: {}", e.getMessage());
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.debug("Ошибка закрытия порта координатора: {}", e.getMessage());
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    static void writeReport(Path path, JSONObject report) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, report.toString(2), StandardCharsets.UTF_8);
+            logger.info("📄 Отчёт нагрузки: {}", path.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать отчёт " + path, e);
+        }
+    }
+
+    private void startReader(int worker, Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Thread reader = new Thread(() -> {
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    messages.add(new JSONObject(line));
+                }
+            } catch (IOException e) {
+                // Сокет закрыт координатором в close() или воркер упал — ниже это станет сообщением eof
+            }
+            messages.add(new JSONObject().put("type", "eof").put("worker", worker));
+        }, "load-reader-" + worker);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private static Process spawnWorker(int index, String host, int port) {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        String jvmArgs = System.getProperty("load.worker.jvm.args", "").trim();
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(List.of(jvmArgs.split("\\s+")));
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), LoadWorker.class.getName(),
+                host, String.valueOf(port)));
+        Path log = Path.of(System.getProperty("load.worker.log.dir", "target"), "load-worker-" + index + ".log");
+        try {
+            Files.createDirectories(log.toAbsolutePath().getParent());
+            return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить воркер " + index, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package load;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Задание воркеру: его доля нагрузки и сценарий. Передаётся координатором одной строкой JSON.
+ *
+ * @param worker номер воркера
+ * @param baseUrl адреса реплик сервиса со схемой и портом через запятую
+ * @param rate запросов в секунду для этого воркера
+ * @param durationSeconds длительность нагрузки
+ * @param concurrency число потоков-отправителей
+ * @param intervalMillis период отчёта гистограммой
+ * @param scenario смесь операций ({@link OperationMix}), например {@code get-by-id:8,list:1,page:1}
+ * @param ids ID продуктов для {@code get-by-id}
+ */
+public record LoadPlan(int worker, String baseUrl, double rate, int durationSeconds, int concurrency,
+                       long intervalMillis, String scenario, List<Long> ids) {
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("worker", worker)
+                .put("baseUrl", baseUrl)
+                .put("rate", rate)
+                .put("durationSeconds", durationSeconds)
+                .put("concurrency", concurrency)
+                .put("intervalMillis", intervalMillis)
+                .put("scenario", scenario)
+                .put("ids", new JSONArray(ids));
+    }
+
+    public static LoadPlan fromJson(JSONObject json) {
+        List<Long> ids = new ArrayList<>();
+        JSONArray array = json.optJSONArray("ids");
+        if (array != null) {
+            for (int i = 0; i < array.length(); i++) {
+                ids.add(array.getLong(i));
+            }
+        }
+        return new LoadPlan(json.getInt("worker"), json.getString("baseUrl"), json.getDouble("rate"),
+                json.getInt("durationSeconds"), json.getInt("concurrency"), json.getLong("intervalMillis"),
+                json.getString("scenario"), ids);
+    }
+}
@@ -0,0 +1,75 @@
+package load;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * Итог одной нагрузки по всем воркерам: общая гистограмма (сумма интервалов без потерь) и интервалы.
+ * Фактическая частота считается по времени до последнего ответа ({@code elapsedSeconds}), а не по плановой
+ * длительности: если сервис не успевает, хвост очереди растягивает прогон и частота падает ниже целевой.
+ */
+public record LoadResult(double targetRate, int durationSeconds, double elapsedSeconds, int workers, LatencyHistogram histogram,
+                         long errors, List<Interval> intervals) {
+
+    /**
+     * Интервал, сведённый по всем воркерам.
+     */
+    public record Interval(int sequence, LatencyHistogram histogram, long errors) {
+    }
+
+    public long requests() {
+        return histogram.count();
+    }
+
+    public double achievedRate() {
+        return elapsedSeconds > 0 ? requests() / elapsedSeconds : 0;
+    }
+
+    public double errorRate() {
+        return requests() > 0 ? (double) errors / requests() : 0;
+    }
+
+    public double percentileMillis(double percentile) {
+        return histogram.percentile(percentile) / 1000.0;
+    }
+
+    public String describe() {
+        return String.format("цель %.0f/с, факт %.1f/с, запросов %d, ошибок %.2f%%, p50 %.1f мс, p90 %.1f мс, p99 %.1f мс, p99.9 %.1f мс, max %.1f мс",
+                targetRate, achievedRate(), requests(), errorRate() * 100, percentileMillis(50), percentileMillis(90),
+                percentileMillis(99), percentileMillis(99.9), histogram.max() / 1000.0);
+    }
+
+    public JSONObject toJson() {
+        JSONArray intervalArray = new JSONArray();
+        for (Interval interval : intervals) {
+            intervalArray.put(new JSONObject()
+                    .put("sequence", interval.sequence())
+                    .put("requests", interval.histogram().count())
+                    .put("errors", interval.errors())
+                    .put("p50Ms", interval.histogram().percentile(50) / 1000.0)
+                    .put("p99Ms", interval.histogram().percentile(99) / 1000.0)
+                    .put("maxMs", interval.histogram().max() / 1000.0));
+        }
+        return new JSONObject()
+                .put("targetRate", targetRate)
+                .put("achievedRate", achievedRate())
+                .put("durationSeconds", durationSeconds)
+                .put("elapsedSeconds", elapsedSeconds)
+                .put("workers", workers)
+                .put("requests", requests())
+                .put("errors", errors)
+                .put("errorRate", errorRate())
+                .put("latencyMs", new JSONObject()
+                        .put("p50", percentileMillis(50))
+                        .put("p90", percentileMillis(90))
+                        .put("p99", percentileMillis(99))
+                        .put("p99.9", percentileMillis(99.9))
+                        .put("max", histogram.max() / 1000.0)
+                        .put("mean", histogram.mean() / 1000.0))
+                .put("intervals", intervalArray)
+                // Сырая гистограмма: отчёты разных прогонов можно сложить без потерь
+                .put("histogram", histogram.toJson());
+    }
+}
@@ -0,0 +1,188 @@
+package load;
+
+import client.http.EndpointPool;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Процесс-генератор нагрузки. Подключается к {@link LoadCoordinator}, получает {@link LoadPlan}
+ * (одно или несколько подряд) и отправляет запросы с заданной частотой, раз в интервал передавая гистограмму и счётчики.
+ * <p>
+ * Модель открытая: у каждого запроса есть плановое время старта (равномерное расписание), задержка
+ * считается от него, а не от фактической отправки. Если потоки не успевают, очередь попадает
+ * в задержку и процентили не занижаются (coordinated omission).
+ * Запросы идут через JDK HttpClient в обход RestAssured — как в {@code StreamingHttp}: на нагрузке
+ * важна стоимость клиента, а не удобство проверок.
+ * <p>
+ * Запуск: {@code java load.LoadWorker <хост координатора> <порт>}.
+ */
+public final class LoadWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadWorker.class);
+    // Общий на процесс: соединения переживают смену заданий
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            // Сервис — обычный HTTP/1.1; без попытки апгрейда до h2c на каждом новом соединении
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final LoadPlan plan;
+    private final OperationMix mix;
+    private final EndpointPool pool;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong nextRequest = new AtomicLong();
+
+    LoadWorker(LoadPlan plan) {
+        this.plan = plan;
+        this.mix = OperationMix.parse(plan.scenario());
+        this.pool = EndpointPool.parse(plan.baseUrl());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Использование: LoadWorker <хост координатора> <порт>");
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]));
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            // Координатор может выдать несколько заданий подряд (ступени поиска ёмкости); конец — закрытие сокета
+            String line;
+            while ((line = in.readLine()) != null) {
+                LoadPlan plan = LoadPlan.fromJson(new JSONObject(line));
+                logger.info("🏋️ Воркер {}: {} запросов/с, {} с, {} потоков, сценарий {}",
+                        plan.worker(), plan.rate(), plan.durationSeconds(), plan.concurrency(), plan.scenario());
+                try {
+                    new LoadWorker(plan).run(out);
+                } catch (RuntimeException e) {
+                    out.println(new JSONObject().put("type", "error").put("worker", plan.worker()).put("message", String.valueOf(e)));
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Выполняет нагрузку, передавая интервальные гистограммы в {@code out}.
+     */
+    void run(PrintWriter out) {
+        warmUp();
+        long intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / plan.rate()));
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long end = start + TimeUnit.SECONDS.toNanos(plan.durationSeconds());
+
+        ExecutorService senders = Executors.newFixedThreadPool(plan.concurrency());
+        for (int i = 0; i < plan.concurrency(); i++) {
+            senders.execute(() -> sendLoop(start, end, intervalNanos));
+        }
+        senders.shutdown();
+
+        LatencyHistogram reported = new LatencyHistogram();
+        long reportedErrors = 0;
+        int sequence = 0;
+        boolean finished = false;
+        while (!finished) {
+            try {
+                finished = senders.awaitTermination(plan.intervalMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                senders.shutdownNow();
+                finished = true;
+            }
+            // Снимок накопленной гистограммы: разница со старым не теряет замеры, записанные во время снимка
+            LatencyHistogram snapshot = histogram.copy();
+            long errorCount = errors.sum();
+            out.println(new JSONObject()
+                    .put("type", "interval")
+                    .put("worker", plan.worker())
+                    .put("sequence", sequence++)
+                    .put("errors", errorCount - reportedErrors)
+                    .put("histogram", snapshot.minus(reported).toJson()));
+            reported = snapshot;
+            reportedErrors = errorCount;
+        }
+        // Фактическое время до последнего ответа: при перегрузке оно больше плановой длительности
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        out.println(new JSONObject().put("type", "done").put("worker", plan.worker()).put("elapsedMillis", elapsedMillis));
+        logger.info("🏁 Воркер {}: {} запросов, ошибок {}, p99 {} мкс",
+                plan.worker(), histogram.count(), errors.sum(), histogram.percentile(99));
+        if (pool.size() > 1) {
+            logger.info("⚖️ {}", pool.report());
+        }
+    }
+
+    /**
+     * Один запрос вне замера: инициализация HttpClient и первое соединение иначе попали бы
+     * в задержку первых запросов расписания.
+     */
+    private void warmUp() {
+        try {
+            HTTP.send(request(pool.endpoints().get(0), 0), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            logger.warn("⚠️ Воркер {}: прогревочный запрос не прошёл: {}", plan.worker(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendLoop(long start, long end, long intervalNanos) {
+        while (true) {
+            long number = nextRequest.getAndIncrement();
+            long intended = start + number * intervalNanos;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean failed;
+            EndpointPool.Endpoint replica = pool.acquire();
+            try {
+                // Ошибка — любой ответ 4xx/5xx или сбой соединения; задержка пишется в любом случае
+                HttpResponse<Void> response = HTTP.send(request(replica, number), HttpResponse.BodyHandlers.discarding());
+                pool.release(replica, response.statusCode(), null);
+                failed = response.statusCode() >= 400;
+            } catch (IOException e) {
+                pool.release(replica, -1, e);
+                failed = true;
+            } catch (InterruptedException e) {
+                pool.release(replica, -1, null);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            histogram.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+
+    private HttpRequest request(EndpointPool.Endpoint replica, long number) {
+        return HttpRequest.newBuilder(URI.create(replica.url() + mix.path(number, plan.ids())))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+}
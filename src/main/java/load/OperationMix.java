@@ -0,0 +1,132 @@
+package load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Смесь операций нагрузки с весами: {@code "get-by-id:8,list:1,page:1"} (вес по умолчанию 1).
+ * <p>
+ * Операции раскладываются по кругу плавным взвешенным round-robin, поэтому запрос с номером n
+ * всегда получает одну и ту же операцию, а доли выдерживаются на любом отрезке расписания.
+ */
+public final class OperationMix {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 5;
+
+    /**
+     * Операции чтения каталога — те же эндпоинты, что у {@code ProductClient}.
+     */
+    public enum Operation {
+        GET_BY_ID("get-by-id"),
+        LIST("list"),
+        PAGE("page");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        static Operation of(String label) {
+            for (Operation operation : values()) {
+                if (operation.label.equals(label)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестная операция нагрузки: " + label);
+        }
+    }
+
+    private final String spec;
+    private final Operation[] schedule;
+
+    private OperationMix(String spec, Operation[] schedule) {
+        this.spec = spec;
+        this.schedule = schedule;
+    }
+
+    public static OperationMix parse(String spec) {
+        List<Operation> operations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        StringBuilder normalized = new StringBuilder();
+        for (String part : spec.split(",")) {
+            String trimmed = part.trim().toLowerCase(Locale.ROOT);
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            Operation operation = Operation.of(colon < 0 ? trimmed : trimmed.substring(0, colon));
+            int weight = colon < 0 ? 1 : Integer.parseInt(trimmed.substring(colon + 1));
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Вес операции должен быть положительным: " + part);
+            }
+            operations.add(operation);
+            weights.add(weight);
+            if (!normalized.isEmpty()) {
+                normalized.append(',');
+            }
+            normalized.append(operation.label()).append(':').append(weight);
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Пустая смесь операций: " + spec);
+        }
+
+        // Плавный взвешенный round-robin: операции с большим весом распределены равномерно, а не пачкой
+        int total = weights.stream().mapToInt(Integer::intValue).sum();
+        int[] current = new int[operations.size()];
+        Operation[] schedule = new Operation[total];
+        for (int slot = 0; slot < total; slot++) {
+            int best = 0;
+            for (int i = 0; i < current.length; i++) {
+                current[i] += weights.get(i);
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            schedule[slot] = operations.get(best);
+        }
+        return new OperationMix(normalized.toString(), schedule);
+    }
+
+    public Operation pick(long number) {
+        return schedule[(int) Math.floorMod(number, (long) schedule.length)];
+    }
+
+    public boolean uses(Operation operation) {
+        for (Operation scheduled : schedule) {
+            if (scheduled == operation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Путь запроса с номером {@code number}. Без ID продуктов {@code get-by-id} заменяется на {@code list}.
+     */
+    public String path(long number, List<Long> ids) {
+        return switch (pick(number)) {
+            case GET_BY_ID -> ids.isEmpty()
+                    ? "/api/products"
+                    : "/api/products/" + ids.get((int) Math.floorMod(number, (long) ids.size()));
+            case LIST -> "/api/products";
+            case PAGE -> "/api/products?page=" + Math.floorMod(number, (long) PAGES) + "&size=" + PAGE_SIZE;
+        };
+    }
+
+    public String spec() {
+        return spec;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,129 @@
+package load;
+
+/**
+ * Статистические проверки для сравнения прогонов: t-распределение Стьюдента и z-тест долей.
+ * Функции распределений — через регуляризованную неполную бета-функцию (непрерывная дробь, метод Лентца).
+ */
+final class Statistics {
+
+    private static final int MAX_ITERATIONS = 300;
+    private static final double EPSILON = 1e-14;
+    private static final double TINY = 1e-300;
+
+    private Statistics() {
+    }
+
+    /**
+     * Двусторонний p-value для статистики t с {@code degreesOfFreedom} степенями свободы.
+     */
+    static double studentTwoSidedP(double t, double degreesOfFreedom) {
+        if (Double.isNaN(t) || degreesOfFreedom <= 0) {
+            return 1;
+        }
+        if (Double.isInfinite(t)) {
+            return 0;
+        }
+        double x = degreesOfFreedom / (degreesOfFreedom + t * t);
+        return regularizedIncompleteBeta(x, degreesOfFreedom / 2, 0.5);
+    }
+
+    /**
+     * Квантиль t-распределения для двустороннего интервала уровня {@code 1 - alpha} (бисекция по p-value).
+     */
+    static double studentCriticalValue(double alpha, double degreesOfFreedom) {
+        double low = 0;
+        double high = 1000;
+        for (int i = 0; i < 200; i++) {
+            double middle = (low + high) / 2;
+            if (studentTwoSidedP(middle, degreesOfFreedom) > alpha) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Двусторонний p-value z-теста разницы двух долей (например, доли ошибок).
+     */
+    static double twoProportionP(long failuresA, long totalA, long failuresB, long totalB) {
+        if (totalA == 0 || totalB == 0) {
+            return 1;
+        }
+        double pooled = (double) (failuresA + failuresB) / (totalA + totalB);
+        double standardError = Math.sqrt(pooled * (1 - pooled) * (1.0 / totalA + 1.0 / totalB));
+        if (standardError == 0) {
+            return 1;
+        }
+        double z = ((double) failuresB / totalB - (double) failuresA / totalA) / standardError;
+        return 2 * (1 - normalCdf(Math.abs(z)));
+    }
+
+    static double normalCdf(double z) {
+        // erf по Абрамовицу–Стигану, погрешность порядка 1e-7 — для p-value достаточно
+        double t = 1 / (1 + 0.3275911 * Math.abs(z) / Math.sqrt(2));
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                * Math.exp(-z * z / 2);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    static double regularizedIncompleteBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+        // Непрерывная дробь сходится быстро при x < (a + 1) / (a + b + 2), иначе — через симметрию
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < TINY ? TINY : d);
+        double result = d;
+        for (int m = 1; m <= MAX_ITERATIONS; m++) {
+            int m2 = 2 * m;
+            double numerator = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < TINY ? TINY : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < TINY ? TINY : c;
+            result *= d * c;
+
+            numerator = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < TINY ? TINY : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < TINY ? TINY : c;
+            double delta = d * c;
+            result *= delta;
+            if (Math.abs(delta - 1) < EPSILON) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * ln Γ(x), приближение Ланцоша.
+     */
+    private static double logGamma(double x) {
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
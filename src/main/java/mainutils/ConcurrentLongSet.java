@@ -0,0 +1,196 @@
+package mainutils;
+
+import java.util.Arrays;
+
+/**
+ * Потокобезопасное множество примитивных long без боксинга.
+ * <p>
+ * Разбито на сегменты с собственной блокировкой (lock striping), каждый сегмент — хеш-таблица
+ * с открытой адресацией и линейным пробированием. Удаление — со сдвигом хвоста кластера,
+ * поэтому "надгробия" не накапливаются. Значение 0 хранится отдельным флагом.
+ */
+public class ConcurrentLongSet {
+
+    private static final int STRIPES = 16;
+    private static final long EMPTY = 0L;
+
+    private final Segment[] segments = new Segment[STRIPES];
+
+    public ConcurrentLongSet() {
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public boolean add(long value) {
+        return segmentFor(value).add(value);
+    }
+
+    public boolean remove(long value) {
+        return segmentFor(value).remove(value);
+    }
+
+    public boolean contains(long value) {
+        return segmentFor(value).contains(value);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Снимок содержимого. Не атомарен относительно параллельных изменений разных сегментов.
+     */
+    public long[] toArray() {
+        long[][] parts = new long[STRIPES][];
+        int total = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            parts[i] = segments[i].toArray();
+            total += parts[i].length;
+        }
+        long[] result = new long[total];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    private Segment segmentFor(long value) {
+        return segments[(int) (mix(value) >>> 60) & (STRIPES - 1)];
+    }
+
+    static long mix(long value) {
+        long h = value * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Segment {
+
+        private long[] table = new long[16];
+        private int size;
+        private boolean hasZero;
+
+        synchronized boolean add(long value) {
+            if (value == EMPTY) {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            if ((size + 1) * 2 > table.length) {
+                resize();
+            }
+            int mask = table.length - 1;
+            int i = (int) mix(value) & mask;
+            while (table[i] != EMPTY) {
+                if (table[i] == value) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = value;
+            size++;
+            return true;
+        }
+
+        synchronized boolean contains(long value) {
+            if (value == EMPTY) {
+                return hasZero;
+            }
+            int mask = table.length - 1;
+            int i = (int) mix(value) & mask;
+            while (table[i] != EMPTY) {
+                if (table[i] == value) {
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        synchronized boolean remove(long value) {
+            if (value == EMPTY) {
+                boolean removed = hasZero;
+                hasZero = false;
+                return removed;
+            }
+            int mask = table.length - 1;
+            int i = (int) mix(value) & mask;
+            while (table[i] != value) {
+                if (table[i] == EMPTY) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            // Сдвигаем последующие элементы кластера на освободившееся место
+            int gap = i;
+            int j = (i + 1) & mask;
+            while (table[j] != EMPTY) {
+                int home = (int) mix(table[j]) & mask;
+                boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+                if (movable) {
+                    table[gap] = table[j];
+                    gap = j;
+                }
+                j = (j + 1) & mask;
+            }
+            table[gap] = EMPTY;
+            size--;
+            return true;
+        }
+
+        synchronized int size() {
+            return size + (hasZero ? 1 : 0);
+        }
+
+        synchronized void clear() {
+            Arrays.fill(table, EMPTY);
+            size = 0;
+            hasZero = false;
+        }
+
+        synchronized long[] toArray() {
+            long[] result = new long[size + (hasZero ? 1 : 0)];
+            int n = 0;
+            for (long value : table) {
+                if (value != EMPTY) {
+                    result[n++] = value;
+                }
+            }
+            if (hasZero) {
+                result[n] = EMPTY;
+            }
+            return result;
+        }
+
+        private void resize() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long value : old) {
+                if (value != EMPTY) {
+                    int i = (int) mix(value) & mask;
+                    while (table[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    table[i] = value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package mainutils;
+
+/**
+ * Классы ID продуктов, на которые завязаны бизнес-правила сервиса.
+ */
+public enum IdRule {
+    /** Чётные ID недоступны. */
+    EVEN,
+    /** Простые ID ограничены. */
+    PRIME,
+    /** ID, кратные 3, нельзя обновлять. */
+    DIVISIBLE_BY_3,
+    /** Палиндромные ID нельзя удалять (BUG-QA3-06, BUG-QA3-07). */
+    PALINDROME,
+    /** ID меньше 1000 ограничены по времени (BUG-QA3-03). */
+    BELOW_1000;
+
+    /**
+     * Прямая проверка правила для одного ID — для ID вне диапазона {@link IdRuleOracle} и как эталон для него.
+     */
+    public boolean matches(long id) {
+        return switch (this) {
+            case EVEN -> id % 2 == 0;
+            case PRIME -> isPrime(id);
+            case DIVISIBLE_BY_3 -> id % 3 == 0;
+            case PALINDROME -> IdRuleOracle.isPalindrome(id);
+            case BELOW_1000 -> id < 1000;
+        };
+    }
+
+    private static boolean isPrime(long id) {
+        if (id < 2) {
+            return false;
+        }
+        for (long divisor = 2; divisor * divisor <= id; divisor++) {
+            if (id % divisor == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package mainutils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Оракул правил по ID: заранее вычисляет классы {@link IdRule} для диапазона [0, maxId] в виде битовых множеств
+ * (решето Эратосфена для простых, арифметическая проверка палиндромов — без строк).
+ * <p>
+ * Запросы вида "следующий ID ≥ x, нечётный, не простой и не палиндром" обслуживаются по кешированной
+ * комбинированной маске через {@link BitSet#nextSetBit(int)}: маска строится один раз на сочетание правил.
+ */
+public final class IdRuleOracle {
+
+    private static final IdRule[] RULES = IdRule.values();
+
+    private final int maxId;
+    private final BitSet[] classes = new BitSet[RULES.length];
+    private final ConcurrentHashMap<Integer, BitSet> combined = new ConcurrentHashMap<>();
+
+    /** Наибольшая допустимая граница: размер {@link BitSet} — не больше Integer.MAX_VALUE бит. */
+    public static final int MAX_SUPPORTED_ID = Integer.MAX_VALUE - 1;
+
+    /**
+     * @param maxId верхняя граница диапазона (включительно), 0 .. {@link #MAX_SUPPORTED_ID}
+     */
+    public IdRuleOracle(int maxId) {
+        if (maxId < 0 || maxId > MAX_SUPPORTED_ID) {
+            throw new IllegalArgumentException("maxId вне диапазона 0.." + MAX_SUPPORTED_ID + ": " + maxId);
+        }
+        this.maxId = maxId;
+        int size = maxId + 1;
+
+        BitSet even = new BitSet(size);
+        BitSet divisibleBy3 = new BitSet(size);
+        BitSet palindrome = new BitSet(size);
+        for (int id = 0; id < size; id++) {
+            if ((id & 1) == 0) {
+                even.set(id);
+            }
+            if (id % 3 == 0) {
+                divisibleBy3.set(id);
+            }
+            if (isPalindrome(id)) {
+                palindrome.set(id);
+            }
+        }
+        BitSet below1000 = new BitSet(size);
+        below1000.set(0, Math.min(size, 1000));
+
+        classes[IdRule.EVEN.ordinal()] = even;
+        classes[IdRule.PRIME.ordinal()] = sieve(size);
+        classes[IdRule.DIVISIBLE_BY_3.ordinal()] = divisibleBy3;
+        classes[IdRule.PALINDROME.ordinal()] = palindrome;
+        classes[IdRule.BELOW_1000.ordinal()] = below1000;
+    }
+
+    public int maxId() {
+        return maxId;
+    }
+
+    public boolean has(long id, IdRule rule) {
+        checkRange(id);
+        return classes[rule.ordinal()].get((int) id);
+    }
+
+    /**
+     * Все правила, под которые попадает ID.
+     */
+    public Set<IdRule> rulesOf(long id) {
+        checkRange(id);
+        EnumSet<IdRule> result = EnumSet.noneOf(IdRule.class);
+        for (IdRule rule : RULES) {
+            if (classes[rule.ordinal()].get((int) id)) {
+                result.add(rule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ближайший ID ≥ from, попадающий во все required и ни в одно из forbidden правил.
+     * @return найденный ID или -1, если до конца диапазона такого нет
+     */
+    public long nextId(long from, Set<IdRule> required, Set<IdRule> forbidden) {
+        if (from > maxId) {
+            return -1;
+        }
+        int key = mask(required) | (mask(forbidden) << RULES.length);
+        BitSet candidates = combined.computeIfAbsent(key, k -> combine(required, forbidden));
+        return candidates.nextSetBit((int) Math.max(0, from));
+    }
+
+    /**
+     * Ближайший ID ≥ from, не попадающий ни в одно из перечисленных правил.
+     */
+    public long nextIdWithout(long from, IdRule... forbidden) {
+        EnumSet<IdRule> set = EnumSet.noneOf(IdRule.class);
+        set.addAll(Arrays.asList(forbidden));
+        return nextId(from, EnumSet.noneOf(IdRule.class), set);
+    }
+
+    /**
+     * Арифметическая проверка палиндрома без создания строк. Отрицательные числа палиндромами не считаются.
+     */
+    public static boolean isPalindrome(long id) {
+        if (id < 0) {
+            return false;
+        }
+        long original = id;
+        long reversed = 0;
+        while (id > 0) {
+            reversed = reversed * 10 + id % 10;
+            id /= 10;
+        }
+        return reversed == original;
+    }
+
+    private BitSet combine(Set<IdRule> required, Set<IdRule> forbidden) {
+        BitSet result = new BitSet(maxId + 1);
+        result.set(0, maxId + 1);
+        for (IdRule rule : required) {
+            result.and(classes[rule.ordinal()]);
+        }
+        for (IdRule rule : forbidden) {
+            result.andNot(classes[rule.ordinal()]);
+        }
+        return result;
+    }
+
+    private static BitSet sieve(int size) {
+        BitSet prime = new BitSet(size);
+        if (size > 2) {
+            prime.set(2, size);
+        }
+        for (int p = 2; p > 0 && (long) p * p < size; p = prime.nextSetBit(p + 1)) {
+            // long: у верхней границы multiple + p переполнил бы int
+            for (long multiple = (long) p * p; multiple < size; multiple += p) {
+                prime.clear((int) multiple);
+            }
+        }
+        return prime;
+    }
+
+    private static int mask(Set<IdRule> rules) {
+        int mask = 0;
+        for (IdRule rule : rules) {
+            mask |= 1 << rule.ordinal();
+        }
+        return mask;
+    }
+
+    private void checkRange(long id) {
+        if (id < 0 || id > maxId) {
+            throw new IllegalArgumentException("ID " + id + " вне диапазона оракула 0.." + maxId);
+        }
+    }
+}
@@ -1,49 +1,169 @@
 package mainutils;
 
+import io.restassured.specification.RequestSpecification;
+
+import java.net.http.HttpRequest;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
- * Мок-класс для управления временем в тестах.
- * Позволяет задавать и получать искусственное "текущее" время.
+ * Управляемые часы для тестов на основе {@link Clock}.
+ * <p>
+ * Подмена времени действует в рамках потока, поэтому тесты с разным мок-временем можно запускать параллельно.
+ * Рекомендуемый способ — try-with-resources:
+ * <pre>{@code
+ * try (MockTimeProvider.Scope ignored = MockTimeProvider.override(LocalDateTime.of(2023, 1, 1, 23, 0))) {
+ *     productClient.updateProduct(id, product);
+ * }
+ * }</pre>
+ * Пока подмена активна, клиенты передают время серверу заголовком {@code X-Mock-Time}
+ * (имя — {@code mock.time.header}, пустое значение отключает заголовок). Если сервер умеет
+ * устанавливать время через {@code /api/time}, это включается {@code -Dmock.time.server.hook=true}
+ * (см. {@link ServerTimeHook}); такая подмена общая для всех реплик сервера.
+ * <p>
+ * Старые {@link #setFixedTime(LocalDateTime)} и {@link #clear()} сохранены и тоже работают в рамках потока;
+ * серверный хук они вызывают так же, как {@link #override(LocalDateTime)} и закрытие области.
  */
-public class MockTimeProvider {
+public final class MockTimeProvider {
+
+    private static final String HEADER_NAME = System.getProperty("mock.time.header", "X-Mock-Time");
+    private static final boolean SERVER_HOOK = Boolean.getBoolean("mock.time.server.hook");
+
+    private static volatile Clock defaultClock = Clock.systemDefaultZone();
+    private static final ThreadLocal<Clock> threadClock = new ThreadLocal<>();
+
+    private MockTimeProvider() {
+    }
+
+    /**
+     * Область действия подмены времени; закрытие возвращает предыдущие часы потока.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Clock previous;
+        private final boolean serverHook;
+        private boolean closed;
+
+        private Scope(Clock previous, boolean serverHook) {
+            this.previous = previous;
+            this.serverHook = serverHook;
+        }
 
-//    private LocalDateTime currentTime;
-    private static LocalDateTime fixedTime = null;
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (previous != null) {
+                threadClock.set(previous);
+            } else {
+                threadClock.remove();
+            }
+            if (serverHook) {
+                if (previous != null) {
+                    ServerTimeHook.set(LocalDateTime.now(previous));
+                } else {
+                    ServerTimeHook.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * Фиксирует время потока до закрытия возвращённой области.
+     */
+    public static Scope override(LocalDateTime dateTime) {
+        ZoneId zone = defaultClock.getZone();
+        return override(Clock.fixed(dateTime.atZone(zone).toInstant(), zone));
+    }
+
+    /**
+     * Подменяет часы потока (например, {@link Clock#offset(Clock, java.time.Duration)} для "идущего" времени).
+     */
+    public static Scope override(Clock clock) {
+        Clock previous = threadClock.get();
+        threadClock.set(clock);
+        if (SERVER_HOOK) {
+            ServerTimeHook.set(LocalDateTime.now(clock));
+        }
+        // Сбрасываем и после частичного успеха: реплики, принявшие время, должны вернуться к реальному
+        return new Scope(previous, SERVER_HOOK);
+    }
 
+    /**
+     * Фиксирует время текущего потока без области действия. Снимается через {@link #clear()}.
+     */
     public static void setFixedTime(LocalDateTime dateTime) {
-        fixedTime = dateTime;
+        ZoneId zone = defaultClock.getZone();
+        threadClock.set(Clock.fixed(dateTime.atZone(zone).toInstant(), zone));
+        if (SERVER_HOOK) {
+            ServerTimeHook.set(dateTime);
+        }
     }
 
     /**
-     * Очищает фиксацию времени (возвращает реальное время).
+     * Очищает фиксацию времени потока (возвращает часы по умолчанию).
      */
     public static void clear() {
-        fixedTime = null;
+        boolean overridden = isOverridden();
+        threadClock.remove();
+        if (SERVER_HOOK && overridden) {
+            ServerTimeHook.reset();
+        }
+    }
+
+    /**
+     * Часы по умолчанию для всех потоков без подмены (по умолчанию — системные).
+     */
+    public static void setDefaultClock(Clock clock) {
+        defaultClock = clock;
+    }
+
+    /**
+     * Текущие часы потока: подменённые или по умолчанию.
+     */
+    public static Clock clock() {
+        Clock clock = threadClock.get();
+        return clock != null ? clock : defaultClock;
+    }
+
+    public static boolean isOverridden() {
+        return threadClock.get() != null;
     }
 
     /**
      * Возвращает либо заданное время, либо текущее.
      */
     public static LocalDateTime now() {
-        return fixedTime != null ? fixedTime : LocalDateTime.now();
+        return LocalDateTime.now(clock());
     }
+
     /**
-     * Устанавливает текущее время в ISO-формате, например: "2025-01-01T00:00:00"
+     * Имя заголовка с мок-временем; пустая строка — передача отключена.
      */
-//    public void setCurrentTime(String isoDateTime) {
-//        this.currentTime = LocalDateTime.parse(isoDateTime, DateTimeFormatter.ISO_DATE_TIME);
-//        MockTimeProvider mockTime = new MockTimeProvider();
-//        mockTime.setCurrentTime("2023-01-01T09:00:00");
-
-//    }
+    public static String headerName() {
+        return HEADER_NAME;
+    }
 
     /**
-     * Возвращает текущее заданное время, либо реальное время, если не задано.
+     * Добавляет в запрос заголовок с мок-временем, если в потоке активна подмена.
      */
-//    public LocalDateTime getCurrentTime() {
-//
-//        return currentTime != null ? currentTime : LocalDateTime.now();
-//    }
+    public static RequestSpecification propagate(RequestSpecification spec) {
+        if (!HEADER_NAME.isEmpty() && isOverridden()) {
+            spec.header(HEADER_NAME, now().toString());
+        }
+        return spec;
+    }
 
+    /**
+     * То же для запросов JDK HttpClient (потоковые запросы в обход RestAssured).
+     */
+    public static HttpRequest.Builder propagate(HttpRequest.Builder builder) {
+        if (!HEADER_NAME.isEmpty() && isOverridden()) {
+            builder.header(HEADER_NAME, now().toString());
+        }
+        return builder;
+    }
 }
@@ -1,92 +1,147 @@
 package mainutils;
 
 import client.ProductClient;
+import client.http.ApiCall;
+import client.json.FastJson;
+import client.json.ModelCodec;
+import client.json.PageEnvelope;
+import domain.model.CompactProduct;
 import domain.model.Product;
+import domain.model.ProductBatch;
 import io.restassured.response.Response;
+import mainutils.allure.LeanAllure;
+import mainutils.jfr.CleanupEvent;
+import mainutils.jfr.JfrEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
-import java.util.List;
 
 public class ProductCleanupService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductCleanupService.class);
     private static final String LOG_FILE = "product_cleanup_errors.log";
+    private static final int PAGE_SIZE = Integer.getInteger("cleanup.page.size", 1000);
     private final ProductClient productClient = new ProductClient();
 
+    /**
+     * Удаляет все продукты. План очистки — один снимок каталога в компактном виде ({@link ProductBatch}),
+     * собранный обходом всех страниц ({@code cleanup.page.size}, по умолчанию 1000) до первого удаления:
+     * постраничный обход во время удаления сдвигал страницы и пропускал продукты.
+     * Продукты дороже $100 сначала уценяются до 99.99 (кроме ID, кратных 3, — их обновлять нельзя).
+     */
     public void cleanUpAllProducts() {
-        int page = 0;
-        int size = 20;
-        boolean morePages = true;
-
         logger.info("♻️ Запуск полной очистки продуктов через API");
+        CleanupEvent event = JfrEvents.cleanupStarted("products");
+        int deletedCount = 0;
+        int failedCount = 0;
 
-        while (morePages) {
+        try (LeanAllure.Bulk bulk = LeanAllure.bulk("Очистка продуктов")) {
+            ProductBatch products;
             try {
-                Response response = productClient.getAllProductsResponse(page, size);
-                List<Product> products = response.jsonPath().getList("content", Product.class);
+                products = snapshot((page, size) -> {
+                    Response response = productClient.getAllProductsResponse(page, size);
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Не удалось получить страницу " + page + ": " + response.statusCode());
+                    }
+                    return response.asByteArray();
+                }, PAGE_SIZE);
+            } catch (Exception e) {
+                bulk.failed("список продуктов", e.getMessage());
+                logError("Не удалось получить список продуктов: " + e.getMessage());
+                products = new ProductBatch(0);
+            }
+            logger.info("🔹 Загружено {} продуктов для удаления", products.size());
 
-                if (products == null || products.isEmpty()) {
-                    logger.info("🔹 Страница {}: продуктов не найдено", page);
-                    break;
+            for (int i = 0; i < products.size(); i++) {
+                long id = products.idAt(i);
+                if (id == CompactProduct.NO_ID) {
+                    logError("Пропущен продукт без ID: " + products.nameAt(i));
+                    continue;
                 }
 
-                logger.info("🔹 Страница {}: загружено {} продуктов", page, products.size());
-
-                for (Product product : products) {
-                    if (product == null || product.getId() == null) {
-                        logError("Пропущен некорректный продукт: " + product);
+                double price = products.priceAt(i);
+                if (price > 100) {
+                    if (id % 3 == 0) {
+                        logger.warn("⛔ Продукт {} нельзя обновить (id % 3 == 0)", id);
                         continue;
                     }
-
-                    Long id = product.getId();
-                    double price = product.getPrice();
-
-                    if (price > 100) {
-                        if (id % 3 == 0) {
-                            logger.warn("⛔ Продукт {} нельзя обновить (id % 3 == 0)", id);
-                            continue;
-                        }
-                        logger.info("💸 Продукт {} дороже $100 ({}). Снижение цены до 99.99", id, price);
-                        product.setPrice(99.99);
-
-                        boolean updated = retry(() -> productClient.updateProduct(id, product), 3);
-                        if (!updated) {
-                            logError("Не удалось обновить продукт ID=" + id);
-                            continue;
-                        }
-                    }
-
-                    boolean deleted = retry(() -> productClient.deleteProduct(id), 3);
-                    if (deleted) {
-                        logger.info("✅ Удалён продукт ID={} ", id);
-                    } else {
-                        logError("Не удалось удалить продукт ID=" + id);
+                    logger.info("💸 Продукт {} дороже $100 ({}). Снижение цены до 99.99", id, price);
+                    Product product = products.toProduct(i);
+                    product.setPrice(99.99);
+
+                    // Кодируем один раз — все попытки отправляют одно и то же тело
+                    byte[] body = ModelCodec.encode(product);
+                    boolean updated = retry(() -> productClient.updateProductEncoded(id, body), 3);
+                    if (!updated) {
+                        failedCount++;
+                        bulk.failed("ID=" + id, "не удалось обновить цену");
+                        logError("Не удалось обновить продукт ID=" + id);
+                        continue;
                     }
                 }
 
-                Object totalRaw = response.jsonPath().get("totalPages");
-                if (totalRaw == null) {
-                    logger.warn("⚠️ totalPages == null, остановка");
-                    break;
+                boolean deleted = retry(() -> productClient.deleteProduct(id), 3);
+                if (deleted) {
+                    deletedCount++;
+                    bulk.succeeded();
+                    logger.info("✅ Удалён продукт ID={} ", id);
+                } else {
+                    failedCount++;
+                    bulk.failed("ID=" + id, "не удалось удалить");
+                    logError("Не удалось удалить продукт ID=" + id);
                 }
-                int totalPages = (int) totalRaw;
-                page++;
-                morePages = page < totalPages;
+            }
+        }
+        JfrEvents.cleanupFinished(event, deletedCount, failedCount);
+    }
 
-            } catch (Exception e) {
-                logError("Ошибка на странице " + page + ": " + e.getMessage());
+    /**
+     * Снимок каталога: страницы читаются по порядку до {@code totalPages} или пустой страницы
+     * (ответ-массив без конверта — одна страница). ID, попавший на две страницы, берётся один раз.
+     */
+    static ProductBatch snapshot(PageSource source, int pageSize) {
+        ProductBatch products = new ProductBatch(pageSize);
+        ConcurrentLongSet seen = new ConcurrentLongSet();
+        int duplicates = 0;
+        int page = 0;
+        int totalPages = 1;
+        while (page < totalPages) {
+            PageEnvelope<Product> content = FastJson.readProductPage(source.fetch(page, pageSize));
+            if (content.isEmpty()) {
                 break;
             }
+            for (Product product : content.content()) {
+                if (product.getId() != null && !seen.add(product.getId())) {
+                    duplicates++;
+                    continue;
+                }
+                products.add(product);
+            }
+            totalPages = content.hasTotalPages() ? content.totalPages() : page + 1;
+            page++;
+        }
+        if (duplicates > 0) {
+            logger.warn("⚠️ {} продуктов встретились на нескольких страницах и взяты один раз", duplicates);
         }
+        products.trimToSize();
+        return products;
+    }
+
+    /**
+     * Тело страницы продуктов.
+     */
+    @FunctionalInterface
+    interface PageSource {
+        byte[] fetch(int page, int size);
     }
 
     private boolean retry(SupplierWithException<Response> action, int attempts) {
         for (int i = 1; i <= attempts; i++) {
             try {
+                ApiCall.markRetry(i - 1);
                 Response response = action.get();
                 if (response.statusCode() == 200 || response.statusCode() == 204) {
                     return true;
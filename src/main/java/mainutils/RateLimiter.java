@@ -0,0 +1,35 @@
+package mainutils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Простой потокобезопасный ограничитель частоты запросов.
+ * Раздаёт "слоты" с фиксированным интервалом, вызывающий поток ждёт свой слот.
+ * Значение permitsPerSecond <= 0 означает отсутствие ограничения.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+    public RateLimiter(int permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0;
+    }
+
+    /**
+     * Блокирует поток до наступления следующего свободного слота.
+     */
+    public void acquire() {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long slot = nextSlot.getAndAccumulate(now, (prev, current) -> Math.max(prev, current) + intervalNanos);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package mainutils;
+
+import client.CreatedEntityRegistry;
+import client.ProductClient;
+import client.UserClient;
+import io.qameta.allure.Step;
+import io.restassured.response.Response;
+import mainutils.allure.LeanAllure;
+import mainutils.jfr.CleanupEvent;
+import mainutils.jfr.JfrEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Очистка только тех сущностей, которые создал текущий запуск (см. {@link CreatedEntityRegistry}).
+ * <p>
+ * Продукты удаляются параллельными bulk-запросами порциями; если сервер отклоняет порцию
+ * (например, из-за палиндромных ID или правила "меньше 10 продуктов"), порция дочищается поштучно.
+ * Пользователи удаляются поштучно в несколько потоков — bulk-эндпоинта для них нет.
+ * Параметры: {@code cleanup.bulk.chunk} (по умолчанию 50) и {@code cleanup.threads} (по умолчанию 4).
+ * В отчёте Allure очистка — один сводный шаг ({@link LeanAllure#bulk(String)}).
+ */
+public class ScopedCleanupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScopedCleanupService.class);
+
+    private final ProductClient productClient = new ProductClient();
+    private final UserClient userClient = new UserClient();
+    private final int chunkSize = Integer.getInteger("cleanup.bulk.chunk", 50);
+    private final int threads = Integer.getInteger("cleanup.threads", 4);
+
+    /**
+     * Итог очистки.
+     * @param deleted удалено сущностей
+     * @param failed не удалось удалить (остались в реестре)
+     */
+    public record Report(int deleted, int failed, Duration elapsed) {
+    }
+
+    @Step("Очистка сущностей, созданных текущим запуском")
+    public Report cleanUpCreated() {
+        long started = System.nanoTime();
+        CleanupEvent event = JfrEvents.cleanupStarted("scoped");
+        long[] productIds = CreatedEntityRegistry.products().toArray();
+        long[] userIds = CreatedEntityRegistry.users().toArray();
+
+        logger.info("♻️ Очистка текущего запуска: {} продуктов, {} пользователей", productIds.length, userIds.length);
+
+        AtomicInteger deleted = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (LeanAllure.Bulk bulk = LeanAllure.bulk("Очистка сущностей текущего запуска")) {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int from = 0; from < productIds.length; from += chunkSize) {
+                List<Long> chunk = toList(productIds, from, Math.min(from + chunkSize, productIds.length));
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try (LeanAllure.Scope ignored = bulk.enterWorker()) {
+                        deleteProductChunk(chunk, deleted, failed, bulk);
+                    }
+                }, executor));
+            }
+            for (long userId : userIds) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try (LeanAllure.Scope ignored = bulk.enterWorker()) {
+                        deleteUser(userId, deleted, failed, bulk);
+                    }
+                }, executor));
+            }
+            tasks.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+
+        Report report = new Report(deleted.get(), failed.get(), Duration.ofNanos(System.nanoTime() - started));
+        JfrEvents.cleanupFinished(event, report.deleted(), report.failed());
+        logger.info("✅ Очистка текущего запуска завершена: удалено {}, ошибок {} за {} мс",
+                report.deleted(), report.failed(), report.elapsed().toMillis());
+        return report;
+    }
+
+    private void deleteProductChunk(List<Long> chunk, AtomicInteger deleted, AtomicInteger failed, LeanAllure.Bulk bulk) {
+        try {
+            if (isDeleted(productClient.deleteProducts(chunk))) {
+                deleted.addAndGet(chunk.size());
+                bulk.succeeded(chunk.size());
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ Bulk-удаление порции из {} продуктов не удалось: {}", chunk.size(), e.getMessage());
+        }
+        logger.info("🔁 Порция из {} продуктов отклонена, удаляем поштучно", chunk.size());
+        for (Long id : chunk) {
+            try {
+                if (isDeleted(productClient.deleteProduct(id))) {
+                    deleted.incrementAndGet();
+                    bulk.succeeded();
+                    continue;
+                }
+            } catch (Exception e) {
+                logger.warn("Не удалось удалить продукт ID={}: {}", id, e.getMessage());
+            }
+            failed.incrementAndGet();
+            bulk.failed("продукт ID=" + id, "не удалён");
+        }
+    }
+
+    private void deleteUser(long userId, AtomicInteger deleted, AtomicInteger failed, LeanAllure.Bulk bulk) {
+        try {
+            if (isDeleted(userClient.deleteUser(userId))) {
+                deleted.incrementAndGet();
+                bulk.succeeded();
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("Не удалось удалить пользователя ID={}: {}", userId, e.getMessage());
+        }
+        failed.incrementAndGet();
+        bulk.failed("пользователь ID=" + userId, "не удалён");
+    }
+
+    private static boolean isDeleted(Response response) {
+        int status = response.statusCode();
+        return status == 200 || status == 204;
+    }
+
+    private static List<Long> toList(long[] ids, int from, int to) {
+        List<Long> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            list.add(ids[i]);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,88 @@
+package mainutils;
+
+import client.http.EndpointPool;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.http.ContentType.JSON;
+
+/**
+ * Установка серверного времени через {@code /api/time}, если сервер это поддерживает.
+ * <p>
+ * {@code PUT /api/time {"time": "..."}} фиксирует время, {@code DELETE /api/time} возвращает реальное.
+ * Запрос уходит на каждую реплику {@link EndpointPool} ({@code api.base.urls}), иначе время
+ * сдвинулось бы только на той, что обслужила вызов.
+ * После первого ответа 404/405 хук считается недоступным и больше не вызывается.
+ * Путь настраивается через {@code mock.time.endpoint}.
+ */
+public final class ServerTimeHook {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerTimeHook.class);
+    private static final String ENDPOINT = System.getProperty("mock.time.endpoint", "/api/time");
+
+    private static volatile boolean available = true;
+
+    private ServerTimeHook() {
+    }
+
+    /**
+     * @return true, если время приняли все реплики
+     */
+    public static boolean set(LocalDateTime time) {
+        if (!available) {
+            return false;
+        }
+        logger.info("🕐 Установка серверного времени: {}", time);
+        return onEveryReplica(spec -> spec
+                .contentType(JSON)
+                .body("{\"time\":\"" + time + "\"}")
+                .put()
+                .thenReturn());
+    }
+
+    public static void reset() {
+        if (!available) {
+            return;
+        }
+        logger.info("🕐 Сброс серверного времени");
+        onEveryReplica(spec -> spec.delete().thenReturn());
+    }
+
+    /**
+     * Запрос к {@code mock.time.endpoint} каждой реплики пула.
+     */
+    public static RequestSpecification at(EndpointPool.Endpoint replica) {
+        return given().baseUri(replica.baseUri()).port(replica.port()).basePath(ENDPOINT);
+    }
+
+    private static boolean onEveryReplica(Function<RequestSpecification, Response> call) {
+        boolean accepted = true;
+        for (EndpointPool.Endpoint replica : EndpointPool.shared().endpoints()) {
+            if (!available) {
+                return false;
+            }
+            accepted &= accepted(replica, call.apply(at(replica)));
+        }
+        return accepted;
+    }
+
+    private static boolean accepted(EndpointPool.Endpoint replica, Response response) {
+        int status = response.statusCode();
+        if (status == 404 || status == 405) {
+            logger.warn("⚠️ {}{} не поддерживает установку времени ({}), хук отключён", replica.url(), ENDPOINT, status);
+            available = false;
+            return false;
+        }
+        if (status >= 300) {
+            logger.warn("⚠️ Реплика {} отклонила установку времени: {}", replica.url(), status);
+            return false;
+        }
+        return true;
+    }
+}
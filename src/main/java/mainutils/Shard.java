@@ -0,0 +1,72 @@
+package mainutils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Параметры шарда прогона: {@code -Dshard.index=<i> -Dshard.count=<n>}.
+ * <p>
+ * Принадлежность теста шарду определяется CRC32 от ключа — одинаково в любой JVM и на любой машине,
+ * так что n процессов с индексами 0..n-1 вместе выполняют каждый тест ровно один раз.
+ * Файлы состояния (манифест сидирования, длительности, отчёты) получают суффикс шарда через
+ * {@link #partition(Path)}, чтобы процессы не перезаписывали друг друга.
+ */
+public final class Shard {
+
+    private static final int COUNT = Integer.getInteger("shard.count", 1);
+    private static final int INDEX = Integer.getInteger("shard.index", 0);
+
+    static {
+        if (COUNT < 1 || INDEX < 0 || INDEX >= COUNT) {
+            throw new IllegalStateException("Некорректный шард: shard.index=" + INDEX + ", shard.count=" + COUNT);
+        }
+    }
+
+    private Shard() {
+    }
+
+    public static int index() {
+        return INDEX;
+    }
+
+    public static int count() {
+        return COUNT;
+    }
+
+    public static boolean isEnabled() {
+        return COUNT > 1;
+    }
+
+    /**
+     * Номер шарда, которому принадлежит ключ.
+     */
+    public static int of(String key) {
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % COUNT);
+    }
+
+    public static boolean owns(String key) {
+        return of(key) == INDEX;
+    }
+
+    /**
+     * Путь файла этого шарда: {@code .seed-manifest.json} → {@code .seed-manifest.shard-1.json}.
+     * Без шардирования путь не меняется.
+     */
+    public static Path partition(Path path) {
+        if (!isEnabled()) {
+            return path;
+        }
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String suffix = ".shard-" + INDEX;
+        String sharded = dot > 0 ? name.substring(0, dot) + suffix + name.substring(dot) : name + suffix;
+        return path.resolveSibling(sharded);
+    }
+
+    public static String describe() {
+        return isEnabled() ? "шард " + INDEX + "/" + COUNT : "без шардирования";
+    }
+}
@@ -0,0 +1,142 @@
+package mainutils;
+
+import mainutils.allure.AttachmentPacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Сборка результатов шардов ({@link Shard}) в общий отчёт после того, как все процессы завершились.
+ * <ul>
+ *     <li>Allure: файлы из {@code <results>.shard-*} копируются в {@code <results>}; имена результатов —
+ *     UUID, поэтому конфликтуют только общие файлы (environment, executor, categories) — берётся первый;
+ *     архивы вложений шардов ({@code -Dallure.pack=true}) после копирования распаковываются ({@link AttachmentPacks});</li>
+ *     <li>длительности тестов: {@code .test-timings.shard-*.json} вливаются в {@code .test-timings.json};</li>
+ *     <li>отчёты о ресурсах {@code resource-usage.shard-*.txt} склеиваются в один файл.</li>
+ * </ul>
+ * Запуск: {@code mvn -Pshard-merge compile exec:java} или {@code java mainutils.ShardResultsMerger [allure] [timings] [resources]}.
+ */
+public final class ShardResultsMerger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardResultsMerger.class);
+
+    private ShardResultsMerger() {
+    }
+
+    public static void main(String[] args) {
+        Path allureResults = Path.of(args.length > 0 ? args[0]
+                : System.getProperty("allure.results.directory", "target/allure-results"));
+        Path timings = Path.of(args.length > 1 ? args[1] : System.getProperty("timing.store.path", ".test-timings.json"));
+        Path resources = Path.of(args.length > 2 ? args[2]
+                : System.getProperty("resource.report.path", "target/resource-usage.txt"));
+
+        mergeAllureResults(allureResults);
+        mergeTimings(timings);
+        mergeResourceReports(resources);
+    }
+
+    /**
+     * @return число скопированных файлов
+     */
+    public static int mergeAllureResults(Path target) {
+        List<Path> shards = shardFiles(target);
+        int copied = 0;
+        int skipped = 0;
+        try {
+            Files.createDirectories(target);
+            for (Path shard : shards) {
+                try (Stream<Path> files = Files.list(shard)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        Path destination = target.resolve(file.getFileName().toString());
+                        if (Files.exists(destination)) {
+                            skipped++;
+                            continue;
+                        }
+                        Files.copy(file, destination);
+                        copied++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось собрать результаты Allure в " + target, e);
+        }
+        logger.info("🧩 Allure: {} шардов → {}, скопировано {} файлов, пропущено совпадающих {}",
+                shards.size(), target, copied, skipped);
+        AttachmentPacks.unpack(target);
+        return copied;
+    }
+
+    public static void mergeTimings(Path target) {
+        List<Path> shards = shardFiles(target);
+        if (shards.isEmpty()) {
+            logger.info("🧩 Длительности: файлов шардов рядом с {} нет", target);
+            return;
+        }
+        TimingStore merged = TimingStore.load(target);
+        for (Path shard : shards) {
+            merged.mergeFrom(TimingStore.load(shard));
+        }
+        merged.save();
+        logger.info("🧩 Длительности: {} шардов → {} ({} методов)", shards.size(), target, merged.size());
+    }
+
+    public static void mergeResourceReports(Path target) {
+        List<Path> shards = shardFiles(target);
+        if (shards.isEmpty()) {
+            return;
+        }
+        StringBuilder report = new StringBuilder();
+        try {
+            for (Path shard : shards) {
+                report.append("## ").append(shard.getFileName()).append(System.lineSeparator())
+                        .append(Files.readString(shard, StandardCharsets.UTF_8)).append(System.lineSeparator());
+            }
+            Files.writeString(target, report, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось собрать отчёты о ресурсах в " + target, e);
+        }
+        logger.info("🧩 Ресурсы: {} шардов → {}", shards.size(), target);
+    }
+
+    /**
+     * Файлы или каталоги шардов рядом с {@code target}, по возрастанию индекса шарда.
+     */
+    private static List<Path> shardFiles(Path target) {
+        Path parent = target.toAbsolutePath().getParent();
+        String name = target.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String glob = dot > 0
+                ? name.substring(0, dot) + ".shard-*" + name.substring(dot)
+                : name + ".shard-*";
+        List<Path> shards = new ArrayList<>();
+        if (!Files.isDirectory(parent)) {
+            return shards;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent, glob)) {
+            stream.forEach(shards::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось найти файлы шардов для " + target, e);
+        }
+        shards.sort((a, b) -> Integer.compare(shardIndex(a), shardIndex(b)));
+        return shards;
+    }
+
+    private static int shardIndex(Path path) {
+        String name = path.getFileName().toString();
+        int start = name.indexOf(".shard-") + ".shard-".length();
+        int end = start;
+        while (end < name.length() && Character.isDigit(name.charAt(end))) {
+            end++;
+        }
+        return end > start ? Integer.parseInt(name.substring(start, end)) : Integer.MAX_VALUE;
+    }
+}
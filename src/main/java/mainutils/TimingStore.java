@@ -0,0 +1,133 @@
+package mainutils;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Длительности тестовых методов из прошлых прогонов (JSON-файл, ключ — {@code класс#метод}).
+ * <p>
+ * Новый замер сглаживается с прошлым значением (экспоненциальное среднее), чтобы один медленный
+ * прогон не перестраивал расписание целиком. Сохранение атомарное, как у {@code SeedManifest}.
+ */
+public class TimingStore {
+
+    private static final double SMOOTHING = 0.5;
+    private static final long DEFAULT_MILLIS = 1000;
+
+    private final Path file;
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    private final Set<String> recorded = ConcurrentHashMap.newKeySet();
+
+    private TimingStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Загружает хранилище; отсутствующий или повреждённый файл даёт пустое хранилище.
+     */
+    public static TimingStore load(Path file) {
+        TimingStore store = new TimingStore(file);
+        if (!Files.exists(file)) {
+            return store;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(file, StandardCharsets.UTF_8)).optJSONObject("durations");
+            if (json != null) {
+                for (String key : json.keySet()) {
+                    store.durations.put(key, json.getLong(key));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Без истории планировщик просто работает на оценке по умолчанию
+            return new TimingStore(file);
+        }
+        return store;
+    }
+
+    public static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    public OptionalLong millis(String key) {
+        Long value = durations.get(key);
+        return value != null ? OptionalLong.of(value) : OptionalLong.empty();
+    }
+
+    /**
+     * Оценка для метода без истории — медиана известных длительностей (или 1 с, если истории нет).
+     */
+    public long defaultMillis() {
+        List<Long> values = new ArrayList<>(durations.values());
+        if (values.isEmpty()) {
+            return DEFAULT_MILLIS;
+        }
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+
+    public long estimate(String key) {
+        return millis(key).orElseGet(this::defaultMillis);
+    }
+
+    public void record(String key, long millis) {
+        durations.merge(key, millis, (previous, sample) -> Math.round(previous * (1 - SMOOTHING) + sample * SMOOTHING));
+        recorded.add(key);
+    }
+
+    public int size() {
+        return durations.size();
+    }
+
+    /**
+     * Переносит замеры другого хранилища (например, файла шарда); его значения приоритетнее.
+     */
+    public void mergeFrom(TimingStore other) {
+        durations.putAll(other.durations);
+    }
+
+    public void save() {
+        write(file, durations);
+    }
+
+    /**
+     * Сохраняет в другой файл только замеры этого прогона — так шард пишет свою часть,
+     * не затирая чужие методы старыми значениями; общий файл собирает {@code ShardResultsMerger}.
+     */
+    public void saveRecorded(Path target) {
+        Map<String, Long> own = new TreeMap<>();
+        for (String key : recorded) {
+            own.put(key, durations.get(key));
+        }
+        write(target, own);
+    }
+
+    private static void write(Path target, Map<String, Long> values) {
+        JSONObject json = new JSONObject()
+                .put("updatedAt", LocalDateTime.now().toString())
+                .put("durations", new JSONObject(new TreeMap<>(values)));
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "test-timings", ".tmp");
+            Files.writeString(tmp, json.toString(2), StandardCharsets.UTF_8);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить длительности тестов " + target, e);
+        }
+    }
+}
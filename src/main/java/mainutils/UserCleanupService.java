@@ -3,10 +3,23 @@ package mainutils;
 import client.UserClient;
 import domain.model.User;
 import io.restassured.response.Response;
+import mainutils.allure.LeanAllure;
+import mainutils.jfr.CleanupEvent;
+import mainutils.jfr.JfrEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
 
 /**
  * Удаляет всех пользователей через API.
@@ -16,12 +29,30 @@ public class UserCleanupService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserCleanupService.class);
     private final UserClient userClient = new UserClient();
+    private final int threads = Integer.getInteger("cleanup.threads", 8);
+
+    /**
+     * Итог быстрой очистки.
+     * @param mode "bulk" — сработал deleteAllUsers, "parallel" — поштучное удаление
+     * @param deleted удалено пользователей (для bulk — число найденных перед удалением)
+     * @param remaining осталось пользователей после проверки
+     * @param failures описания неудачных удалений
+     */
+    public record Report(String mode, int deleted, int remaining, List<String> failures, Duration elapsed) {
+
+        public double usersPerSecond() {
+            return deleted * 1000.0 / Math.max(1, elapsed.toMillis());
+        }
+    }
 
     /**
      * Полностью очищает пользователей в системе.
      */
     public void cleanUpAllUsers() {
         logger.info("♻️ Загружаем всех пользователей для удаления");
+        CleanupEvent event = JfrEvents.cleanupStarted("users");
+        int deleted = 0;
+        int failed = 0;
 
         try {
             List<User> users = userClient.getAllUsers(); // Получаем всех пользователей сразу
@@ -33,18 +64,24 @@ public class UserCleanupService {
 
             logger.info("🔹 Найдено {} пользователей для удаления", users.size());
 
-            for (User user : users) {
-                if (user == null || user.getId() == null) {
-                    logger.warn("⛔ Пропущен пустой пользователь или без ID");
-                    continue;
-                }
+            try (LeanAllure.Bulk bulk = LeanAllure.bulk("Очистка пользователей")) {
+                for (User user : users) {
+                    if (user == null || user.getId() == null) {
+                        logger.warn("⛔ Пропущен пустой пользователь или без ID");
+                        continue;
+                    }
 
-                Response deleteResponse = userClient.deleteUser(user.getId());
+                    Response deleteResponse = userClient.deleteUser(user.getId());
 
-                if (deleteResponse.statusCode() == 200 || deleteResponse.statusCode() == 204) {
-                    logger.info("✅ Удалён пользователь ID={}", user.getId());
-                } else {
-                    logger.error("❌ Ошибка удаления пользователя ID={}: {}", user.getId(), deleteResponse.statusLine());
+                    if (deleteResponse.statusCode() == 200 || deleteResponse.statusCode() == 204) {
+                        logger.info("✅ Удалён пользователь ID={}", user.getId());
+                        deleted++;
+                        bulk.succeeded();
+                    } else {
+                        failed++;
+                        bulk.failed("ID=" + user.getId(), deleteResponse.statusLine());
+                        logger.error("❌ Ошибка удаления пользователя ID={}: {}", user.getId(), deleteResponse.statusLine());
+                    }
                 }
             }
 
@@ -52,6 +89,113 @@ public class UserCleanupService {
 
         } catch (Exception e) {
             logger.error("🔥 Ошибка при удалении пользователей: {}", e.getMessage(), e);
+        } finally {
+            JfrEvents.cleanupFinished(event, deleted, failed);
+        }
+    }
+
+    /**
+     * Быстрая очистка: сначала deleteAllUsers() с проверкой результата,
+     * при неудаче — параллельное поштучное удаление по потоковому списку ID с ограничением числа запросов "в полёте".
+     */
+    public Report cleanUpAllUsersFast() {
+        CleanupEvent event = JfrEvents.cleanupStarted("users.fast");
+        Report report = deleteAllOrInParallel();
+        JfrEvents.cleanupFinished(event, report.deleted(), report.failures().size());
+        return report;
+    }
+
+    private Report deleteAllOrInParallel() {
+        long started = System.nanoTime();
+        logger.info("♻️ Быстрая очистка пользователей: пробуем deleteAllUsers()");
+
+        try {
+            // Считаем до удаления только ID (потоково), иначе скорость bulk-пути не узнать
+            int found = countUsers();
+            Response response = userClient.deleteAllUsers();
+            if (response.statusCode() == 200 || response.statusCode() == 204) {
+                int remaining = countUsers();
+                if (remaining == 0) {
+                    Report report = new Report("bulk", found, 0, List.of(), Duration.ofNanos(System.nanoTime() - started));
+                    logger.info("✅ deleteAllUsers() удалил {} пользователей за {} мс ({} польз./с)", found,
+                            report.elapsed().toMillis(), String.format("%.1f", report.usersPerSecond()));
+                    return report;
+                }
+                logger.warn("⚠️ deleteAllUsers() вернул {}, но осталось {} пользователей", response.statusCode(), remaining);
+            } else {
+                logger.warn("⚠️ deleteAllUsers() недоступен: {}", response.statusLine());
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ deleteAllUsers() завершился ошибкой: {}", e.getMessage());
+        }
+
+        return deleteInParallel(started);
+    }
+
+    private Report deleteInParallel(long started) {
+        AtomicInteger deleted = new AtomicInteger();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        Semaphore inFlight = new Semaphore(threads * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        logger.info("🔁 Параллельное удаление пользователей в {} потоков", threads);
+        try (LeanAllure.Bulk bulk = LeanAllure.bulk("Параллельное удаление пользователей")) {
+            try (LongStream ids = userClient.streamUserIds()) {
+                PrimitiveIterator.OfLong iterator = ids.iterator();
+                while (iterator.hasNext()) {
+                    long id = iterator.nextLong();
+                    inFlight.acquire();
+                    executor.execute(() -> {
+                        try (LeanAllure.Scope ignored = bulk.enterWorker()) {
+                            Response response = userClient.deleteUser(id);
+                            if (response.statusCode() == 200 || response.statusCode() == 204) {
+                                deleted.incrementAndGet();
+                                bulk.succeeded();
+                            } else {
+                                failures.add("ID=" + id + ": " + response.statusLine());
+                                bulk.failed("ID=" + id, response.statusLine());
+                            }
+                        } catch (Exception e) {
+                            failures.add("ID=" + id + ": " + e.getMessage());
+                            bulk.failed("ID=" + id, e.getMessage());
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                failures.add("Ошибка получения списка пользователей: " + e.getMessage());
+            } finally {
+                executor.shutdown();
+                try {
+                    executor.awaitTermination(10, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        int remaining = -1;
+        try {
+            remaining = countUsers();
+        } catch (Exception e) {
+            logger.warn("⚠️ Не удалось проверить результат очистки: {}", e.getMessage());
+        }
+
+        Report report = new Report("parallel", deleted.get(), remaining, List.copyOf(failures),
+                Duration.ofNanos(System.nanoTime() - started));
+        logger.info("✅ Удалено {} пользователей за {} мс ({} польз./с), ошибок {}, осталось {}",
+                report.deleted(), report.elapsed().toMillis(), String.format("%.1f", report.usersPerSecond()),
+                report.failures().size(), remaining);
+        report.failures().stream().limit(20).forEach(f -> logger.error("❌ {}", f));
+        return report;
+    }
+
+    private int countUsers() {
+        try (LongStream ids = userClient.streamUserIds()) {
+            return (int) ids.count();
         }
     }
 }
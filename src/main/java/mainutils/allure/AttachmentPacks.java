@@ -0,0 +1,121 @@
+package mainutils.allure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Распаковка архивов вложений ({@link CompactResultsWriter} с {@code -Dallure.pack=true}) в обычные файлы
+ * каталога результатов, чтобы их увидел генератор отчёта Allure.
+ * <p>
+ * Индексы {@code attachments-*.idx} читаются построчно; уже существующие файлы не перезаписываются,
+ * поэтому повторный запуск безопасен. После распаковки архивы и индексы удаляются
+ * ({@code -Dallure.unpack.keep=true} — оставить).
+ * Запуск: {@code mvn -Pallure-unpack compile exec:java} или {@code java mainutils.allure.AttachmentPacks [каталог]};
+ * при сборке шардов ({@code ShardResultsMerger}) распаковка выполняется автоматически.
+ */
+public final class AttachmentPacks {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentPacks.class);
+
+    private AttachmentPacks() {
+    }
+
+    public static void main(String[] args) {
+        Path directory = Path.of(args.length > 0 ? args[0]
+                : System.getProperty("allure.results.directory", "target/allure-results"));
+        unpack(directory);
+    }
+
+    /**
+     * @return число восстановленных файлов
+     */
+    public static int unpack(Path directory) {
+        List<Path> indexes = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    CompactResultsWriter.PACK_PREFIX + "*" + CompactResultsWriter.INDEX_SUFFIX)) {
+                stream.forEach(indexes::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать каталог " + directory, e);
+            }
+        }
+        if (indexes.isEmpty()) {
+            return 0;
+        }
+
+        boolean keep = Boolean.getBoolean("allure.unpack.keep");
+        int restored = 0;
+        long bytes = 0;
+        for (Path index : indexes) {
+            Map<String, FileChannel> packs = new HashMap<>();
+            try {
+                for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+                    String[] fields = line.split("\t");
+                    if (fields.length < 4) {
+                        continue;
+                    }
+                    Path target = directory.resolve(fields[0]);
+                    if (Files.exists(target)) {
+                        continue;
+                    }
+                    FileChannel pack = packs.get(fields[1]);
+                    if (pack == null) {
+                        pack = FileChannel.open(directory.resolve(fields[1]), StandardOpenOption.READ);
+                        packs.put(fields[1], pack);
+                    }
+                    ByteBuffer buffer = ByteBuffer.allocate(Integer.parseInt(fields[3]));
+                    long position = Long.parseLong(fields[2]);
+                    while (buffer.hasRemaining() && pack.read(buffer, position + buffer.position()) >= 0) {
+                        // читаем до заполнения буфера
+                    }
+                    Files.write(target, buffer.array());
+                    restored++;
+                    bytes += buffer.capacity();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось распаковать " + index, e);
+            } finally {
+                packs.values().forEach(AttachmentPacks::closeQuietly);
+            }
+            if (!keep) {
+                delete(index, packs.keySet(), directory);
+            }
+        }
+        logger.info("📦 Распаковано {} вложений ({} МБ) из {} индекс(ов) в {}",
+                restored, String.format("%.1f", bytes / 1_048_576.0), indexes.size(), directory);
+        return restored;
+    }
+
+    private static void delete(Path index, Iterable<String> packNames, Path directory) {
+        try {
+            for (String name : packNames) {
+                Files.deleteIfExists(directory.resolve(name));
+            }
+            Files.deleteIfExists(index);
+        } catch (IOException e) {
+            logger.warn("⚠️ Не удалось удалить архивы {}: {}", index, e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // только чтение, закрытие не влияет на результат
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package mainutils.allure;
+
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.model.WithAttachments;
+import io.qameta.allure.model.WithSteps;
+import io.qameta.allure.util.PropertiesUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Запись результатов Allure с ограничением размера вложений, дедупликацией и упаковкой.
+ * <ul>
+ *     <li>Текстовые вложения (без расширения или txt, json, xml, html…) длиннее {@code allure.attachment.max.kb} (по умолчанию 64) обрезаются;
+ *     в конец дописываются полный размер и SHA-256 исходного тела — по нему видно, одинаковы ли обрезанные ответы.</li>
+ *     <li>Одинаковые вложения (по SHA-256 содержимого) хранятся один раз: в результатах тестов ссылка
+ *     на повтор заменяется ссылкой на первый экземпляр. Вложения пишутся до результата теста, поэтому
+ *     к моменту записи JSON замена уже известна.</li>
+ *     <li>При {@code -Dallure.pack=true} уникальные вложения дописываются в несколько больших файлов
+ *     {@code attachments-<запуск>-<n>.pack} (новый — после {@code allure.pack.max.mb}, по умолчанию 256)
+ *     с индексом {@code attachments-<запуск>.idx}: строка на вложение — имя, файл, смещение, длина, SHA-256.
+ *     Перед построением отчёта их распаковывает {@link AttachmentPacks}.</li>
+ * </ul>
+ * Результаты и контейнеры (JSON) пишутся как обычно — через {@link FileSystemResultsWriter}.
+ */
+public class CompactResultsWriter implements AllureResultsWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactResultsWriter.class);
+    private static final int TRAILER_RESERVE = 512;
+    // Предел не меньше двух запасов под пометку: иначе от обрезанного тела оставалась бы одна пометка
+    private static final int MAX_TEXT_BYTES = Math.max(Integer.getInteger("allure.attachment.max.kb", 64) * 1024, 2 * TRAILER_RESERVE);
+    private static final boolean PACK = Boolean.getBoolean("allure.pack");
+    private static final long PACK_MAX_BYTES = Long.getLong("allure.pack.max.mb", 256) * 1024 * 1024;
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "json", "xml", "html", "csv", "log", "yaml", "yml");
+
+    static final String PACK_PREFIX = "attachments-";
+    static final String PACK_SUFFIX = ".pack";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private final Path directory;
+    private final FileSystemResultsWriter files;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, String> sourceByDigest = new ConcurrentHashMap<>();
+    private final Map<String, String> canonicalSource = new ConcurrentHashMap<>();
+
+    private final LongAdder attachments = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private FileChannel pack;
+    private FileChannel index;
+    private int packNumber;
+    private boolean packed;
+
+    public CompactResultsWriter(Path directory) {
+        this.directory = directory;
+        this.files = new FileSystemResultsWriter(directory);
+    }
+
+    /**
+     * Каталог результатов — как у Allure по умолчанию ({@code allure.results.directory} из allure.properties или системных свойств).
+     */
+    public static CompactResultsWriter fromProperties() {
+        return new CompactResultsWriter(Path.of(PropertiesUtils.loadAllureProperties()
+                .getProperty("allure.results.directory", "allure-results")));
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        relink(testResult);
+        files.write(testResult);
+    }
+
+    @Override
+    public void write(TestResultContainer container) {
+        for (FixtureResult fixture : container.getBefores()) {
+            relink(fixture);
+        }
+        for (FixtureResult fixture : container.getAfters()) {
+            relink(fixture);
+        }
+        files.write(container);
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        byte[] content;
+        try (InputStream stream = attachment) {
+            content = stream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать вложение " + source, e);
+        }
+        attachments.increment();
+        bytesIn.add(content.length);
+        if (isText(source) && content.length > MAX_TEXT_BYTES) {
+            content = cap(content, MAX_TEXT_BYTES);
+            truncated.increment();
+        }
+
+        String existing = sourceByDigest.putIfAbsent(sha256(content), source);
+        if (existing != null) {
+            canonicalSource.put(source, existing);
+            duplicates.increment();
+            return;
+        }
+        bytesWritten.add(content.length);
+        if (PACK) {
+            append(source, content);
+        } else {
+            files.write(source, new ByteArrayInputStream(content));
+        }
+    }
+
+    /**
+     * Обрезает текст до {@code allure.attachment.max.kb} с пометкой и SHA-256 полного тела —
+     * для тел ответов, которые прикладываются строкой (например, в известных багах).
+     */
+    public static String capText(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_TEXT_BYTES ? text : new String(cap(bytes, MAX_TEXT_BYTES), StandardCharsets.UTF_8);
+    }
+
+    public String describe() {
+        return String.format("вложений %d, повторов %d, обрезано %d, записано %.1f из %.1f МБ%s",
+                attachments.sum(), duplicates.sum(), truncated.sum(),
+                bytesWritten.sum() / 1_048_576.0, bytesIn.sum() / 1_048_576.0,
+                PACK ? ", упаковано в " + (packed ? packNumber + 1 : 0) + " файл(ов)" : "");
+    }
+
+    /**
+     * Закрывает архив и индекс вложений. Вложение, записанное после закрытия (следующий набор в той же JVM),
+     * снова откроет последний архив и допишет его.
+     */
+    public synchronized void close() {
+        try {
+            if (pack != null) {
+                pack.close();
+            }
+            if (index != null) {
+                index.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось закрыть архив вложений в " + directory, e);
+        } finally {
+            pack = null;
+            index = null;
+        }
+    }
+
+    private static byte[] cap(byte[] content, int limit) {
+        // Запас под пометку и короткий заголовок вокруг тела, чтобы обрезанный текст не обрезался повторно при записи.
+        // Не режем посреди символа UTF-8: отступаем к началу последовательности
+        int end = Math.max(0, limit - TRAILER_RESERVE);
+        while (end > 0 && (content[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] trailer = String.format("%n… обрезано: показано %d из %d байт, SHA-256 полного тела: %s%n",
+                end, content.length, sha256(content)).getBytes(StandardCharsets.UTF_8);
+        byte[] capped = new byte[end + trailer.length];
+        System.arraycopy(content, 0, capped, 0, end);
+        System.arraycopy(trailer, 0, capped, end, trailer.length);
+        return capped;
+    }
+
+    private void relink(Object item) {
+        if (canonicalSource.isEmpty()) {
+            return;
+        }
+        if (item instanceof WithAttachments withAttachments) {
+            for (Attachment attachment : withAttachments.getAttachments()) {
+                String canonical = canonicalSource.get(attachment.getSource());
+                if (canonical != null) {
+                    attachment.setSource(canonical);
+                }
+            }
+        }
+        if (item instanceof WithSteps withSteps) {
+            List<StepResult> steps = withSteps.getSteps();
+            for (StepResult step : steps) {
+                relink(step);
+            }
+        }
+    }
+
+    private synchronized void append(String source, byte[] content) {
+        try {
+            if (pack == null || pack.size() + content.length > PACK_MAX_BYTES && pack.size() > 0) {
+                openNextPack();
+            }
+            long offset = pack.size();
+            write(pack, content);
+            String packName = PACK_PREFIX + runId + "-" + packNumber + PACK_SUFFIX;
+            write(index, (source + '\t' + packName + '\t' + offset + '\t' + content.length + '\t' + sha256(content) + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось дописать вложение " + source + " в архив", e);
+        }
+    }
+
+    private void openNextPack() throws IOException {
+        Files.createDirectories(directory);
+        if (pack != null) {
+            pack.close();
+            packNumber++;
+        }
+        packed = true;
+        pack = FileChannel.open(directory.resolve(PACK_PREFIX + runId + "-" + packNumber + PACK_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (index == null) {
+            index = FileChannel.open(directory.resolve(PACK_PREFIX + runId + INDEX_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            logger.info("📦 Вложения Allure упаковываются в {}", directory.resolve(PACK_PREFIX + runId + "-*" + PACK_SUFFIX));
+        }
+    }
+
+    private static void write(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * {@code Allure.addAttachment(name, content)} даёт имя без расширения — это строки, считаем их текстом.
+     */
+    private static boolean isText(String source) {
+        int dot = source.lastIndexOf('.');
+        return dot < 0 || TEXT_EXTENSIONS.contains(source.substring(dot + 1).toLowerCase());
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
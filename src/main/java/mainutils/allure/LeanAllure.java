@@ -0,0 +1,237 @@
+package mainutils.allure;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Облегчённый режим отчёта Allure: внутри области шаги {@code @Step}, {@code Allure.step} и вложения
+ * не записываются (нужен {@link LeanAllureLifecycle}).
+ * <p>
+ * Область задаётся блоком ({@link #enter()}, try-with-resources) или на весь поток
+ * ({@link #enableForCurrentThread()} / {@link #disableForCurrentThread()}). Массовые операции
+ * (создание пачек, сидирование, очистка) оборачиваются в {@link #bulk(String)}: вместо тысяч вложенных
+ * шагов в отчёт пишется один сводный шаг со счётчиками, временем и выборкой ошибок.
+ * <pre>{@code
+ * try (LeanAllure.Bulk bulk = LeanAllure.bulk("Массовое создание продуктов")) {
+ *     for (Product product : products) {
+ *         ...
+ *         bulk.succeeded();  // или bulk.failed(product.getName(), причина)
+ *     }
+ * }
+ * }</pre>
+ * {@code -Dallure.lean.bulk=false} возвращает подробные шаги массовых операций; выборка ошибок —
+ * {@code allure.lean.failure.sample} (по умолчанию 20). Шаги проверок в тестах не затрагиваются.
+ */
+public final class LeanAllure {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeanAllure.class);
+    private static final boolean BULK_LEAN = Boolean.parseBoolean(System.getProperty("allure.lean.bulk", "true"));
+    private static final int FAILURE_SAMPLE = Integer.getInteger("allure.lean.failure.sample", 20);
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private LeanAllure() {
+    }
+
+    /**
+     * Состояние потока: глубина вложенных областей, режим потока и сводка, в которую идут счётчики.
+     */
+    private static final class State {
+        int depth;
+        boolean thread;
+        Bulk bulk;
+    }
+
+    /**
+     * Область облегчённого режима; закрытие возвращает предыдущее состояние потока.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Bulk previousBulk;
+        private boolean closed;
+
+        private Scope(Bulk previousBulk, boolean closed) {
+            this.previousBulk = previousBulk;
+            this.closed = closed;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            State state = STATE.get();
+            state.depth--;
+            state.bulk = previousBulk;
+        }
+    }
+
+    public static boolean isActive() {
+        State state = STATE.get();
+        return state.depth > 0 || state.thread;
+    }
+
+    /**
+     * Облегчённый режим до закрытия области.
+     */
+    public static Scope enter() {
+        return enter(STATE.get().bulk);
+    }
+
+    private static Scope enter(Bulk bulk) {
+        State state = STATE.get();
+        Scope scope = new Scope(state.bulk, false);
+        state.depth++;
+        state.bulk = bulk;
+        return scope;
+    }
+
+    /**
+     * Облегчённый режим для всего текущего потока (например, фонового потока сидирования). Снимается
+     * через {@link #disableForCurrentThread()}.
+     */
+    public static void enableForCurrentThread() {
+        STATE.get().thread = true;
+    }
+
+    public static void disableForCurrentThread() {
+        STATE.get().thread = false;
+    }
+
+    /**
+     * Начинает массовую операцию: поток переходит в облегчённый режим, при закрытии пишется сводный шаг.
+     * Вложенная в другую облегчённую область операция сводку не пишет — её итог виден только в логе.
+     */
+    public static Bulk bulk(String title) {
+        boolean outermost = !isActive();
+        Bulk bulk = new Bulk(title, outermost && BULK_LEAN);
+        bulk.scope = BULK_LEAN ? enter(bulk) : null;
+        return bulk;
+    }
+
+    static void onSuppressedStep() {
+        Bulk bulk = STATE.get().bulk;
+        if (bulk != null) {
+            bulk.hiddenSteps.increment();
+        }
+    }
+
+    static void onSuppressedAttachment() {
+        Bulk bulk = STATE.get().bulk;
+        if (bulk != null) {
+            bulk.hiddenAttachments.increment();
+        }
+    }
+
+    /**
+     * Массовая операция: потокобезопасные счётчики успехов и ошибок с ограниченной выборкой ошибок.
+     */
+    public static final class Bulk implements AutoCloseable {
+
+        private final String title;
+        private final boolean report;
+        private final long started = System.nanoTime();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder hiddenSteps = new LongAdder();
+        private final LongAdder hiddenAttachments = new LongAdder();
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger sampled = new AtomicInteger();
+        private Scope scope;
+        private boolean closed;
+
+        private Bulk(String title, boolean report) {
+            this.title = title;
+            this.report = report;
+        }
+
+        public void succeeded() {
+            succeeded.increment();
+        }
+
+        public void succeeded(long count) {
+            succeeded.add(count);
+        }
+
+        /**
+         * @param item что обрабатывалось (имя, ID)
+         * @param reason статус или сообщение об ошибке
+         */
+        public void failed(String item, String reason) {
+            failed.increment();
+            if (sampled.getAndIncrement() < FAILURE_SAMPLE) {
+                failures.add(item + ": " + reason);
+            }
+        }
+
+        /**
+         * Облегчённая область для рабочего потока операции: его шаги и вложения тоже не пишутся,
+         * а учитываются в этой сводке.
+         */
+        public Scope enterWorker() {
+            // При подробном режиме — пустая область, шаги рабочего потока пишутся как обычно
+            return BULK_LEAN ? enter(this) : new Scope(null, true);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (scope != null) {
+                scope.close();
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            long ok = succeeded.sum();
+            long errors = failed.sum();
+            logger.info("📦 {}: успешно {}, ошибок {} за {} мс (скрыто шагов {}, вложений {})",
+                    title, ok, errors, millis, hiddenSteps.sum(), hiddenAttachments.sum());
+            if (report) {
+                writeStep(ok, errors, millis);
+            }
+        }
+
+        private void writeStep(long ok, long errors, long millis) {
+            AllureLifecycle lifecycle = Allure.getLifecycle();
+            if (lifecycle.getCurrentTestCaseOrStep().isEmpty()) {
+                return;
+            }
+            String uuid = UUID.randomUUID().toString();
+            lifecycle.startStep(uuid, new StepResult()
+                    .setName(String.format("%s: %d шт., ошибок %d, %d мс", title, ok + errors, errors, millis))
+                    .setStatus(errors > 0 ? Status.BROKEN : Status.PASSED)
+                    .setParameters(List.of(
+                            parameter("успешно", ok),
+                            parameter("ошибок", errors),
+                            parameter("время, мс", millis),
+                            parameter("скрыто шагов", hiddenSteps.sum()),
+                            parameter("скрыто вложений", hiddenAttachments.sum()))));
+            if (!failures.isEmpty()) {
+                String text = String.join("\n", failures)
+                        + (errors > failures.size() ? "\n… и ещё " + (errors - failures.size()) : "");
+                lifecycle.addAttachment("Ошибки (первые " + failures.size() + ")", "text/plain", ".txt",
+                        text.getBytes(StandardCharsets.UTF_8));
+            }
+            lifecycle.stopStep(uuid);
+        }
+
+        private static Parameter parameter(String name, long value) {
+            return new Parameter().setName(name).setValue(Long.toString(value));
+        }
+    }
+}
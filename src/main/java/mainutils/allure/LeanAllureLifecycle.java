@@ -0,0 +1,121 @@
+package mainutils.allure;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.aspects.AttachmentsAspects;
+import io.qameta.allure.aspects.StepsAspects;
+import io.qameta.allure.model.StepResult;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Жизненный цикл Allure, который не записывает шаги и вложения, пока в потоке активен облегчённый режим
+ * ({@link LeanAllure}).
+ * <p>
+ * Подавленные шаги не попадают ни в хранилище, ни в контекст потока Allure, поэтому для вызовов без UUID
+ * ({@code stopStep()}, {@code updateStep(consumer)} из аспекта {@code @Step}) держим свой стек подавленных шагов.
+ * Базовый класс сводит перегрузки к методам с UUID и {@code addAttachment(..., InputStream)} —
+ * переопределены именно они, чтобы ничего не считалось дважды.
+ * <p>
+ * Результаты пишет {@link CompactResultsWriter} (ограничение размера, дедупликация и упаковка вложений).
+ * Устанавливается один раз на JVM ({@link #install()}): для {@link Allure}, аспектов шагов и вложений;
+ * слушатель TestNG должен получить тот же экземпляр (см. {@code testutil.LeanAllureTestNg}).
+ */
+public class LeanAllureLifecycle extends AllureLifecycle {
+
+    private static LeanAllureLifecycle installed;
+
+    private final CompactResultsWriter writer;
+    private final ThreadLocal<Deque<String>> suppressed = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public LeanAllureLifecycle(CompactResultsWriter writer) {
+        super(writer);
+        this.writer = writer;
+    }
+
+    /**
+     * Устанавливает облегчённый жизненный цикл (если ещё не установлен) и возвращает его.
+     */
+    public static synchronized LeanAllureLifecycle install() {
+        if (installed == null) {
+            installed = new LeanAllureLifecycle(CompactResultsWriter.fromProperties());
+            Allure.setLifecycle(installed);
+            StepsAspects.setLifecycle(installed);
+            AttachmentsAspects.setLifecycle(installed);
+        }
+        return installed;
+    }
+
+    public CompactResultsWriter writer() {
+        return writer;
+    }
+
+    @Override
+    public void startStep(String uuid, StepResult result) {
+        if (suppress(uuid)) {
+            return;
+        }
+        super.startStep(uuid, result);
+    }
+
+    @Override
+    public void startStep(String parentUuid, String uuid, StepResult result) {
+        if (suppress(uuid)) {
+            return;
+        }
+        super.startStep(parentUuid, uuid, result);
+    }
+
+    @Override
+    public void updateStep(Consumer<StepResult> update) {
+        if (!suppressed.get().isEmpty()) {
+            return;
+        }
+        super.updateStep(update);
+    }
+
+    @Override
+    public void updateStep(String uuid, Consumer<StepResult> update) {
+        if (suppressed.get().contains(uuid)) {
+            return;
+        }
+        super.updateStep(uuid, update);
+    }
+
+    @Override
+    public void stopStep() {
+        if (suppressed.get().poll() != null) {
+            return;
+        }
+        super.stopStep();
+    }
+
+    @Override
+    public void stopStep(String uuid) {
+        if (suppressed.get().removeFirstOccurrence(uuid)) {
+            return;
+        }
+        super.stopStep(uuid);
+    }
+
+    @Override
+    public void addAttachment(String name, String type, String fileExtension, InputStream stream) {
+        if (LeanAllure.isActive()) {
+            LeanAllure.onSuppressedAttachment();
+            return;
+        }
+        super.addAttachment(name, type, fileExtension, stream);
+    }
+
+    private boolean suppress(String uuid) {
+        if (!LeanAllure.isActive()) {
+            return false;
+        }
+        suppressed.get().push(uuid);
+        LeanAllure.onSuppressedStep();
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package mainutils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Один вызов API из клиентов; длительность события — длительность запроса.
+ */
+@Name("producttest.ApiCall")
+@Label("API Call")
+@Category({"Product Test", "HTTP"})
+@Description("Вызов API из ProductClient/UserClient")
+@StackTrace(false)
+public class ApiCallEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path Template")
+    String path;
+
+    @Label("Status")
+    int status;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Retry")
+    @Description("Номер повтора: 0 — первая попытка")
+    int retry;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,27 @@
+package mainutils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Одна очистка данных сервисами из mainutils.
+ */
+@Name("producttest.Cleanup")
+@Label("Cleanup")
+@Category({"Product Test", "Data"})
+@Description("Очистка продуктов и пользователей")
+@StackTrace(false)
+public class CleanupEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Deleted")
+    int deleted;
+
+    @Label("Failed")
+    int failed;
+}
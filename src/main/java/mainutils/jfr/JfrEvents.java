@@ -0,0 +1,178 @@
+package mainutils.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Собственные события Java Flight Recorder: вызовы API, сидирование, очистка и тестовые методы.
+ * <p>
+ * Событие создаётся, только если события включены ({@code -Djfr.events}, по умолчанию true,
+ * или {@link #setEnabled(boolean)} во время выполнения) и его тип включён хотя бы в одной записи JFR.
+ * Иначе методы возвращают null и ничего не аллоцируют, так что без записи накладные расходы — одна проверка.
+ * <p>
+ * Запись можно запустить изнутри прогона ({@link #startRecording(Path)}) с конфигурацией "profile":
+ * в JMC события API видны рядом с CPU, аллокациями и GC.
+ */
+public final class JfrEvents {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrEvents.class);
+
+    private static final EventType API_CALL = register(ApiCallEvent.class);
+    private static final EventType SEED = register(SeedEvent.class);
+    private static final EventType CLEANUP = register(CleanupEvent.class);
+    private static final EventType TEST_METHOD = register(TestMethodEvent.class);
+
+    private static volatile boolean enabled = Boolean.parseBoolean(System.getProperty("jfr.events", "true"));
+    private static Recording recording;
+
+    private JfrEvents() {
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static ApiCallEvent apiCallStarted(String method, String path) {
+        if (!enabled || !API_CALL.isEnabled()) {
+            return null;
+        }
+        ApiCallEvent event = new ApiCallEvent();
+        event.method = method;
+        event.path = path;
+        event.begin();
+        return event;
+    }
+
+    public static void apiCallFinished(ApiCallEvent event, int status, long bytesIn, long bytesOut, int retry, String error) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.status = status;
+            event.bytesIn = bytesIn;
+            event.bytesOut = bytesOut;
+            event.retry = retry;
+            event.error = error;
+            event.commit();
+        }
+    }
+
+    public static SeedEvent seedStarted(String entity, int requested) {
+        if (!enabled || !SEED.isEnabled()) {
+            return null;
+        }
+        SeedEvent event = new SeedEvent();
+        event.entity = entity;
+        event.requested = requested;
+        event.begin();
+        return event;
+    }
+
+    public static void seedFinished(SeedEvent event, int created) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.created = created;
+            event.commit();
+        }
+    }
+
+    public static CleanupEvent cleanupStarted(String operation) {
+        if (!enabled || !CLEANUP.isEnabled()) {
+            return null;
+        }
+        CleanupEvent event = new CleanupEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public static void cleanupFinished(CleanupEvent event, int deleted, int failed) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.deleted = deleted;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    public static TestMethodEvent testStarted(String testClass, String testMethod) {
+        if (!enabled || !TEST_METHOD.isEnabled()) {
+            return null;
+        }
+        TestMethodEvent event = new TestMethodEvent();
+        event.testClass = testClass;
+        event.testMethod = testMethod;
+        event.begin();
+        return event;
+    }
+
+    public static void testFinished(TestMethodEvent event, String status) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.status = status;
+            event.commit();
+        }
+    }
+
+    /**
+     * Запускает запись JFR с конфигурацией "profile" и записью в файл при остановке.
+     */
+    public static synchronized void startRecording(Path destination) {
+        if (recording != null) {
+            logger.warn("⚠️ Запись JFR уже идёт");
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration("profile"));
+            started.setName("product-test");
+            started.setToDisk(true);
+            started.setDestination(destination);
+            started.start();
+            recording = started;
+            logger.info("🎥 Запись JFR запущена, файл: {}", destination);
+        } catch (IOException | ParseException e) {
+            logger.error("❌ Не удалось запустить запись JFR: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Останавливает запись; файл записывается в путь, указанный при запуске.
+     */
+    public static synchronized void stopRecording() {
+        if (recording == null) {
+            return;
+        }
+        Path destination = recording.getDestination();
+        recording.stop();
+        recording.close();
+        recording = null;
+        logger.info("🎥 Запись JFR сохранена: {}", destination);
+    }
+
+    private static EventType register(Class<? extends jdk.jfr.Event> eventClass) {
+        FlightRecorder.register(eventClass);
+        return EventType.getEventType(eventClass);
+    }
+}
@@ -0,0 +1,27 @@
+package mainutils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Пакет сидирования тестовых данных.
+ */
+@Name("producttest.Seed")
+@Label("Seed")
+@Category({"Product Test", "Data"})
+@Description("Создание тестовых данных в TestDataSeeder")
+@StackTrace(false)
+public class SeedEvent extends jdk.jfr.Event {
+
+    @Label("Entity")
+    String entity;
+
+    @Label("Requested")
+    int requested;
+
+    @Label("Created")
+    int created;
+}
@@ -0,0 +1,27 @@
+package mainutils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Тестовый метод TestNG от старта до завершения.
+ */
+@Name("producttest.TestMethod")
+@Label("Test Method")
+@Category({"Product Test", "TestNG"})
+@Description("Выполнение тестового метода")
+@StackTrace(false)
+public class TestMethodEvent extends jdk.jfr.Event {
+
+    @Label("Test Class")
+    String testClass;
+
+    @Label("Test Method")
+    String testMethod;
+
+    @Label("Status")
+    String status;
+}
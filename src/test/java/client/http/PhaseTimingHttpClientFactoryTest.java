@@ -0,0 +1,71 @@
+package client.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Модульные тесты")
+@Feature("Фазы HTTP-запроса")
+public class PhaseTimingHttpClientFactoryTest {
+
+    private static final long BODY_DELAY_MS = 200;
+
+    private HttpServer server;
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // Заголовки и начало тела сразу, остаток — после паузы
+        server.createContext("/slow", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("[1,".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(BODY_DELAY_MS);
+                out.write("2]".getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test(description = "Медленное тело ответа попадает в фазу body, а не в ttfb или other")
+    public void testSlowBodyIsTimed() throws Exception {
+        HttpClient client = new PhaseTimingHttpClientFactory().createHttpClient();
+        PhaseTimings timings = PhaseTimings.begin();
+        long started = System.nanoTime();
+
+        HttpResponse response = client.execute(new HttpGet("http://localhost:" + server.getAddress().getPort() + "/slow"));
+        // Тело вычитано транспортом: замер не зависит от того, когда его разберёт вызывающий
+        PhaseTimings.Snapshot snapshot = timings.snapshot(System.nanoTime() - started);
+
+        assertThat(snapshot.body()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(BODY_DELAY_MS / 2));
+        assertThat(snapshot.ttfb()).isLessThan(TimeUnit.MILLISECONDS.toNanos(BODY_DELAY_MS));
+        assertThat(response.getEntity().isStreaming()).isFalse();
+        assertThat(response.getEntity().getContentType().getValue()).isEqualTo("application/json");
+        assertThat(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8)).isEqualTo("[1,2]");
+        assertThat(timings.bytesIn).isEqualTo(5);
+        client.getConnectionManager().shutdown();
+    }
+}
@@ -0,0 +1,97 @@
+package client.json;
+
+import domain.model.Product;
+import domain.model.User;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.json.JSONObject;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Epic("Модульные тесты")
+@Feature("ModelCodec")
+public class ModelCodecTest {
+
+    @Test(description = "Экранирование кавычек, обратной косой черты и управляющих символов")
+    public void testEscapingRoundTrip() {
+        String name = "Quote \" backslash \\ slash / tab \t newline \n cr \r bell \u0007 nul \u0000";
+        Product decoded = roundTrip(new Product(5L, name, "описание", 12.5));
+
+        assertThat(decoded.getName()).isEqualTo(name);
+        assertThat(new JSONObject(new String(ModelCodec.encode(new Product(name, "d", 1)), StandardCharsets.UTF_8))
+                .getString("name")).isEqualTo(name);
+    }
+
+    @Test(description = "Не-ASCII: кириллица, символы из трёх байт и суррогатные пары")
+    public void testNonAsciiRoundTrip() {
+        String description = "Кожа — 100% € 😀 ✓";
+        Product decoded = roundTrip(new Product(7L, "Сумка", description, 99.99));
+
+        assertThat(decoded.getName()).isEqualTo("Сумка");
+        assertThat(decoded.getDescription()).isEqualTo(description);
+        assertThat(new String(ModelCodec.encode(new Product("x", description, 1)), StandardCharsets.UTF_8))
+                .contains(description);
+    }
+
+    @Test(description = "null-поля записываются как null и читаются обратно как null")
+    public void testNullFields() {
+        byte[] json = ModelCodec.encode(new Product(null, null, 0));
+        JSONObject parsed = new JSONObject(new String(json, StandardCharsets.UTF_8));
+
+        assertThat(parsed.isNull("id")).isTrue();
+        assertThat(parsed.isNull("name")).isTrue();
+        assertThat(parsed.isNull("description")).isTrue();
+
+        Product decoded = ModelCodec.decodeProduct(json);
+        assertThat(decoded.getId()).isNull();
+        assertThat(decoded.getName()).isNull();
+        assertThat(decoded.getDescription()).isNull();
+        assertThat(decoded.getPrice()).isZero();
+    }
+
+    @Test(description = "NaN и бесконечность в цене отклоняются")
+    public void testNonFinitePriceRejected() {
+        assertThatThrownBy(() -> ModelCodec.encode(new Product("a", "b", Double.NaN)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ModelCodec.encode(new Product("a", "b", Double.POSITIVE_INFINITY)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test(description = "Цена и ID сохраняются без потерь, включая крайние значения")
+    public void testNumbersRoundTrip() {
+        Product decoded = roundTrip(new Product(Long.MAX_VALUE, "n", "d", 1e-7));
+
+        assertThat(decoded.getId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(decoded.getPrice()).isEqualTo(1e-7);
+        assertThat(roundTrip(new Product(1L, "n", "d", -0.01)).getPrice()).isEqualTo(-0.01);
+    }
+
+    @Test(description = "Пользователь: все поля, в том числе пароль со спецсимволами")
+    public void testUserRoundTrip() {
+        User user = new User("Иван \"Ваня\"", "ivan@example.com", "p@ss\\w0rd\u0001");
+        User decoded = ModelCodec.decodeUser(ModelCodec.encode(user));
+
+        assertThat(decoded.getName()).isEqualTo(user.getName());
+        assertThat(decoded.getEmail()).isEqualTo(user.getEmail());
+        assertThat(decoded.getPassword()).isEqualTo(user.getPassword());
+    }
+
+    @Test(description = "Большое тело после маленького: буфер потока растёт, результаты не смешиваются")
+    public void testBufferReuse() {
+        String big = "x".repeat(200_000);
+        byte[] large = ModelCodec.encode(new Product(1L, big, "d", 1));
+        byte[] small = ModelCodec.encode(new Product(2L, "s", "d", 2));
+
+        assertThat(ModelCodec.decodeProduct(large).getName()).isEqualTo(big);
+        assertThat(ModelCodec.decodeProduct(small).getName()).isEqualTo("s");
+        assertThat(small.length).isLessThan(100);
+    }
+
+    private static Product roundTrip(Product product) {
+        return ModelCodec.decodeProduct(ModelCodec.encode(product));
+    }
+}
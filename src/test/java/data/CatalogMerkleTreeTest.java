@@ -0,0 +1,128 @@
+package data;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Epic("Модульные тесты")
+@Feature("Merkle-дерево каталога")
+public class CatalogMerkleTreeTest {
+
+    @Test(description = "Одинаковые состояния: пустой diff, ни один бакет не сравнивается поэлементно")
+    public void testIdenticalTreesHaveNoDiff() {
+        CatalogMerkleTree before = tree(1, 5_000);
+        CatalogMerkleTree after = tree(1, 5_000);
+
+        CatalogDiff diff = before.diff(after);
+
+        assertThat(before.rootHash()).isEqualTo(after.rootHash());
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.bucketsCompared()).isZero();
+    }
+
+    @Test(description = "Добавленные, удалённые и изменённые ID находятся, сравниваются только затронутые бакеты")
+    public void testDiffReportsAddedRemovedAndChanged() {
+        CatalogMerkleTree.Builder before = builder(1, 10_000);
+        before.add(20_000, fingerprint(20_000));
+        CatalogMerkleTree.Builder after = builder(1, 4_999);
+        after.add(5_000, fingerprint(5_000) + 1);
+        for (long id = 5_001; id <= 10_000; id++) {
+            after.add(id, fingerprint(id));
+        }
+        after.add(30_000, fingerprint(30_000));
+
+        CatalogDiff diff = before.build().diff(after.build());
+
+        assertThat(diff.added()).containsExactly(30_000L);
+        assertThat(diff.removed()).containsExactly(20_000L);
+        assertThat(diff.changed()).containsExactly(5_000L);
+        assertThat(diff.bucketsCompared()).isEqualTo(3);
+        assertThat(diff.bucketsTotal()).isGreaterThan(10);
+    }
+
+    @Test(description = "Сравнение с пустым деревом: всё добавлено или всё удалено")
+    public void testDiffAgainstEmptyTree() {
+        CatalogMerkleTree empty = new CatalogMerkleTree.Builder(CatalogMerkleTree.DEFAULT_BUCKET_WIDTH).build();
+        CatalogMerkleTree full = tree(1, 3_000);
+
+        assertThat(empty.diff(full).added()).hasSize(3_000);
+        assertThat(full.diff(empty).removed()).hasSize(3_000);
+    }
+
+    @Test(description = "Сохранённое дерево загружается с тем же корневым хешем")
+    public void testSaveAndLoadRoundTrip() throws IOException {
+        CatalogMerkleTree tree = tree(-100, 2_000);
+        Path file = Files.createTempFile("catalog", ".tree");
+        try {
+            tree.save(file);
+            CatalogMerkleTree loaded = CatalogMerkleTree.load(file);
+
+            assertThat(loaded.rootHash()).isEqualTo(tree.rootHash());
+            assertThat(loaded.size()).isEqualTo(tree.size());
+            assertThat(loaded.diff(tree).isEmpty()).isTrue();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(description = "Деревья с разной шириной бакета несравнимы")
+    public void testDifferentBucketWidthRejected() {
+        CatalogMerkleTree narrow = new CatalogMerkleTree.Builder(16).build();
+        CatalogMerkleTree wide = new CatalogMerkleTree.Builder(1024).build();
+
+        assertThatThrownBy(() -> narrow.diff(wide)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test(description = "Повторный ID (сдвиг страниц) хранится один раз с последним отпечатком и учитывается в duplicates")
+    public void testDuplicateIdsAreDeduplicated() {
+        CatalogMerkleTree.Builder builder = builder(1, 3_000);
+        for (long id = 1_000; id < 1_100; id++) {
+            builder.add(id, fingerprint(id));
+        }
+        builder.add(2_000, fingerprint(2_000));
+
+        CatalogMerkleTree tree = builder.build();
+
+        assertThat(builder.duplicates()).isEqualTo(101);
+        assertThat(tree.size()).isEqualTo(3_000);
+        assertThat(tree.rootHash()).isEqualTo(tree(1, 3_000).rootHash());
+    }
+
+    @Test(description = "Команда сравнения возвращает код: 0 — состояния совпадают, 1 — различаются")
+    public void testDiffCommandExitStatus() throws IOException {
+        Path dir = Files.createTempDirectory("catalog");
+        Path before = dir.resolve("before.tree");
+        Path after = dir.resolve("after.tree");
+        Path saved = dir.resolve("saved.tree");
+        tree(1, 2_000).save(before);
+        tree(1, 2_001).save(after);
+
+        assertThat(CatalogDiffCommand.run(before.toString(), before.toString())).isEqualTo(CatalogDiffCommand.SAME);
+        assertThat(CatalogDiffCommand.run(before.toString(), after.toString(), saved.toString()))
+                .isEqualTo(CatalogDiffCommand.DIFFERENT);
+        assertThat(CatalogMerkleTree.load(saved).size()).isEqualTo(2_001);
+    }
+
+    private static CatalogMerkleTree tree(long from, long to) {
+        return builder(from, to).build();
+    }
+
+    private static CatalogMerkleTree.Builder builder(long from, long to) {
+        CatalogMerkleTree.Builder builder = new CatalogMerkleTree.Builder(CatalogMerkleTree.DEFAULT_BUCKET_WIDTH);
+        for (long id = from; id <= to; id++) {
+            builder.add(id, fingerprint(id));
+        }
+        return builder;
+    }
+
+    private static long fingerprint(long id) {
+        return id * 31 + 7;
+    }
+}
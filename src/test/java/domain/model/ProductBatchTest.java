@@ -0,0 +1,91 @@
+package domain.model;
+
+import client.json.FastJson;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Epic("Модульные тесты")
+@Feature("ProductBatch")
+public class ProductBatchTest {
+
+    @Test(description = "Продукт переживает преобразование bean → батч → bean без потерь")
+    public void testBeanRoundTrip() {
+        List<Product> products = List.of(
+                new Product(1L, "Chair", "Wood", 10.5),
+                new Product(2L, "Table", null, 200.0),
+                new Product(null, "Draft", "Wood", 0));
+
+        ProductBatch batch = ProductBatch.of(products);
+
+        assertThat(batch.size()).isEqualTo(3);
+        List<Product> restored = batch.toProducts();
+        for (int i = 0; i < products.size(); i++) {
+            assertThat(restored.get(i).getId()).isEqualTo(products.get(i).getId());
+            assertThat(restored.get(i).getName()).isEqualTo(products.get(i).getName());
+            assertThat(restored.get(i).getDescription()).isEqualTo(products.get(i).getDescription());
+            assertThat(restored.get(i).getPrice()).isEqualTo(products.get(i).getPrice());
+        }
+        assertThat(batch.idAt(2)).isEqualTo(CompactProduct.NO_ID);
+        assertThat(batch.ids()).containsExactly(1L, 2L);
+    }
+
+    @Test(description = "Одинаковые описания хранятся одним кодом и одним экземпляром строки")
+    public void testDescriptionsAreDictionaryEncoded() {
+        ProductBatch batch = new ProductBatch(1);
+        for (int i = 0; i < 1_000; i++) {
+            batch.add(i, "P" + i, new String("Metal"), i);
+        }
+
+        assertThat(batch.size()).isEqualTo(1_000);
+        assertThat(batch.descriptionCodeAt(0)).isEqualTo(batch.descriptionCodeAt(999));
+        assertThat(batch.descriptionAt(0)).isSameAs(batch.descriptionAt(999));
+    }
+
+    @Test(description = "У каждого батча свой словарь описаний, общий словарь не растёт")
+    public void testDictionaryIsScopedToBatch() {
+        int sharedBefore = DescriptionDictionary.shared().size();
+        ProductBatch first = new ProductBatch(1);
+        ProductBatch second = new ProductBatch(1);
+        first.add(1, "A", "Только в первом " + System.nanoTime(), 1);
+        second.add(2, "B", "Wood", 1);
+
+        assertThat(first.descriptionCodeAt(0)).isEqualTo(second.descriptionCodeAt(0));
+        assertThat(second.descriptionAt(0)).isEqualTo("Wood");
+        assertThat(DescriptionDictionary.shared().size()).isEqualTo(sharedBefore);
+    }
+
+    @Test(description = "Заполненный ограниченный словарь возвращает строку как есть, encode отклоняет новое описание")
+    public void testBoundedDictionaryFallsBackToRawStrings() {
+        DescriptionDictionary dictionary = new DescriptionDictionary(2);
+        String metal = dictionary.intern("Metal");
+        dictionary.intern("Glass");
+        String extra = new String("Wood");
+
+        assertThat(dictionary.intern(new String("Metal"))).isSameAs(metal);
+        assertThat(dictionary.intern(extra)).isSameAs(extra);
+        assertThat(dictionary.intern(null)).isNull();
+        assertThat(dictionary.size()).isEqualTo(2);
+        assertThatThrownBy(() -> dictionary.encode("Wood")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test(description = "Ответ сервера (массив и страница) читается сразу в батч")
+    public void testReadFromJson() {
+        String array = "[{\"id\":5,\"name\":\"A\",\"description\":\"Glass\",\"price\":1.5},"
+                + "{\"id\":6,\"name\":\"B\",\"description\":\"Glass\",\"price\":150}]";
+        String page = "{\"content\":" + array + ",\"totalPages\":1}";
+
+        for (String body : List.of(array, page)) {
+            ProductBatch batch = FastJson.readProductBatch(body.getBytes(StandardCharsets.UTF_8));
+            assertThat(batch.ids()).containsExactly(5L, 6L);
+            assertThat(batch.priceAt(1)).isEqualTo(150.0);
+            assertThat(batch.descriptionAt(0)).isEqualTo("Glass");
+        }
+    }
+}
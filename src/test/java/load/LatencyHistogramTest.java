@@ -0,0 +1,133 @@
+package load;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.json.JSONObject;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Модульные тесты")
+@Feature("Гистограмма задержек")
+public class LatencyHistogramTest {
+
+    private static final double[] PERCENTILES = {0, 1, 50, 90, 99, 99.9, 100};
+
+    @Test(description = "Граница линейных корзин: 255 — точная корзина, 256 и 257 — одна корзина шириной 2")
+    public void testLinearBoundary() {
+        assertThat(LatencyHistogram.index(255)).isEqualTo(255);
+        assertThat(LatencyHistogram.upperBound(255)).isEqualTo(255);
+        assertThat(LatencyHistogram.index(256)).isEqualTo(256);
+        assertThat(LatencyHistogram.index(257)).isEqualTo(256);
+        assertThat(LatencyHistogram.upperBound(256)).isEqualTo(257);
+        assertThat(LatencyHistogram.index(258)).isEqualTo(257);
+    }
+
+    @Test(description = "Корзины идут подряд без пропусков, погрешность верхней границы не больше 1/128")
+    public void testBucketsContiguous() {
+        for (long value = 1; value < 1 << 20; value++) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.upperBound(index)).as("значение %d", value).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.upperBound(index - 1)).as("значение %d", value).isLessThan(value);
+            assertThat(LatencyHistogram.upperBound(index) - value).as("значение %d", value).isLessThanOrEqualTo(value / 128);
+        }
+    }
+
+    @Test(description = "MAX_MICROS — последняя корзина, большие и отрицательные значения приводятся к диапазону")
+    public void testMaxMicros() {
+        int last = LatencyHistogram.index(LatencyHistogram.MAX_MICROS);
+        assertThat(LatencyHistogram.upperBound(last)).isGreaterThanOrEqualTo(LatencyHistogram.MAX_MICROS);
+        assertThat(LatencyHistogram.upperBound(last - 1)).isLessThan(LatencyHistogram.MAX_MICROS);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        assertThat(histogram.count()).isEqualTo(2);
+        assertThat(histogram.max()).isEqualTo(LatencyHistogram.MAX_MICROS);
+        assertThat(histogram.percentile(100)).isEqualTo(LatencyHistogram.MAX_MICROS);
+        assertThat(histogram.percentile(50)).isZero();
+    }
+
+    @Test(description = "Процентили суммы гистограмм воркеров совпадают с процентилями одной гистограммы")
+    public void testMergedPercentilesMatchSingle() {
+        Random random = new Random(42);
+        LatencyHistogram single = new LatencyHistogram();
+        LatencyHistogram[] workers = {new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram()};
+        for (int i = 0; i < 50_000; i++) {
+            long micros = sample(random);
+            single.record(micros);
+            workers[i % workers.length].record(micros);
+        }
+
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram worker : workers) {
+            merged.add(worker);
+        }
+
+        assertSame(merged, single);
+    }
+
+    @Test(description = "minus двух снимков даёт гистограмму только интервальных замеров")
+    public void testMinusOfSnapshots() {
+        Random random = new Random(7);
+        LatencyHistogram accumulator = new LatencyHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            accumulator.record(sample(random));
+        }
+        LatencyHistogram earlier = accumulator.copy();
+
+        LatencyHistogram interval = new LatencyHistogram();
+        for (int i = 0; i < 5_000; i++) {
+            long micros = 500 + random.nextInt(1_000);
+            accumulator.record(micros);
+            interval.record(micros);
+        }
+        LatencyHistogram delta = accumulator.copy().minus(earlier);
+
+        assertThat(delta.count()).isEqualTo(interval.count());
+        assertThat(delta.mean()).isEqualTo(interval.mean());
+        for (double percentile : new double[]{1, 50, 90, 99}) {
+            assertThat(delta.percentile(percentile)).as("p%s", percentile).isEqualTo(interval.percentile(percentile));
+        }
+        // Максимум интервала — верхняя граница его старшей корзины
+        assertThat(delta.max()).isEqualTo(LatencyHistogram.upperBound(LatencyHistogram.index(interval.max())));
+        assertThat(accumulator.minus(accumulator.copy()).count()).isZero();
+    }
+
+    @Test(description = "toJson/fromJson сохраняют корзины, счётчик, сумму и максимум")
+    public void testJsonRoundTrip() {
+        Random random = new Random(3);
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 20_000; i++) {
+            histogram.record(sample(random));
+        }
+        histogram.record(LatencyHistogram.MAX_MICROS);
+
+        LatencyHistogram restored = LatencyHistogram.fromJson(new JSONObject(histogram.toJson().toString()));
+
+        assertSame(restored, histogram);
+        assertThat(restored.toJson().similar(histogram.toJson())).isTrue();
+
+        LatencyHistogram empty = LatencyHistogram.fromJson(new LatencyHistogram().toJson());
+        assertThat(empty.count()).isZero();
+        assertThat(empty.percentile(99)).isZero();
+    }
+
+    /**
+     * Задержки от единиц микросекунд до секунд: много быстрых ответов и длинный хвост.
+     */
+    private static long sample(Random random) {
+        return (long) Math.exp(random.nextGaussian() * 2 + 7);
+    }
+
+    private static void assertSame(LatencyHistogram actual, LatencyHistogram expected) {
+        assertThat(actual.count()).isEqualTo(expected.count());
+        assertThat(actual.max()).isEqualTo(expected.max());
+        assertThat(actual.mean()).isEqualTo(expected.mean());
+        for (double percentile : PERCENTILES) {
+            assertThat(actual.percentile(percentile)).as("p%s", percentile).isEqualTo(expected.percentile(percentile));
+        }
+    }
+}
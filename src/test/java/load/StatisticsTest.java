@@ -0,0 +1,74 @@
+package load;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Epic("Модульные тесты")
+@Feature("Статистика сравнения прогонов")
+public class StatisticsTest {
+
+    @Test(description = "p-value t-распределения совпадает с табличными значениями")
+    public void testStudentPAgainstTable() {
+        assertThat(Statistics.studentTwoSidedP(2.228, 10)).isCloseTo(0.05, within(1e-3));
+        assertThat(Statistics.studentTwoSidedP(-2.228, 10)).isCloseTo(0.05, within(1e-3));
+        assertThat(Statistics.studentTwoSidedP(1.812, 10)).isCloseTo(0.10, within(1e-3));
+        assertThat(Statistics.studentTwoSidedP(3.169, 10)).isCloseTo(0.01, within(1e-4));
+        assertThat(Statistics.studentTwoSidedP(2.086, 20)).isCloseTo(0.05, within(1e-3));
+        assertThat(Statistics.studentTwoSidedP(12.706, 1)).isCloseTo(0.05, within(1e-3));
+        // Большое число степеней свободы — нормальное распределение
+        assertThat(Statistics.studentTwoSidedP(1.96, 1_000_000)).isCloseTo(0.05, within(1e-3));
+    }
+
+    @Test(description = "p-value при df = 1 совпадает с распределением Коши, граничные значения t")
+    public void testStudentPClosedFormAndEdges() {
+        for (double t : new double[]{0.1, 0.5, 1, 3, 30}) {
+            assertThat(Statistics.studentTwoSidedP(t, 1)).as("t=%s", t)
+                    .isCloseTo(1 - 2 / Math.PI * Math.atan(t), within(1e-9));
+        }
+        assertThat(Statistics.studentTwoSidedP(0, 10)).isCloseTo(1, within(1e-12));
+        assertThat(Statistics.studentTwoSidedP(Double.POSITIVE_INFINITY, 10)).isZero();
+        assertThat(Statistics.studentTwoSidedP(Double.NaN, 10)).isEqualTo(1);
+        assertThat(Statistics.studentTwoSidedP(2, 0)).isEqualTo(1);
+    }
+
+    @Test(description = "Критические значения t совпадают с табличными")
+    public void testStudentCriticalValueAgainstTable() {
+        assertThat(Statistics.studentCriticalValue(0.05, 10)).isCloseTo(2.228, within(1e-3));
+        assertThat(Statistics.studentCriticalValue(0.05, 1)).isCloseTo(12.706, within(1e-3));
+        assertThat(Statistics.studentCriticalValue(0.05, 30)).isCloseTo(2.042, within(1e-3));
+        assertThat(Statistics.studentCriticalValue(0.01, 5)).isCloseTo(4.032, within(1e-3));
+        assertThat(Statistics.studentCriticalValue(0.10, 120)).isCloseTo(1.658, within(1e-3));
+    }
+
+    @Test(description = "Функция нормального распределения совпадает с табличными значениями")
+    public void testNormalCdfAgainstTable() {
+        assertThat(Statistics.normalCdf(0)).isCloseTo(0.5, within(1e-7));
+        assertThat(Statistics.normalCdf(1)).isCloseTo(0.8413, within(1e-4));
+        assertThat(Statistics.normalCdf(1.96)).isCloseTo(0.975, within(1e-4));
+        assertThat(Statistics.normalCdf(2.576)).isCloseTo(0.995, within(1e-4));
+        assertThat(Statistics.normalCdf(-1.645)).isCloseTo(0.05, within(1e-4));
+    }
+
+    @Test(description = "z-тест долей: 10/100 против 20/100 даёт p ≈ 0,048, вырожденные случаи — 1")
+    public void testTwoProportionP() {
+        assertThat(Statistics.twoProportionP(10, 100, 20, 100)).isCloseTo(0.0477, within(1e-3));
+        assertThat(Statistics.twoProportionP(20, 100, 10, 100)).isCloseTo(0.0477, within(1e-3));
+        assertThat(Statistics.twoProportionP(5, 100, 5, 100)).isCloseTo(1, within(1e-7));
+        assertThat(Statistics.twoProportionP(0, 100, 0, 100)).isEqualTo(1);
+        assertThat(Statistics.twoProportionP(1, 0, 1, 10)).isEqualTo(1);
+    }
+
+    @Test(description = "Неполная бета-функция: I_x(1, 1) = x и I_x(a, 1) = x^a")
+    public void testRegularizedIncompleteBeta() {
+        for (double x : new double[]{0.01, 0.3, 0.5, 0.7, 0.99}) {
+            assertThat(Statistics.regularizedIncompleteBeta(x, 1, 1)).as("x=%s", x).isCloseTo(x, within(1e-9));
+            assertThat(Statistics.regularizedIncompleteBeta(x, 3, 1)).as("x=%s", x).isCloseTo(Math.pow(x, 3), within(1e-9));
+        }
+        assertThat(Statistics.regularizedIncompleteBeta(0, 2, 3)).isZero();
+        assertThat(Statistics.regularizedIncompleteBeta(1, 2, 3)).isEqualTo(1);
+    }
+}
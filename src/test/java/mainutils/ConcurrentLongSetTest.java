@@ -0,0 +1,139 @@
+package mainutils;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Модульные тесты")
+@Feature("ConcurrentLongSet")
+public class ConcurrentLongSetTest {
+
+    /** Начальная ёмкость сегмента; до 8 элементов таблица не растёт. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Test(description = "Кластер коллизий, переходящий через конец таблицы: удаление сдвигает хвост, остальные находятся")
+    public void testRemoveInsideWrappedCluster() {
+        // Пять значений одного сегмента с «домашней» ячейкой 15: занимают 15, 0, 1, 2, 3
+        List<Long> wrapped = collidingValues(0, 15, 5);
+        // И одно с домашней ячейкой 1 — оказывается за ними, в ячейке 4
+        long homeOne = collidingValues(0, 1, 1).get(0);
+        ConcurrentLongSet set = new ConcurrentLongSet();
+        wrapped.forEach(set::add);
+        set.add(homeOne);
+
+        assertThat(set.remove(wrapped.get(0))).isTrue();
+        assertThat(set.remove(wrapped.get(2))).isTrue();
+
+        assertThat(set.contains(wrapped.get(0))).isFalse();
+        assertThat(set.contains(wrapped.get(2))).isFalse();
+        assertThat(set.contains(wrapped.get(1))).isTrue();
+        assertThat(set.contains(wrapped.get(3))).isTrue();
+        assertThat(set.contains(wrapped.get(4))).isTrue();
+        assertThat(set.contains(homeOne)).isTrue();
+        assertThat(set.size()).isEqualTo(4);
+    }
+
+    @Test(description = "Удаление и повторное добавление: contains и size согласованы с HashSet")
+    public void testRandomOperationsMatchHashSet() {
+        Random random = new Random(42);
+        ConcurrentLongSet set = new ConcurrentLongSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Маленький диапазон — много коллизий, удалений и повторных вставок
+            long value = random.nextInt(2_000) - 1_000;
+            switch (random.nextInt(3)) {
+                case 0 -> assertThat(set.add(value)).isEqualTo(expected.add(value));
+                case 1 -> assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+                default -> assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+            }
+        }
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long value = -1_000; value < 1_000; value++) {
+            assertThat(set.contains(value)).as("значение %d", value).isEqualTo(expected.contains(value));
+        }
+    }
+
+    @Test(description = "Ноль и отрицательные значения, включая Long.MIN_VALUE")
+    public void testZeroAndNegativeValues() {
+        ConcurrentLongSet set = new ConcurrentLongSet();
+
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.add(-1)).isTrue();
+        assertThat(set.add(Long.MIN_VALUE)).isTrue();
+        assertThat(set.size()).isEqualTo(3);
+        assertThat(set.toArray()).containsExactlyInAnyOrder(0L, -1L, Long.MIN_VALUE);
+
+        assertThat(set.remove(0)).isTrue();
+        assertThat(set.remove(0)).isFalse();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(-1)).isTrue();
+        assertThat(set.size()).isEqualTo(2);
+
+        set.clear();
+        assertThat(set.isEmpty()).isTrue();
+    }
+
+    @Test(description = "Параллельные добавления с расширением таблиц: ничего не теряется")
+    public void testConcurrentAddsDuringResize() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        ConcurrentLongSet set = new ConcurrentLongSet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = (long) t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long value = base; value < base + perThread; value++) {
+                        set.add(value);
+                        // Часть значений добавляется двумя потоками: пересекающиеся диапазоны
+                        set.add(value + perThread / 2);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long total = (long) threads * perThread + perThread / 2;
+        assertThat(set.size()).isEqualTo((int) total);
+        for (long value = 0; value < total; value++) {
+            assertThat(set.contains(value)).as("значение %d", value).isTrue();
+        }
+    }
+
+    /**
+     * Значения, попадающие в заданный сегмент и домашнюю ячейку таблицы начальной ёмкости.
+     */
+    private static List<Long> collidingValues(int segment, int home, int count) {
+        List<Long> values = new ArrayList<>();
+        for (long value = 1; values.size() < count; value++) {
+            long mixed = ConcurrentLongSet.mix(value);
+            if (((int) (mixed >>> 60) & 15) == segment && ((int) mixed & (INITIAL_CAPACITY - 1)) == home) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+}
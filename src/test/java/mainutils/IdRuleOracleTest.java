@@ -0,0 +1,82 @@
+package mainutils;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.annotations.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Epic("Модульные тесты")
+@Feature("Оракул правил по ID")
+public class IdRuleOracleTest {
+
+    private static final int MAX_ID = 20_000;
+    private final IdRuleOracle oracle = new IdRuleOracle(MAX_ID);
+
+    @Test(description = "Битовые множества совпадают с прямой проверкой каждого правила на всём диапазоне")
+    public void testClassesMatchNaiveRules() {
+        for (int id = 0; id <= MAX_ID; id++) {
+            for (IdRule rule : IdRule.values()) {
+                assertThat(oracle.has(id, rule)).as("%s для ID %d", rule, id).isEqualTo(rule.matches(id));
+            }
+        }
+    }
+
+    @Test(description = "nextId совпадает с перебором: нечётный, не простой и не палиндром")
+    public void testNextIdMatchesLinearScan() {
+        Set<IdRule> forbidden = EnumSet.of(IdRule.EVEN, IdRule.PRIME, IdRule.PALINDROME);
+        for (int from = 0; from <= MAX_ID; from += 37) {
+            assertThat(oracle.nextId(from, EnumSet.noneOf(IdRule.class), forbidden))
+                    .as("от %d", from).isEqualTo(scan(from, EnumSet.noneOf(IdRule.class), forbidden));
+        }
+        Set<IdRule> required = EnumSet.of(IdRule.DIVISIBLE_BY_3, IdRule.PALINDROME);
+        for (int from = 0; from <= MAX_ID; from += 101) {
+            assertThat(oracle.nextId(from, required, EnumSet.of(IdRule.EVEN)))
+                    .as("от %d", from).isEqualTo(scan(from, required, EnumSet.of(IdRule.EVEN)));
+        }
+    }
+
+    @Test(description = "За концом диапазона подходящего ID нет")
+    public void testNextIdBeyondRange() {
+        assertThat(oracle.nextId(MAX_ID + 1, EnumSet.noneOf(IdRule.class), EnumSet.noneOf(IdRule.class))).isEqualTo(-1);
+        assertThat(oracle.nextIdWithout(MAX_ID, IdRule.EVEN, IdRule.DIVISIBLE_BY_3)).isEqualTo(-1);
+    }
+
+    @Test(description = "Граница диапазона проверяется: отрицательная и Integer.MAX_VALUE отклоняются")
+    public void testBoundValidated() {
+        assertThatThrownBy(() -> new IdRuleOracle(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IdRuleOracle(Integer.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> oracle.has(MAX_ID + 1, IdRule.EVEN)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test(description = "Арифметическая проверка палиндрома: граничные значения")
+    public void testPalindromeEdgeCases() {
+        assertThat(IdRuleOracle.isPalindrome(0)).isTrue();
+        assertThat(IdRuleOracle.isPalindrome(7)).isTrue();
+        assertThat(IdRuleOracle.isPalindrome(10)).isFalse();
+        assertThat(IdRuleOracle.isPalindrome(1_000_000_001L)).isTrue();
+        assertThat(IdRuleOracle.isPalindrome(-121)).isFalse();
+        assertThat(IdRuleOracle.isPalindrome(Long.MAX_VALUE)).isFalse();
+        // Эталон — разворот строки
+        for (long id = 0; id <= MAX_ID; id++) {
+            String digits = Long.toString(id);
+            assertThat(IdRuleOracle.isPalindrome(id)).as("ID %d", id)
+                    .isEqualTo(new StringBuilder(digits).reverse().toString().equals(digits));
+        }
+    }
+
+    private static long scan(int from, Set<IdRule> required, Set<IdRule> forbidden) {
+        for (int id = from; id <= MAX_ID; id++) {
+            int candidate = id;
+            if (required.stream().allMatch(rule -> rule.matches(candidate))
+                    && forbidden.stream().noneMatch(rule -> rule.matches(candidate))) {
+                return id;
+            }
+        }
+        return -1;
+    }
+}
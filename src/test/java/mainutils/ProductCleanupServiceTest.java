@@ -0,0 +1,80 @@
+package mainutils;
+
+import domain.model.ProductBatch;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Модульные тесты")
+@Feature("Очистка продуктов")
+public class ProductCleanupServiceTest {
+
+    @Test(description = "Снимок для очистки собирается со всех страниц, а не только с первой")
+    public void testSnapshotWalksAllPages() {
+        List<Integer> requested = new ArrayList<>();
+        ProductBatch products = ProductCleanupService.snapshot((page, size) -> {
+            requested.add(page);
+            return page(page, 3, 7, size);
+        }, 3);
+
+        assertThat(requested).containsExactly(0, 1, 2);
+        assertThat(products.size()).isEqualTo(7);
+        for (int i = 0; i < products.size(); i++) {
+            assertThat(products.idAt(i)).isEqualTo(i + 1);
+            assertThat(products.priceAt(i)).isEqualTo(50.0 * (i + 1));
+        }
+    }
+
+    @Test(description = "ID, встретившийся на двух страницах, попадает в снимок один раз")
+    public void testSnapshotSkipsRepeatedIds() {
+        // Вторая страница сдвинулась на один продукт назад и повторяет ID 3
+        ProductBatch products = ProductCleanupService.snapshot((page, size) -> page == 0
+                ? envelope(2, product(1), product(2), product(3))
+                : envelope(2, product(3), product(4)), 3);
+
+        assertThat(products.size()).isEqualTo(4);
+        assertThat(new long[]{products.idAt(0), products.idAt(1), products.idAt(2), products.idAt(3)})
+                .containsExactly(1, 2, 3, 4);
+    }
+
+    @Test(description = "Ответ-массив без конверта — одна страница; пустая страница завершает обход")
+    public void testSnapshotPlainArrayAndEmptyPage() {
+        List<Integer> requested = new ArrayList<>();
+        ProductBatch array = ProductCleanupService.snapshot((page, size) -> {
+            requested.add(page);
+            return bytes("[" + product(1) + "," + product(2) + "]");
+        }, 100);
+        assertThat(array.size()).isEqualTo(2);
+        assertThat(requested).containsExactly(0);
+
+        ProductBatch empty = ProductCleanupService.snapshot((page, size) -> envelope(5), 100);
+        assertThat(empty.isEmpty()).isTrue();
+    }
+
+    private static byte[] page(int page, int size, int total, int requestedSize) {
+        assertThat(requestedSize).isEqualTo(size);
+        List<String> products = new ArrayList<>();
+        for (int id = page * size + 1; id <= Math.min(total, (page + 1) * size); id++) {
+            products.add(product(id));
+        }
+        return envelope((total + size - 1) / size, products.toArray(String[]::new));
+    }
+
+    private static byte[] envelope(int totalPages, String... products) {
+        return bytes("{\"content\":[" + String.join(",", products) + "],\"totalPages\":" + totalPages + "}");
+    }
+
+    private static String product(long id) {
+        return "{\"id\":" + id + ",\"name\":\"Продукт " + id + "\",\"description\":\"Steel\",\"price\":" + 50.0 * id + "}";
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package mainutils;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Модульные тесты")
+@Feature("Длительности тестов")
+public class TimingStoreTest {
+
+    @Test(description = "Первый замер записывается как есть, следующие сглаживаются пополам с прошлым значением")
+    public void testRecordSmoothing() throws IOException {
+        TimingStore store = TimingStore.load(Files.createTempDirectory("timings").resolve("absent.json"));
+        String key = TimingStore.key("Cls", "method");
+
+        store.record(key, 1000);
+        assertThat(store.millis(key)).hasValue(1000);
+        store.record(key, 3000);
+        assertThat(store.millis(key)).hasValue(2000);
+        store.record(key, 0);
+        assertThat(store.millis(key)).hasValue(1000);
+        // Округление: (1000 + 1) / 2 = 500.5 -> 501
+        store.record(key, 1);
+        assertThat(store.millis(key)).hasValue(501);
+    }
+
+    @Test(description = "Оценка без истории метода — медиана известных длительностей, без истории вообще — 1 с")
+    public void testEstimateDefaults() throws IOException {
+        TimingStore store = TimingStore.load(Files.createTempDirectory("timings").resolve("absent.json"));
+        assertThat(store.estimate("unknown")).isEqualTo(1000);
+
+        store.record("a", 100);
+        store.record("b", 300);
+        store.record("c", 200);
+        assertThat(store.estimate("unknown")).isEqualTo(200);
+        assertThat(store.estimate("b")).isEqualTo(300);
+    }
+
+    @Test(description = "save/load сохраняют замеры; saveRecorded пишет только замеры этого прогона")
+    public void testSaveAndSaveRecorded() throws IOException {
+        Path dir = Files.createTempDirectory("timings");
+        Path file = dir.resolve("timings.json");
+        TimingStore first = TimingStore.load(file);
+        first.record("a", 100);
+        first.record("b", 200);
+        first.save();
+
+        TimingStore second = TimingStore.load(file);
+        assertThat(second.size()).isEqualTo(2);
+        assertThat(second.millis("a")).hasValue(100);
+        second.record("b", 400);
+        Path shard = dir.resolve("shard.json");
+        second.saveRecorded(shard);
+
+        TimingStore own = TimingStore.load(shard);
+        assertThat(own.size()).isEqualTo(1);
+        assertThat(own.millis("b")).hasValue(300);
+    }
+
+    @Test(description = "Повреждённый файл даёт пустое хранилище")
+    public void testCorruptedFile() throws IOException {
+        Path file = Files.createTempDirectory("timings").resolve("timings.json");
+        Files.writeString(file, "{ not json");
+        assertThat(TimingStore.load(file).size()).isZero();
+    }
+}
@@ -3,18 +3,29 @@ package org.tests;
 import config.RestAssuredConfigurator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import mainutils.MockTimeProvider;
+import mainutils.ProductCleanupService;
+import mainutils.ScopedCleanupService;
+import mainutils.UserCleanupService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
 import client.ProductClient;
+import data.SeedManifest;
+import data.SeedManifestService;
 import data.TestDataSeeder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class BaseProductServiceTest {
 
     protected static List<Long> productIds = new ArrayList<>();
     protected static TestDataSeeder seeder = new TestDataSeeder();
     protected static ProductClient productClient = new ProductClient();
+    protected static SeedManifestService seedManifestService = new SeedManifestService(seeder);
+    private static final AtomicBoolean runScopeCleaned = new AtomicBoolean();
     protected static Logger logger = LoggerFactory.getLogger(BaseProductServiceTest.class);
 
     @BeforeClass(alwaysRun = true)
@@ -23,21 +34,42 @@ public abstract class BaseProductServiceTest {
       if (productIds == null || productIds.isEmpty()) {
             logger.info("📦 Проверка и инициализация данных перед тестами");
 
-            List<Long> existingIds = productClient.getAllProductIds();
-
-            if (existingIds == null || existingIds.isEmpty()) {
-                logger.warn("❌ Продукты не найдены. Запускаем сидер...");
-                seeder.seedAll();
-                productIds = seeder.getCreatedProductIds();
-                logger.info("✅ Сгенерированы продукты: {}", productIds);
-            } else {
-                productIds = existingIds;
-                logger.info("✅ Используем существующие продукты: {}", productIds);
-            }
+            // Манифест переживает перезапуск JVM: досеиваем только то, что пропало или изменилось на сервере
+            SeedManifest manifest = seedManifestService.ensureSeeded(10, 10);
+            productIds = manifest.getProductIds();
+            seeder.adoptSeededProducts(productIds);
 
             logger.info("📦 Загружено {} продуктов. ID: {}", productIds.size(), productIds);
         } else {
             logger.info("📦 Продукты уже загружены ранее: {}", productIds);
         }
     }
+
+    /**
+     * Страховка для тестов, которые фиксируют время через setFixedTime без try-with-resources:
+     * мок-время не должно утечь в следующий тест этого потока.
+     */
+    @AfterMethod(alwaysRun = true)
+    public void resetMockTime() {
+        MockTimeProvider.clear();
+    }
+
+    /**
+     * При -Dcleanup.scope=run удаляет только сущности, созданные этим запуском.
+     * Засеянные по манифесту данные сохраняются для следующих запусков.
+     * При -Dcleanup.scope=all очищает сервис полностью: продукты и пользователи (deleteAllUsers или параллельно).
+     */
+    @AfterSuite(alwaysRun = true)
+    public void cleanUpAfterRun() {
+        String scope = System.getProperty("cleanup.scope", "");
+        // Метод наследуют несколько тест-классов — очищаем один раз
+        if ((scope.equals("run") || scope.equals("all")) && runScopeCleaned.compareAndSet(false, true)) {
+            if (scope.equals("run")) {
+                new ScopedCleanupService().cleanUpCreated();
+            } else {
+                new ProductCleanupService().cleanUpAllProducts();
+                new UserCleanupService().cleanUpAllUsersFast();
+            }
+        }
+    }
 }
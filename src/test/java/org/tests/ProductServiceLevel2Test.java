@@ -9,9 +9,10 @@ import org.slf4j.LoggerFactory;
 import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
-import mainutils.MockTimeProvider;
 import testutil.TestUtils;
+import testutil.TimeWindow;
 
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -28,12 +29,10 @@ public class ProductServiceLevel2Test extends BaseProductServiceTest {
     @Description("Проверка: в ночной период с 22:00 до 06:00 сервер должен запрещать обновление продуктов и возвращать 403. " +
             "Если возвращается 500 — это известный баг BUG-QA2-01.")
     @Issue("BUG-QA2-01")
+    @TimeWindow(from = "22:00", to = "06:00")
     public void testUpdateForbiddenAtNight() {
-        // Arrange: Устанавливаем нужное мок-время и проверяем через assumeServerTime(...)
-        LocalDateTime nightTime = LocalDateTime.of(2023, 1, 1, 23, 0);
-        MockTimeProvider.setFixedTime(nightTime);
-
-        TestUtils.assumeServerTime(nightTime);
+        // Arrange: Время в окне задаёт TimeWindowScheduler, мок-время сверяется с сервером в windowTime()
+        LocalDateTime nightTime = TestUtils.windowTime();
         logger.info("🕐 Установлено серверное время: {}", nightTime);
 
         Long productId = productIds.get(0);
@@ -51,11 +50,10 @@ public class ProductServiceLevel2Test extends BaseProductServiceTest {
     @Description("Проверка: если сегодня понедельник и текущее серверное время до 09:00, то удаление продукта должно быть запрещено (403). " +
             "Если сервер возвращает 500 — это известный баг BUG-QA2-02.")
     @Issue("BUG-QA2-02")
+    @TimeWindow(days = DayOfWeek.MONDAY, to = "09:00")
     public void testDeleteForbiddenOnMondayMorning() {
-        // Arrange: Устанавливаем нужное мок-время и проверяем через assumeServerTime(...)
-        LocalDateTime monday0830 = LocalDateTime.of(2025, 5, 19, 8, 30);
-        MockTimeProvider.setFixedTime(monday0830);
-        TestUtils.assumeServerTime(monday0830);
+        // Arrange: Время в окне задаёт TimeWindowScheduler, мок-время сверяется с сервером в windowTime()
+        LocalDateTime monday0830 = TestUtils.windowTime();
         logger.info("🕐 Установлено серверное время: {}", monday0830);
 
         Long productId = productIds.get(1);
@@ -73,11 +71,10 @@ public class ProductServiceLevel2Test extends BaseProductServiceTest {
     @Description("Проверка: если время попадает в окно обслуживания (minute % 5 == 0 и seconds < 30), " +
             "сервер должен возвращать 503. Если он возвращает 500 — это известный баг BUG-QA2-03.")
     @Issue("BUG-QA2-03")
+    @TimeWindow(minuteModulo = 5, maxSecond = 30)
     public void testMaintenanceWindowReturns503() {
-        // Arrange: Устанавливаем нужное мок-время и проверяем через assumeServerTime(...)
-        LocalDateTime maintenanceTime = LocalDateTime.of(2023, 1, 1, 12, 5, 10);
-        MockTimeProvider.setFixedTime(maintenanceTime);
-        TestUtils.assumeServerTime(maintenanceTime);
+        // Arrange: Время в окне задаёт TimeWindowScheduler, мок-время сверяется с сервером в windowTime()
+        LocalDateTime maintenanceTime = TestUtils.windowTime();
         logger.info("🛠️ Время установлено на окно обслуживания: {}", maintenanceTime);
 
         Long productId = productIds.get(2);
@@ -12,9 +12,11 @@ import org.testng.annotations.Test;
 import io.restassured.response.Response;
 import mainutils.MockTimeProvider;
 import testutil.TestUtils;
+import testutil.TimeWindow;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 import static org.mockito.Mockito.*;
@@ -88,11 +90,10 @@ public class ProductServiceLevel3Test extends BaseProductServiceTest {
     @Description("Проверка, что продукты с ID < 1000 недоступны в воскресенье утром (ожидается 403). " +
             "Если возвращается 200 или 500 — это баг BUG-QA3-03. В тесте используется фиктивное время.")
     @Issue("BUG-QA3-03")
+    @TimeWindow(days = DayOfWeek.SUNDAY, to = "12:00")
     public void testAccessRestrictedByIdAndTime_ProductsOnly() {
-        // Arrange: Устанавливаем фиксированное время — воскресенье, 18 мая 2025 года, 09:00
-        LocalDateTime mockTime = LocalDateTime.of(2025, 5, 18, 9, 0);
-        MockTimeProvider.setFixedTime(mockTime);
-        TestUtils.assumeServerTime(mockTime);
+        // Arrange: Время задаёт TimeWindowScheduler — воскресенье до 12:00
+        LocalDateTime mockTime = TestUtils.windowTime();
 
         logger.info("🔍 Тест BUG-QA3-03: Проверка доступа к продуктам с ID < 1000 в ограниченное время");
         logger.info("🕒 Мок-время установлено на {} ({})",
@@ -128,11 +129,10 @@ public class ProductServiceLevel3Test extends BaseProductServiceTest {
     @Description("Проверка, что сервер отклоняет PUT-запросы в период обслуживания (12:00–13:00). " +
             "Если в это время сервер возвращает 200 вместо 503 — это баг BUG-QA3-04.")
     @Issue("BUG-QA3-04")
+    @TimeWindow(from = "12:00", to = "13:00")
     public void testPutDuringMaintenance() {
-        // Arrange: Устанавливаем мок-время: 12:05:20 (внутри окна обслуживания)
-        LocalDateTime maintenanceTime = LocalDateTime.of(2025, 5, 26, 12, 5, 20);
-        MockTimeProvider.setFixedTime(maintenanceTime);
-
+        // Arrange: Время задаёт TimeWindowScheduler — внутри окна обслуживания 12:00–13:00
+        LocalDateTime maintenanceTime = MockTimeProvider.now();
         Product product = seeder.generateProduct();
         Long id = productIds.get(1);
 
@@ -153,11 +153,10 @@ public class ProductServiceLevel3Test extends BaseProductServiceTest {
     @Description("Проверка, что по средам обновление продукта (PUT) запрещено. " +
             "Если сервер в этот день возвращает 200 — это баг BUG-QA3-05.")
     @Issue("BUG-QA3-05")
+    @TimeWindow(days = DayOfWeek.WEDNESDAY)
     public void testPutForbiddenOnWednesday() {
-        // Arrange: устанавливаем фиктивное время — среда, 4 января 2023 года
-        LocalDateTime wednesday = LocalDateTime.of(2023, 1, 4, 14, 0);// среда
-        MockTimeProvider.setFixedTime(wednesday);
-
+        // Arrange: время задаёт TimeWindowScheduler — среда
+        LocalDateTime wednesday = MockTimeProvider.now();
 //        LocalDateTime monday = LocalDateTime.of(2025, 5, 26, 14, 0); // Понедельник
 //        MockTimeProvider.setFixedTime(monday);
 
@@ -353,12 +352,12 @@ public class ProductServiceLevel3Test extends BaseProductServiceTest {
 Сервер должен возвращать 503, но вместо этого возвращает 200 — это баг.
 """)
     @Issue("BUG-QA3-11")
+    @TimeWindow(from = "12:00", to = "12:30")
     public void testCreateDuringMaintenanceWindow() {
         logger.info("🔍 Тест BUG-QA3-11: создание продукта в период технического окна должно быть заблокировано");
 
-        // Arrange: устанавливаем фиксированное время на 12:10 (внутри тех. окна)
-        LocalDateTime maintenanceTime = LocalDateTime.of(2025, 5, 19, 12, 10, 10);
-        MockTimeProvider.setFixedTime(maintenanceTime);
+        // Arrange: время задаёт TimeWindowScheduler — внутри тех. окна 12:00–12:30
+        LocalDateTime maintenanceTime = MockTimeProvider.now();
         logger.info("🕒 Время установлено на {}", maintenanceTime);
 
         // Act: пытаемся создать продукт
@@ -0,0 +1,214 @@
+package testutil;
+
+import mainutils.Shard;
+import mainutils.TimingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+/**
+ * Порядок тестов по длительностям прошлых прогонов (longest processing time first).
+ * <p>
+ * TestNG после перехватчика всё равно упорядочивает методы по {@code priority} и соблюдает
+ * {@code dependsOnMethods}, поэтому перехватчик управляет порядком внутри одного приоритета: первыми идут
+ * методы с самым длинным критическим путём (собственная длительность плюс самая длинная цепочка
+ * зависящих от него методов). Пул потоков TestNG берёт методы по очереди на освободившийся поток —
+ * вместе это и есть LPT-распределение по воркерам.
+ * <p>
+ * Выигрыш есть только при параллельном запуске методов ({@code parallel="methods"}, {@code "classes"} или
+ * {@code "instances"} с {@code thread-count} больше 1). На одном воркере общее время равно сумме длительностей
+ * при любом порядке, поэтому перестановка пропускается, а длительности всё равно записываются.
+ * <p>
+ * Длительности хранятся в {@link TimingStore} ({@code timing.store.path}, по умолчанию
+ * {@code .test-timings.json}) и обновляются в конце набора. Оконные тесты ({@link TimeWindow}) не
+ * переставляются и не замеряются — их время включает ожидание окна. Шард ({@link Shard}) читает общий файл,
+ * а пишет свой; общий файл собирает {@code ShardResultsMerger}. Число воркеров берётся из
+ * параллельного режима набора или {@code scheduler.workers}; {@code -Dscheduler.lpt=false} отключает перестановку.
+ */
+public class DurationAwareScheduler implements IMethodInterceptor, ITestListener, ISuiteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurationAwareScheduler.class);
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("scheduler.lpt", "true"));
+
+    private static final Path STORE_PATH = Path.of(System.getProperty("timing.store.path", ".test-timings.json"));
+    private static final TimingStore STORE = TimingStore.load(STORE_PATH);
+    private static final AtomicBoolean RECORDED = new AtomicBoolean();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!ENABLED || methods.size() < 2) {
+            return methods;
+        }
+        int workers = workers(context);
+        if (workers == 1) {
+            logger.info("📐 {}: один воркер — порядок не влияет на общее время, LPT-перестановка пропущена", context.getName());
+            return methods;
+        }
+        List<IMethodInstance> regular = new ArrayList<>();
+        List<IMethodInstance> windowed = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            (isWindowed(instance.getMethod()) ? windowed : regular).add(instance);
+        }
+
+        Map<ITestNGMethod, Long> ranks = criticalPaths(
+                regular.stream().map(IMethodInstance::getMethod).toList(), DurationAwareScheduler::estimate);
+        Map<Integer, List<IMethodInstance>> levels = new TreeMap<>();
+        for (IMethodInstance instance : regular) {
+            levels.computeIfAbsent(instance.getMethod().getPriority(), priority -> new ArrayList<>()).add(instance);
+        }
+
+        long predicted = 0;
+        long lowerBound = 0;
+        List<IMethodInstance> ordered = new ArrayList<>(methods.size());
+        for (List<IMethodInstance> level : levels.values()) {
+            level.sort(Comparator.comparingLong((IMethodInstance instance) -> ranks.get(instance.getMethod())).reversed());
+            ordered.addAll(level);
+
+            long[] durations = level.stream().mapToLong(instance -> estimate(instance.getMethod())).toArray();
+            predicted += makespan(durations, workers);
+            long total = 0;
+            long longest = 0;
+            for (long duration : durations) {
+                total += duration;
+                longest = Math.max(longest, duration);
+            }
+            lowerBound += Math.max(longest, (total + workers - 1) / workers);
+        }
+        ordered.addAll(windowed);
+
+        logger.info("📐 {}: LPT-порядок {} методов на {} воркер(ов), прогноз {} мс при нижней границе {} мс (история: {} методов)",
+                context.getName(), regular.size(), workers, predicted, lowerBound, STORE.size());
+        return ordered;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (RECORDED.getAndSet(false)) {
+            if (Shard.isEnabled()) {
+                STORE.saveRecorded(Shard.partition(STORE_PATH));
+            } else {
+                STORE.save();
+            }
+            logger.info("💾 Длительности тестов сохранены ({}, {} методов)", Shard.describe(), STORE.size());
+        }
+    }
+
+    /**
+     * Длина критического пути для каждого метода: своя длительность плюс самая длинная цепочка
+     * методов, которые от него зависят (в пределах текущего списка).
+     */
+    static Map<ITestNGMethod, Long> criticalPaths(List<ITestNGMethod> methods, ToLongFunction<ITestNGMethod> estimate) {
+        Map<String, ITestNGMethod> byName = new HashMap<>();
+        for (ITestNGMethod method : methods) {
+            byName.put(method.getQualifiedName(), method);
+        }
+        Map<ITestNGMethod, List<ITestNGMethod>> dependents = new HashMap<>();
+        for (ITestNGMethod method : methods) {
+            for (String upstream : method.getMethodsDependedUpon()) {
+                ITestNGMethod dependency = byName.get(upstream);
+                if (dependency != null) {
+                    dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(method);
+                }
+            }
+        }
+        Map<ITestNGMethod, Long> ranks = new HashMap<>();
+        for (ITestNGMethod method : methods) {
+            rank(method, dependents, ranks, estimate);
+        }
+        return ranks;
+    }
+
+    private static long rank(ITestNGMethod method, Map<ITestNGMethod, List<ITestNGMethod>> dependents,
+                             Map<ITestNGMethod, Long> ranks, ToLongFunction<ITestNGMethod> estimate) {
+        Long known = ranks.get(method);
+        if (known != null) {
+            return known;
+        }
+        // Защита от циклов: TestNG сам отклонит такой набор, здесь достаточно не зациклиться
+        ranks.put(method, estimate.applyAsLong(method));
+        long longestTail = 0;
+        for (ITestNGMethod dependent : dependents.getOrDefault(method, List.of())) {
+            longestTail = Math.max(longestTail, rank(dependent, dependents, ranks, estimate));
+        }
+        long rank = estimate.applyAsLong(method) + longestTail;
+        ranks.put(method, rank);
+        return rank;
+    }
+
+    /**
+     * Время выполнения уровня при жадной раздаче методов (в заданном порядке) на освободившийся воркер.
+     */
+    static long makespan(long[] durations, int workers) {
+        PriorityQueue<Long> loads = new PriorityQueue<>();
+        for (int i = 0; i < workers; i++) {
+            loads.add(0L);
+        }
+        long makespan = 0;
+        for (long duration : durations) {
+            long finish = loads.poll() + duration;
+            makespan = Math.max(makespan, finish);
+            loads.add(finish);
+        }
+        return makespan;
+    }
+
+    private static int workers(ITestContext context) {
+        Integer configured = Integer.getInteger("scheduler.workers");
+        if (configured != null) {
+            return Math.max(1, configured);
+        }
+        XmlSuite suite = context.getSuite().getXmlSuite();
+        XmlSuite.ParallelMode mode = suite.getParallel();
+        boolean parallel = mode != null && mode != XmlSuite.ParallelMode.NONE && mode != XmlSuite.ParallelMode.TESTS;
+        return parallel ? Math.max(1, suite.getThreadCount()) : 1;
+    }
+
+    private static long estimate(ITestNGMethod method) {
+        return STORE.estimate(TimingStore.key(method.getRealClass().getName(), method.getMethodName()));
+    }
+
+    private static void record(ITestResult result) {
+        ITestNGMethod method = result.getMethod();
+        if (isWindowed(method)) {
+            return;
+        }
+        STORE.record(TimingStore.key(method.getRealClass().getName(), method.getMethodName()),
+                result.getEndMillis() - result.getStartMillis());
+        RECORDED.set(true);
+    }
+
+    private static boolean isWindowed(ITestNGMethod method) {
+        Method javaMethod = method.getConstructorOrMethod().getMethod();
+        return javaMethod != null && javaMethod.isAnnotationPresent(TimeWindow.class);
+    }
+}
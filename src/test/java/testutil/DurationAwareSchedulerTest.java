@@ -0,0 +1,71 @@
+package testutil;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Модульные тесты")
+@Feature("Планировщик по длительностям")
+public class DurationAwareSchedulerTest {
+
+    @Test(description = "makespan: жадная раздача на освободившийся воркер, LPT-порядок не хуже исходного")
+    public void testMakespan() {
+        assertThat(DurationAwareScheduler.makespan(new long[]{5, 3, 2}, 1)).isEqualTo(10);
+        assertThat(DurationAwareScheduler.makespan(new long[]{5, 3, 2}, 2)).isEqualTo(5);
+        assertThat(DurationAwareScheduler.makespan(new long[]{2, 2, 3, 3}, 2)).isEqualTo(5);
+        // Длинный метод в конце: {1, 1, 4} на двух воркерах — 5, по убыванию — 4
+        assertThat(DurationAwareScheduler.makespan(new long[]{1, 1, 4}, 2)).isEqualTo(5);
+        assertThat(DurationAwareScheduler.makespan(new long[]{4, 1, 1}, 2)).isEqualTo(4);
+        assertThat(DurationAwareScheduler.makespan(new long[]{7}, 4)).isEqualTo(7);
+        assertThat(DurationAwareScheduler.makespan(new long[0], 3)).isZero();
+    }
+
+    @Test(description = "Критический путь: своя длительность плюс самая длинная цепочка зависящих методов")
+    public void testCriticalPaths() {
+        // a -> b -> d, a -> c; e независим
+        ITestNGMethod a = method("a");
+        ITestNGMethod b = method("b", "a");
+        ITestNGMethod c = method("c", "a");
+        ITestNGMethod d = method("d", "b");
+        ITestNGMethod e = method("e");
+        Map<String, Long> durations = Map.of("a", 10L, "b", 20L, "c", 50L, "d", 40L, "e", 15L);
+
+        Map<ITestNGMethod, Long> ranks = DurationAwareScheduler.criticalPaths(List.of(d, c, b, a, e),
+                method -> durations.get(method.getQualifiedName()));
+
+        assertThat(ranks).containsEntry(d, 40L).containsEntry(b, 60L).containsEntry(c, 50L)
+                .containsEntry(a, 70L).containsEntry(e, 15L);
+    }
+
+    @Test(description = "Критический путь: зависимость вне списка не учитывается, цикл не зацикливает")
+    public void testCriticalPathsOutsideAndCycle() {
+        ITestNGMethod lone = method("lone", "missing");
+        ITestNGMethod x = method("x", "y");
+        ITestNGMethod y = method("y", "x");
+
+        Map<ITestNGMethod, Long> ranks = DurationAwareScheduler.criticalPaths(List.of(lone, x, y), method -> 5L);
+
+        assertThat(ranks).containsEntry(lone, 5L).containsKeys(x, y);
+    }
+
+    /**
+     * Метод TestNG с квалифицированным именем и зависимостями — остальное планировщику не нужно.
+     */
+    private static ITestNGMethod method(String name, String... dependsOn) {
+        return (ITestNGMethod) Proxy.newProxyInstance(ITestNGMethod.class.getClassLoader(),
+                new Class<?>[]{ITestNGMethod.class}, (proxy, invoked, args) -> switch (invoked.getName()) {
+                    case "getQualifiedName", "toString" -> name;
+                    case "getMethodsDependedUpon" -> dependsOn;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(invoked.getName());
+                });
+    }
+}
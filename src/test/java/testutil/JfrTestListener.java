@@ -0,0 +1,69 @@
+package testutil;
+
+import mainutils.jfr.JfrEvents;
+import mainutils.jfr.TestMethodEvent;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.nio.file.Path;
+
+/**
+ * События JFR для тестовых методов TestNG ({@link TestMethodEvent}).
+ * <p>
+ * При {@code -Djfr.record=<файл.jfr>} запись JFR запускается в начале набора и сохраняется в конце,
+ * без этого события попадают только во внешнюю запись (например, {@code -XX:StartFlightRecording}).
+ */
+public class JfrTestListener implements ITestListener, ISuiteListener {
+
+    private static final String EVENT_ATTRIBUTE = "jfr.testMethodEvent";
+
+    @Override
+    public void onStart(ISuite suite) {
+        String destination = System.getProperty("jfr.record");
+        if (destination != null && !destination.isBlank()) {
+            JfrEvents.startRecording(Path.of(destination));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        JfrEvents.stopRecording();
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        TestMethodEvent event = JfrEvents.testStarted(result.getTestClass().getName(), result.getMethod().getMethodName());
+        if (event != null) {
+            result.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        finish(result, "PASSED");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        finish(result, "FAILED");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        finish(result, "SKIPPED");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        finish(result, "FAILED_WITHIN_SUCCESS_PERCENTAGE");
+    }
+
+    private static void finish(ITestResult result, String status) {
+        Object event = result.removeAttribute(EVENT_ATTRIBUTE);
+        if (event instanceof TestMethodEvent testMethodEvent) {
+            JfrEvents.testFinished(testMethodEvent, status);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package testutil;
+
+import io.qameta.allure.testng.AllureTestNg;
+import mainutils.allure.CompactResultsWriter;
+import mainutils.allure.LeanAllure;
+import mainutils.allure.LeanAllureLifecycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.ISuite;
+
+/**
+ * Слушатель Allure для TestNG с облегчённым жизненным циклом ({@link LeanAllureLifecycle}).
+ * <p>
+ * Отчёт тот же, что у {@link AllureTestNg}, но массовые операции внутри {@link LeanAllure#bulk(String)}
+ * дают один сводный шаг вместо шага на каждый вызов клиента. Регистрируется вместо AllureTestNg —
+ * в наборе и в {@code META-INF/services}; сам AllureTestNg, который allure-testng подключает через ServiceLoader,
+ * отключается в surefire ({@code spilistenerstoskip}), иначе каждый результат теста запишется дважды.
+ * В конце набора в лог пишется сводка {@link CompactResultsWriter}, а его архив вложений закрывается.
+ */
+public class LeanAllureTestNg extends AllureTestNg {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeanAllureTestNg.class);
+
+    private final LeanAllureLifecycle lifecycle;
+
+    public LeanAllureTestNg() {
+        this(LeanAllureLifecycle.install());
+    }
+
+    private LeanAllureTestNg(LeanAllureLifecycle lifecycle) {
+        super(lifecycle);
+        this.lifecycle = lifecycle;
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        super.onFinish(suite);
+        lifecycle.writer().close();
+        logger.info("🗂️ Результаты Allure: {}", lifecycle.writer().describe());
+    }
+}
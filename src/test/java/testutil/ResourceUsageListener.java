@@ -0,0 +1,164 @@
+package testutil;
+
+import client.http.ApiCall;
+import client.http.SingleFlight;
+import io.qameta.allure.Allure;
+import mainutils.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Учёт клиентских ресурсов по тестам: CPU потока, выделенная память и время без ожидания HTTP.
+ * <p>
+ * Замер идёт в потоке теста через {@link com.sun.management.ThreadMXBean}; время ожидания транспорта
+ * берётся из {@link ApiCall#threadHttpNanos()} и вычитается из wall time. Так видно, какие тесты
+ * тратят время на Faker, pretty-print, GPath и прочую клиентскую работу, а не на сервер.
+ * <p>
+ * Значения добавляются параметрами в Allure каждого теста; в конце набора рейтинг по CPU пишется в лог
+ * и в файл {@code resource.report.path} (по умолчанию {@code target/resource-usage.txt}).
+ * Туда же пишется сводка объединения запросов ({@link SingleFlight}), если оно включено.
+ */
+public class ResourceUsageListener implements IInvokedMethodListener, ISuiteListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceUsageListener.class);
+    private static final String START_ATTRIBUTE = "resourceUsage.start";
+    private static final int LOGGED_TOP = 15;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Queue<Usage> usages = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Ресурсы одного теста.
+     * @param clientWallNanos wall time за вычетом ожидания транспорта
+     */
+    public record Usage(String test, String status, long wallNanos, long cpuNanos, long allocatedBytes,
+                        long httpWaitNanos, long httpCalls, long clientWallNanos) {
+
+        /**
+         * Доля CPU в клиентском времени: около 1 — тест считает, около 0 — спит или ждёт не HTTP.
+         */
+        public double cpuShare() {
+            return clientWallNanos > 0 ? (double) cpuNanos / clientWallNanos : 0;
+        }
+    }
+
+    private record Start(long wall, long cpu, long allocated, long httpWait, long httpCalls) {
+    }
+
+    static {
+        if (THREADS.isThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+        if (THREADS.isThreadAllocatedMemorySupported() && !THREADS.isThreadAllocatedMemoryEnabled()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        result.setAttribute(START_ATTRIBUTE, new Start(System.nanoTime(), THREADS.getCurrentThreadCpuTime(),
+                THREADS.getCurrentThreadAllocatedBytes(), ApiCall.threadHttpNanos(), ApiCall.threadHttpCalls()));
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod() || !(result.removeAttribute(START_ATTRIBUTE) instanceof Start start)) {
+            return;
+        }
+        long wall = System.nanoTime() - start.wall();
+        long httpWait = ApiCall.threadHttpNanos() - start.httpWait();
+        Usage usage = new Usage(
+                result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName(),
+                status(result),
+                wall,
+                THREADS.getCurrentThreadCpuTime() - start.cpu(),
+                THREADS.getCurrentThreadAllocatedBytes() - start.allocated(),
+                httpWait,
+                ApiCall.threadHttpCalls() - start.httpCalls(),
+                Math.max(0, wall - httpWait));
+        usages.add(usage);
+
+        // afterInvocation идёт до onTestSuccess/onTestFailure, тест в Allure ещё открыт
+        Allure.parameter("client.cpu.ms", millis(usage.cpuNanos()));
+        Allure.parameter("client.alloc.mb", String.format("%.1f", usage.allocatedBytes() / 1_048_576.0));
+        Allure.parameter("client.wall.ms", millis(usage.clientWallNanos()));
+        Allure.parameter("http.wait.ms", millis(usage.httpWaitNanos()));
+        Allure.parameter("http.calls", usage.httpCalls());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        String coalescing = SingleFlight.report();
+        for (String line : coalescing.lines().toList()) {
+            logger.info("🔗 {}", line);
+        }
+        if (usages.isEmpty()) {
+            return;
+        }
+        List<Usage> ranked = new ArrayList<>(usages);
+        ranked.sort(Comparator.comparingLong(Usage::cpuNanos).reversed());
+        usages.clear();
+
+        StringBuilder report = new StringBuilder(String.format("%-70s %-8s %10s %10s %10s %10s %6s %9s%n",
+                "Тест", "Статус", "CPU мс", "Алл. МБ", "Клиент мс", "HTTP мс", "Вызов", "CPU доля"));
+        for (Usage usage : ranked) {
+            report.append(String.format("%-70s %-8s %10s %10.1f %10s %10s %6d %9.2f%n",
+                    usage.test(), usage.status(), millis(usage.cpuNanos()), usage.allocatedBytes() / 1_048_576.0,
+                    millis(usage.clientWallNanos()), millis(usage.httpWaitNanos()), usage.httpCalls(), usage.cpuShare()));
+        }
+
+        String[] lines = report.toString().split("\n");
+        logger.info("📊 Клиентские ресурсы по тестам (топ-{} по CPU):", Math.min(LOGGED_TOP, ranked.size()));
+        for (int i = 0; i < Math.min(LOGGED_TOP + 1, lines.length); i++) {
+            logger.info("{}", lines[i]);
+        }
+
+        Path path = Shard.partition(Path.of(System.getProperty("resource.report.path", "target/resource-usage.txt")));
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (!coalescing.isEmpty()) {
+                report.append(System.lineSeparator()).append("Объединение запросов:").append(System.lineSeparator()).append(coalescing);
+            }
+            Files.writeString(path, report, StandardCharsets.UTF_8);
+            logger.info("📄 Полный отчёт: {}", path.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("⚠️ Не удалось записать отчёт {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    private static String status(ITestResult result) {
+        return switch (result.getStatus()) {
+            case ITestResult.SUCCESS -> "PASSED";
+            case ITestResult.FAILURE -> "FAILED";
+            case ITestResult.SKIP -> "SKIPPED";
+            default -> String.valueOf(result.getStatus());
+        };
+    }
+}
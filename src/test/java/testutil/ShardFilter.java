@@ -0,0 +1,54 @@
+package testutil;
+
+import mainutils.Shard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Оставляет в прогоне только тесты своего шарда ({@link Shard}).
+ * <p>
+ * По умолчанию делится по методам, но класс, где есть {@code dependsOnMethods}/{@code dependsOnGroups},
+ * целиком уходит в один шард — иначе зависимость оказалась бы в другом процессе.
+ * {@code -Dshard.granularity=class} делит только по классам (для классов с общим состоянием между методами).
+ */
+public class ShardFilter implements IMethodInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardFilter.class);
+    private static final boolean BY_CLASS = "class".equalsIgnoreCase(System.getProperty("shard.granularity", "method"));
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!Shard.isEnabled()) {
+            return methods;
+        }
+        Set<Class<?>> wholeClasses = new HashSet<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            if (BY_CLASS || method.getMethodsDependedUpon().length > 0 || method.getGroupsDependedUpon().length > 0) {
+                wholeClasses.add(method.getRealClass());
+            }
+        }
+
+        List<IMethodInstance> owned = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            String key = wholeClasses.contains(method.getRealClass())
+                    ? method.getRealClass().getName()
+                    : method.getRealClass().getName() + "#" + method.getMethodName();
+            if (Shard.owns(key)) {
+                owned.add(instance);
+            }
+        }
+        logger.info("🧩 {}: {} — {} из {} методов", context.getName(), Shard.describe(), owned.size(), methods.size());
+        return owned;
+    }
+}
@@ -1,6 +1,11 @@
 package testutil;
 
 import io.qameta.allure.Allure;
+import mainutils.IdRuleOracle;
+import client.http.EndpointPool;
+import mainutils.MockTimeProvider;
+import mainutils.ServerTimeHook;
+import mainutils.allure.CompactResultsWriter;
 import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import org.assertj.core.api.Assumptions;
@@ -13,7 +18,6 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 
-import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.*;
 import static org.testng.Assert.assertEquals;
 
@@ -22,7 +26,8 @@ public class TestUtils {
 
     public static void assertOrSkipIfKnownBug(Response response, int expectedCode, String issueId) {
         int actual = response.statusCode();
-        String body = response.getBody().asString();
+        // Тело для вложений: длинные ответы обрезаются с SHA-256 полного тела
+        String body = CompactResultsWriter.capText(response.getBody().asString());
 
         if (actual == expectedCode) {
             logger.info("✅ Ожидаемый код ответа: {}", actual);
@@ -40,49 +45,67 @@ public class TestUtils {
        }
 
     public static boolean isPalindrome(Long id) {
-        String str = String.valueOf(id);
-        return str.equals(new StringBuilder(str).reverse().toString());
+        // Арифметическая проверка без строк; null палиндромом не считается
+        return id != null && IdRuleOracle.isPalindrome(id);
     }
+
+    /**
+     * Время оконного теста ({@link TimeWindow}), заданное {@link TimeWindowScheduler}. Мок-время сервер должен
+     * подтвердить ({@link #assumeServerTime(LocalDateTime)}); реальное время сервера на равенство не сверяется.
+     */
+    public static LocalDateTime windowTime() {
+        LocalDateTime time = MockTimeProvider.now();
+        if (MockTimeProvider.isOverridden()) {
+            assumeServerTime(time);
+        }
+        return time;
+    }
+
+    /**
+     * Сверяет время каждой реплики пула ({@code api.base.urls}) с ожидаемым.
+     */
     public static void assumeServerTime(LocalDateTime expected) {
-            Response resp = given().get("/api/time"); // пример вызова
+        for (EndpointPool.Endpoint replica : EndpointPool.shared().endpoints()) {
+            // Мок-время потока уходит заголовком: сервер, который его учитывает, вернёт его же
+            Response resp = MockTimeProvider.propagate(ServerTimeHook.at(replica)).get();
             int code = resp.statusCode();
 
             if (code == 404) {
-                logger.warn("⚠️ /api/time не найден (404). Пропускаем тест.");
+                logger.warn("⚠️ /api/time не найден на {} (404). Пропускаем тест.", replica.url());
                 throw new SkipException("/api/time не поддерживается сервером");
             }
 
             if (code == 500) {
-                logger.warn("⚠️ Сервер вернул 500 на /api/time — известный баг. Пропускаем тест.");
+                logger.warn("⚠️ Реплика {} вернула 500 на /api/time — известный баг. Пропускаем тест.", replica.url());
                 throw new SkipException("Известный баг на /api/time");
             }
 
             if (code != 200) {
-                throw new AssertionError("Ожидался 200, но получили " + code);
+                throw new AssertionError("Ожидался 200 от " + replica.url() + ", но получили " + code);
             }
 
             String serverTimeStr = resp.jsonPath().getString("time"); // например, поле "time"
             LocalDateTime serverTime = LocalDateTime.parse(serverTimeStr);
 
             if (!serverTime.equals(expected)) {
-                throw new AssertionError("Время сервера " + serverTime + " не совпадает с ожидаемым " + expected);
+                throw new AssertionError("Время реплики " + replica.url() + " " + serverTime
+                        + " не совпадает с ожидаемым " + expected);
             }
         }
+    }
 
-        /**
-         * Проверяет, что сервер действительно работает по ожидаемому мок-времени.
-         * Если endpoint /api/time отсутствует (404), то тест **пропускается**.
-         */
-        public static void assumeServerTimeOrSkip(LocalDateTime expectedTime) {
-            Response response = given()
-                    .basePath("/api/time")
-                    .get();
+    /**
+     * Проверяет, что каждая реплика сервера действительно работает по ожидаемому мок-времени.
+     * Если endpoint /api/time отсутствует (404), то тест **пропускается**.
+     */
+    public static void assumeServerTimeOrSkip(LocalDateTime expectedTime) {
+        for (EndpointPool.Endpoint replica : EndpointPool.shared().endpoints()) {
+            Response response = MockTimeProvider.propagate(ServerTimeHook.at(replica)).get();
 
             int statusCode = response.statusCode();
             String body = response.asString();
 
-            Logger logger = LoggerFactory.getLogger(TestUtils.class);
-            logger.info("🕓 Ответ от /api/time: статус {}, тело: {}", statusCode, body);
+            logger.info("🕓 Ответ от {}/api/time: статус {}, тело: {}", replica.url(), statusCode, body);
 
             if (statusCode == 404) {
                 logger.warn("⚠️ Эндпоинт /api/time не реализован на сервере. ⏭️ Пропускаем проверку времени.");
@@ -93,11 +116,13 @@ public class TestUtils {
                 String serverTimeStr = response.jsonPath().getString("serverTime");
                 LocalDateTime actual = LocalDateTime.parse(serverTimeStr);
                 if (!actual.equals(expectedTime)) {
-                    throw new AssertionError("Ожидалось время " + expectedTime + ", а пришло " + actual);
+                    throw new AssertionError("Ожидалось время " + expectedTime + ", а пришло " + actual
+                            + " (" + replica.url() + ")");
                 }
             } catch (Exception e) {
-                logger.warn("⚠️ Не удалось проверить время сервера: {}", e.getMessage());
+                logger.warn("⚠️ Не удалось проверить время сервера {}: {}", replica.url(), e.getMessage());
                 throw new SkipException("Ошибка проверки serverTime — тест пропущен");
             }
         }
     }
+}
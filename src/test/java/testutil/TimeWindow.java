@@ -0,0 +1,50 @@
+package testutil;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.time.DayOfWeek;
+
+/**
+ * Окно серверного времени, в котором тест имеет смысл.
+ * <p>
+ * Окно — пересечение условий: дни недели, интервал времени суток [from, to) (может переходить через полночь,
+ * например 22:00–06:00) и, при необходимости, "каждая N-я минута, первые S секунд".
+ * Планирование выполняет {@link TimeWindowScheduler}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface TimeWindow {
+
+    /**
+     * Дни недели; пусто — любой день.
+     */
+    DayOfWeek[] days() default {};
+
+    /**
+     * Начало интервала суток, HH:mm (включительно).
+     */
+    String from() default "00:00";
+
+    /**
+     * Конец интервала суток, HH:mm (не включительно); "24:00" — до конца суток.
+     */
+    String to() default "24:00";
+
+    /**
+     * Окно открыто только в минуты, кратные значению; 0 — любая минута.
+     */
+    int minuteModulo() default 0;
+
+    /**
+     * Окно открыто только в первые секунды минуты (вместе с {@link #minuteModulo()}).
+     */
+    int maxSecond() default 60;
+
+    /**
+     * Максимальное ожидание окна в секундах (режим {@code real});
+     * -1 — значение {@code time.window.max.wait} (по умолчанию 300).
+     */
+    long maxWaitSeconds() default -1;
+}
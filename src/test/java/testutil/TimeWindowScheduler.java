@@ -0,0 +1,210 @@
+package testutil;
+
+import mainutils.MockTimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import java.lang.reflect.Method;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Планировщик тестов с {@link TimeWindow}: время для оконного теста задаёт он, тест своё время не фиксирует
+ * и читает его из {@link MockTimeProvider#now()}.
+ * <p>
+ * В обоих режимах перехватчик переносит оконные тесты в конец набора: поднимает их {@code priority} выше всех
+ * остальных (TestNG упорядочивает методы по приоритету уже после перехватчиков, простая перестановка не сработает).
+ * <p>
+ * По умолчанию ({@code -Dtime.window.mode=mock}) тест выполняется с мок-временем ({@link MockTimeProvider})
+ * на начале ближайшего окна, без ожидания. В конце набора серверное мок-время ({@code mock.time.server.hook})
+ * не попадает на обычные тесты.
+ * <p>
+ * Режим {@code -Dtime.window.mode=real} — для сервера, который не принимает мок-время: тест выполняется
+ * по реальным часам сервера, оконные тесты упорядочены по ближайшему открытию окна. Перед запуском оконного теста:
+ * <ul>
+ *     <li>окно открыто — тест выполняется сразу;</li>
+ *     <li>окно откроется в пределах максимального ожидания — ждём. Обычные тесты к этому моменту уже выполнены;
+ *     в параллельном наборе ждёт только поток этого теста;</li>
+ *     <li>иначе тест пропускается с ETA.</li>
+ * </ul>
+ * Прочие параметры: {@code time.window.max.wait} (секунды, по умолчанию 300) и
+ * {@code time.window.zone} (часовой пояс сервера, по умолчанию системный).
+ */
+public class TimeWindowScheduler implements IMethodInterceptor, IHookable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeWindowScheduler.class);
+
+    private static final int ENTRY_MARGIN_SECONDS = 2;
+    private static final int SEARCH_MINUTES = 8 * 24 * 60;
+    private static final long DEFAULT_MAX_WAIT_SECONDS = Long.getLong("time.window.max.wait", 300);
+    private static final boolean MOCK_MODE = !"real".equalsIgnoreCase(System.getProperty("time.window.mode", "mock"));
+    private static final ZoneId SERVER_ZONE = ZoneId.of(System.getProperty("time.window.zone", ZoneId.systemDefault().getId()));
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        List<IMethodInstance> regular = new ArrayList<>();
+        List<IMethodInstance> windowed = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            (windowOf(instance) != null ? windowed : regular).add(instance);
+        }
+        if (windowed.isEmpty()) {
+            return methods;
+        }
+
+        LocalDateTime now = currentTime();
+        if (!MOCK_MODE) {
+            windowed.sort(Comparator.comparing(instance -> nextOpening(windowOf(instance), now).orElse(LocalDateTime.MAX)));
+        }
+        int priority = regular.stream().mapToInt(instance -> instance.getMethod().getPriority()).max().orElse(0);
+        for (IMethodInstance instance : windowed) {
+            instance.getMethod().setPriority(++priority);
+            logger.info("🗓️ Оконный тест {} перенесён в конец (priority {}), окно: {}", instance.getMethod().getMethodName(),
+                    priority, nextOpening(windowOf(instance), now).map(TimeWindowScheduler::describeEta).orElse("не найдено"));
+        }
+
+        List<IMethodInstance> ordered = new ArrayList<>(regular);
+        ordered.addAll(windowed);
+        return ordered;
+    }
+
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        Method method = testResult.getMethod().getConstructorOrMethod().getMethod();
+        TimeWindow window = method != null ? method.getAnnotation(TimeWindow.class) : null;
+        if (window == null) {
+            callBack.runTestMethod(testResult);
+            return;
+        }
+
+        String name = testResult.getMethod().getMethodName();
+        LocalDateTime now = currentTime();
+        Optional<LocalDateTime> opening = nextOpening(window, now);
+        if (opening.isEmpty()) {
+            throw new SkipException("Окно " + describe(window) + " не открывается в ближайшую неделю");
+        }
+
+        if (MOCK_MODE) {
+            // Секунды без долей: сервер возвращает мок-время в /api/time, тест сравнивает его на равенство
+            LocalDateTime mockTime = opening.get().truncatedTo(ChronoUnit.SECONDS);
+            logger.info("🕐 {}: мок-время {} (окно {})", name, mockTime, describe(window));
+            try (MockTimeProvider.Scope ignored = MockTimeProvider.override(mockTime)) {
+                callBack.runTestMethod(testResult);
+            }
+            return;
+        }
+
+        Duration wait = Duration.between(now, opening.get());
+        long maxWait = window.maxWaitSeconds() >= 0 ? window.maxWaitSeconds() : DEFAULT_MAX_WAIT_SECONDS;
+        if (wait.getSeconds() > maxWait) {
+            String message = String.format("Окно %s откроется %s — дольше допустимого ожидания %d с",
+                    describe(window), describeEta(opening.get()), maxWait);
+            logger.warn("⏭️ {}: {}", name, message);
+            throw new SkipException(message);
+        }
+        if (!wait.isZero()) {
+            logger.info("⏳ {}: ожидание окна {} ({} с)", name, describe(window), wait.toSeconds());
+            try {
+                Thread.sleep(wait.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SkipException("Ожидание окна прервано");
+            }
+        }
+        callBack.runTestMethod(testResult);
+    }
+
+    /**
+     * Ближайший момент не раньше {@code now}, когда окно открыто (с запасом на выполнение запроса).
+     */
+    public static Optional<LocalDateTime> nextOpening(TimeWindow window, LocalDateTime now) {
+        if (isOpen(window, now)) {
+            return Optional.of(now);
+        }
+        LocalDateTime candidate = now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        for (int i = 0; i < SEARCH_MINUTES; i++) {
+            if (isOpen(window, candidate)) {
+                return Optional.of(candidate);
+            }
+            candidate = candidate.plusMinutes(1);
+        }
+        return Optional.empty();
+    }
+
+    static boolean isOpen(TimeWindow window, LocalDateTime time) {
+        if (window.days().length > 0) {
+            boolean dayMatches = false;
+            for (DayOfWeek day : window.days()) {
+                dayMatches |= day == time.getDayOfWeek();
+            }
+            if (!dayMatches) {
+                return false;
+            }
+        }
+        int second = time.toLocalTime().toSecondOfDay();
+        int from = secondOfDay(window.from());
+        int to = secondOfDay(window.to());
+        boolean inRange = from <= to
+                ? second >= from && to - second > ENTRY_MARGIN_SECONDS
+                : second >= from || to - second > ENTRY_MARGIN_SECONDS;
+        if (!inRange) {
+            return false;
+        }
+        if (window.minuteModulo() > 0 && time.getMinute() % window.minuteModulo() != 0) {
+            return false;
+        }
+        return window.maxSecond() >= 60 || window.maxSecond() - time.getSecond() > ENTRY_MARGIN_SECONDS;
+    }
+
+    private static int secondOfDay(String hhmm) {
+        String[] parts = hhmm.split(":");
+        return Integer.parseInt(parts[0]) * 3600 + Integer.parseInt(parts[1]) * 60;
+    }
+
+    private static LocalDateTime currentTime() {
+        return MOCK_MODE ? MockTimeProvider.now() : LocalDateTime.now(SERVER_ZONE);
+    }
+
+    private static TimeWindow windowOf(IMethodInstance instance) {
+        Method method = instance.getMethod().getConstructorOrMethod().getMethod();
+        return method != null ? method.getAnnotation(TimeWindow.class) : null;
+    }
+
+    private static String describeEta(LocalDateTime opening) {
+        Duration eta = Duration.between(currentTime(), opening);
+        if (eta.isNegative() || eta.isZero()) {
+            return "сейчас";
+        }
+        return String.format("в %s (через %dч %02dм)", opening.truncatedTo(ChronoUnit.SECONDS),
+                eta.toHours(), eta.toMinutesPart());
+    }
+
+    private static String describe(TimeWindow window) {
+        StringBuilder sb = new StringBuilder();
+        if (window.days().length > 0) {
+            sb.append(Arrays.toString(window.days())).append(' ');
+        }
+        sb.append(window.from()).append('–').append(window.to());
+        if (window.minuteModulo() > 0) {
+            sb.append(", минута % ").append(window.minuteModulo()).append(" == 0");
+        }
+        if (window.maxSecond() < 60) {
+            sb.append(", секунды < ").append(window.maxSecond());
+        }
+        return sb.toString();
+    }
+}